@@ -0,0 +1,95 @@
+/*
+ * Copyright 2026 Herve Quiroz
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.trancecode.opts;
+
+import org.apache.log4j.Appender;
+import org.apache.log4j.ConsoleAppender;
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import org.apache.log4j.PatternLayout;
+
+/**
+ * Same as {@link AbstractLog4jLauncher}, but logs to the console from a
+ * background thread (see {@link #getLogBufferSize()} and
+ * {@link #isLogBlocking()}), and only configures log4j once the options have
+ * been parsed: runs that exit early, such as {@code --help}, do not configure
+ * log4j at all, and quiet runs log their errors synchronously without
+ * starting the background thread.
+ * <p>
+ * As a consequence, what {@link Option} methods log is not written: launchers
+ * should rather keep track of it, and log it from {@link #optionsParsed()}
+ * once the super implementation has been called, or from {@code run()}.
+ * 
+ * @author Herve Quiroz
+ */
+public abstract class AbstractAsyncLog4jLauncher extends AbstractLauncher
+{
+    private static final String APPENDER_NAME = "tc-opts-console";
+    private static final String LAYOUT_PATTERN = "%m%n";
+
+    /**
+     * The number of log messages that can wait for the console, 8192 by
+     * default.
+     */
+    protected int getLogBufferSize()
+    {
+        return 8192;
+    }
+
+    /**
+     * Whether logging waits for room when too many messages wait for the
+     * console, or else drops them. Messages are dropped by default.
+     */
+    protected boolean isLogBlocking()
+    {
+        return false;
+    }
+
+    @Override
+    protected void optionsParsed()
+    {
+        super.optionsParsed();
+        configure(this);
+    }
+
+    private static synchronized void configure(final AbstractAsyncLog4jLauncher launcher)
+    {
+        final Logger rootLogger = Logger.getRootLogger();
+        final Appender appender = rootLogger.getAppender(APPENDER_NAME);
+        if (launcher.isQuiet())
+        {
+            if (appender == null)
+            {
+                rootLogger.removeAllAppenders();
+                final ConsoleAppender consoleAppender = new ConsoleAppender(new PatternLayout(LAYOUT_PATTERN));
+                consoleAppender.setName(APPENDER_NAME);
+                rootLogger.addAppender(consoleAppender);
+            }
+            rootLogger.setLevel(Level.ERROR);
+            return;
+        }
+
+        if (!(appender instanceof AsyncConsoleAppender))
+        {
+            rootLogger.removeAllAppenders();
+            final AsyncConsoleAppender asyncAppender = new AsyncConsoleAppender(new PatternLayout(LAYOUT_PATTERN),
+                    System.out, launcher.getLogBufferSize(), launcher.isLogBlocking());
+            asyncAppender.setName(APPENDER_NAME);
+            rootLogger.addAppender(asyncAppender);
+        }
+        rootLogger.setLevel(launcher.isVerbose() ? Level.DEBUG : Level.INFO);
+    }
+}
@@ -46,6 +46,15 @@ public abstract class AbstractLauncher
         verbose = true;
     }
 
+    /**
+     * Invoked by {@link Options} once all the options have been invoked,
+     * right before running the launcher. Does nothing by default.
+     */
+    protected void optionsParsed()
+    {
+        // Nothing to do
+    }
+
     public final boolean isQuiet()
     {
         return quiet;
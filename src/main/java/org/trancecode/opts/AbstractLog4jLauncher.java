@@ -21,15 +21,35 @@ import org.apache.log4j.Logger;
 import org.apache.log4j.PatternLayout;
 
 /**
+ * Logs to the console with log4j, at a level set by the quiet and verbose
+ * switches.
+ * <p>
+ * log4j is configured when the first launcher is created rather than when
+ * the class is initialized, so that launcher classes can be initialized while
+ * building a native image.
+ * 
  * @author Herve Quiroz
  */
 public abstract class AbstractLog4jLauncher extends AbstractLauncher
 {
-    static
+    private static final class Log4jConfiguration
     {
-        Logger.getRootLogger().removeAllAppenders();
-        Logger.getRootLogger().addAppender(new ConsoleAppender(new PatternLayout("%m%n")));
-        Logger.getRootLogger().setLevel(Level.INFO);
+        static
+        {
+            Logger.getRootLogger().removeAllAppenders();
+            Logger.getRootLogger().addAppender(new ConsoleAppender(new PatternLayout("%m%n")));
+            Logger.getRootLogger().setLevel(Level.INFO);
+        }
+
+        private static void ensureConfigured()
+        {
+            // Configured by the static initializer
+        }
+    }
+
+    protected AbstractLog4jLauncher()
+    {
+        Log4jConfiguration.ensureConfigured();
     }
 
     @Override
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2026 Herve Quiroz
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.trancecode.opts;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Argument conversions submitted to an {@link Executor} while the
+ * command-line is parsed. The converted values are stored into the option
+ * occurrences in argument order, and the first failure in argument order is
+ * the one reported.
+ * 
+ * @author Herve Quiroz
+ */
+final class ArgumentConversions
+{
+    private final Executor executor;
+    private final List<Conversion> conversions = new ArrayList<Conversion>();
+
+    private static final class Conversion extends FutureTask<Object>
+    {
+        private final OptionOccurrences occurrences;
+        private final int position;
+
+        private Conversion(final Callable<Object> callable, final OptionOccurrences occurrences, final int position)
+        {
+            super(callable);
+            this.occurrences = occurrences;
+            this.position = position;
+        }
+    }
+
+    ArgumentConversions(final Executor executor)
+    {
+        this.executor = Preconditions.checkNotNull(executor);
+    }
+
+    /**
+     * Submits the conversion of the next value of the option occurrences.
+     */
+    void submit(final OptionOccurrences occurrences, final Callable<Object> callable)
+    {
+        final Conversion conversion = new Conversion(callable, occurrences, occurrences.reserve());
+        conversions.add(conversion);
+        executor.execute(conversion);
+    }
+
+    /**
+     * Waits for the submitted conversions and stores the converted values.
+     * 
+     * @throws RuntimeException
+     *             the failure of the first conversion that failed, in
+     *             argument order, once the remaining conversions are
+     *             cancelled.
+     */
+    void complete()
+    {
+        for (int i = 0; i < conversions.size(); i++)
+        {
+            final Conversion conversion = conversions.get(i);
+            try
+            {
+                conversion.occurrences.set(conversion.position, conversion.get());
+            }
+            catch (final InterruptedException e)
+            {
+                cancel(i);
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+            catch (final ExecutionException e)
+            {
+                cancel(i);
+                final Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException)
+                {
+                    throw (RuntimeException) cause;
+                }
+                if (cause instanceof Error)
+                {
+                    throw (Error) cause;
+                }
+                throw new IllegalStateException(cause);
+            }
+        }
+        conversions.clear();
+    }
+
+    private void cancel(final int from)
+    {
+        for (int i = from; i < conversions.size(); i++)
+        {
+            conversions.get(i).cancel(false);
+        }
+        conversions.clear();
+    }
+}
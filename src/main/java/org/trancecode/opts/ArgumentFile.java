@@ -0,0 +1,298 @@
+/*
+ * Copyright 2026 Herve Quiroz
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.trancecode.opts;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+
+/**
+ * Reads the arguments of an {@code @file} one at a time, so that the whole
+ * file is never held in memory, neither as bytes nor as strings.
+ * <p>
+ * Arguments are separated by whitespace. Single or double quotes group
+ * characters, including whitespace, into an argument, and a backslash within
+ * double quotes escapes the next character. A {@code #} at the start of an
+ * argument comments out the rest of the line. Files are encoded in UTF-8.
+ * <p>
+ * Arguments can also be read one line at a time, with
+ * {@link #nextLine()}, for files holding one command-line per line.
+ * <p>
+ * Files larger than {@value #MAPPING_THRESHOLD} bytes are memory-mapped, one
+ * window of at most {@value #MAPPING_WINDOW} bytes at a time. Smaller files are
+ * read through a buffer of {@value #BUFFER_SIZE} bytes.
+ * 
+ * @author Herve Quiroz
+ */
+final class ArgumentFile implements Closeable
+{
+    static final int MAPPING_THRESHOLD = 1024 * 1024;
+    static final int MAPPING_WINDOW = 64 * 1024 * 1024;
+    static final int BUFFER_SIZE = 8192;
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final int EOF = -1;
+    private static final int NONE = -2;
+
+    private final File file;
+    private final FileChannel channel;
+    private final long size;
+    private final CharsetDecoder decoder = UTF_8.newDecoder().onMalformedInput(CodingErrorAction.REPORT)
+            .onUnmappableCharacter(CodingErrorAction.REPORT);
+    private final CharBuffer chars = CharBuffer.allocate(BUFFER_SIZE);
+    private final StringBuilder token = new StringBuilder();
+    private ByteBuffer bytes;
+    private long position;
+    private boolean endOfInput;
+    private boolean flushed;
+    private boolean endOfLine;
+    private int pushedBack = NONE;
+
+    ArgumentFile(final File file) throws IOException
+    {
+        this.file = file;
+        channel = new FileInputStream(file).getChannel();
+        size = channel.size();
+        chars.flip();
+    }
+
+    File file()
+    {
+        return file;
+    }
+
+    /**
+     * @return the next argument, or {@code null} at the end of the file.
+     */
+    String next() throws IOException
+    {
+        return next(false);
+    }
+
+    /**
+     * @return the arguments of the next line holding any, or {@code null} at
+     *         the end of the file. Quoted arguments may span several lines.
+     */
+    String[] nextLine() throws IOException
+    {
+        final List<String> arguments = new ArrayList<String>();
+        for (String argument = next(false); argument != null; argument = next(true))
+        {
+            arguments.add(argument);
+        }
+        if (arguments.isEmpty())
+        {
+            return null;
+        }
+        return arguments.toArray(new String[arguments.size()]);
+    }
+
+    /**
+     * @param sameLine
+     *            {@code true} to return {@code null} rather than an argument
+     *            from the next line.
+     */
+    private String next(final boolean sameLine) throws IOException
+    {
+        if (endOfLine)
+        {
+            endOfLine = false;
+            if (sameLine)
+            {
+                return null;
+            }
+        }
+
+        int c = read();
+        while (true)
+        {
+            while (c != EOF && Character.isWhitespace(c))
+            {
+                if (c == '\n')
+                {
+                    endOfLine = true;
+                }
+                c = read();
+            }
+            if (endOfLine && sameLine)
+            {
+                endOfLine = false;
+                pushedBack = c;
+                return null;
+            }
+            if (c != '#')
+            {
+                break;
+            }
+            while (c != EOF && c != '\n' && c != '\r')
+            {
+                c = read();
+            }
+        }
+        if (c == EOF)
+        {
+            return null;
+        }
+
+        token.setLength(0);
+        while (c != EOF && !Character.isWhitespace(c))
+        {
+            if (c == '"' || c == '\'')
+            {
+                readQuoted((char) c);
+            }
+            else
+            {
+                token.append((char) c);
+            }
+            c = read();
+        }
+        endOfLine = c == '\n';
+
+        return token.toString();
+    }
+
+    private void readQuoted(final char quote) throws IOException
+    {
+        for (int c = read(); c != quote; c = read())
+        {
+            if (c == EOF)
+            {
+                throw new IOException("unterminated quoted argument in " + file);
+            }
+            if (c == '\\' && quote == '"')
+            {
+                c = read();
+                if (c == EOF)
+                {
+                    throw new IOException("unterminated quoted argument in " + file);
+                }
+            }
+            token.append((char) c);
+        }
+    }
+
+    private int read() throws IOException
+    {
+        if (pushedBack != NONE)
+        {
+            final int c = pushedBack;
+            pushedBack = NONE;
+            return c;
+        }
+        if (!chars.hasRemaining() && !fill())
+        {
+            return EOF;
+        }
+        return chars.get();
+    }
+
+    /**
+     * Decodes the next characters into {@link #chars}.
+     * 
+     * @return {@code false} at the end of the file.
+     */
+    private boolean fill() throws IOException
+    {
+        chars.clear();
+        try
+        {
+            while (chars.position() == 0 && !flushed)
+            {
+                if ((bytes == null || !bytes.hasRemaining()) && !endOfInput)
+                {
+                    readBytes();
+                }
+
+                final CoderResult result = decoder.decode(bytes, chars, endOfInput);
+                if (result.isError())
+                {
+                    result.throwException();
+                }
+                if (endOfInput && result.isUnderflow())
+                {
+                    decoder.flush(chars);
+                    flushed = true;
+                    break;
+                }
+                if (result.isUnderflow() && bytes.hasRemaining())
+                {
+                    // Incomplete character at the end of the window
+                    readBytes();
+                }
+            }
+        }
+        finally
+        {
+            chars.flip();
+        }
+
+        return chars.hasRemaining();
+    }
+
+    /**
+     * Reads or maps the next bytes, starting with any bytes left undecoded
+     * from the previous ones.
+     */
+    private void readBytes() throws IOException
+    {
+        if (bytes != null)
+        {
+            position -= bytes.remaining();
+        }
+
+        final long remaining = size - position;
+        boolean truncated = false;
+        if (size > MAPPING_THRESHOLD)
+        {
+            final long length = Math.min(remaining, MAPPING_WINDOW);
+            bytes = channel.map(MapMode.READ_ONLY, position, length);
+        }
+        else
+        {
+            if (bytes == null)
+            {
+                bytes = ByteBuffer.allocate(BUFFER_SIZE);
+            }
+            bytes.clear();
+            bytes.limit((int) Math.min(remaining, BUFFER_SIZE));
+            while (bytes.hasRemaining() && !truncated)
+            {
+                truncated = channel.read(bytes, position + bytes.position()) < 0;
+            }
+            bytes.flip();
+        }
+        position += bytes.remaining();
+        endOfInput = truncated || position >= size;
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        channel.close();
+    }
+}
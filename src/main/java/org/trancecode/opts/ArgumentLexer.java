@@ -0,0 +1,231 @@
+/*
+ * Copyright 2026 Herve Quiroz
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.trancecode.opts;
+
+/**
+ * Splits the command-line into options and option arguments, without regular
+ * expressions nor temporary strings:
+ * <ul>
+ * <li>{@code --name value} and {@code --name=value} for long names,</li>
+ * <li>{@code -n value} and {@code -nvalue} for short names,</li>
+ * <li>{@code -abc} for several short names, until one that takes the rest of
+ * the argument as its value,</li>
+ * <li>{@code --} to end the options.</li>
+ * </ul>
+ * The other arguments, and all the arguments after {@code --}, are not
+ * options: they are reported as {@link #ARGUMENT}.
+ * 
+ * @author Herve Quiroz
+ */
+final class ArgumentLexer
+{
+    /**
+     * No more arguments.
+     */
+    static final int END = 0;
+
+    /**
+     * An option, see {@link #option()}.
+     */
+    static final int OPTION = 1;
+
+    /**
+     * An invalid argument, see {@link #error()}.
+     */
+    static final int ERROR = 2;
+
+    /**
+     * An argument that is not an option, see {@link #argument()}.
+     */
+    static final int ARGUMENT = 3;
+
+    private final CommandModel model;
+    private final Arguments arguments;
+    private boolean endOfOptions;
+    private String arg;
+    private OptionModel option;
+    private boolean longName;
+    private int nameStart;
+    private int nameEnd;
+    private int valueStart = -1;
+    private int nextShortName = -1;
+    private String error;
+
+    ArgumentLexer(final CommandModel model, final Arguments arguments)
+    {
+        this.model = model;
+        this.arguments = arguments;
+    }
+
+    /**
+     * @return {@link #END}, {@link #OPTION}, {@link #ERROR} or
+     *         {@link #ARGUMENT}.
+     */
+    int next()
+    {
+        option = null;
+        error = null;
+        if (nextShortName > 0)
+        {
+            return shortName(nextShortName);
+        }
+
+        arg = endOfOptions ? arguments.next() : arguments.nextOption();
+        valueStart = -1;
+        if (arg == null)
+        {
+            return END;
+        }
+        final int length = arg.length();
+        if (endOfOptions || length < 2 || arg.charAt(0) != '-')
+        {
+            return ARGUMENT;
+        }
+        if (arg.charAt(1) != '-')
+        {
+            return shortName(1);
+        }
+        if (length == 2)
+        {
+            endOfOptions = true;
+            return next();
+        }
+
+        longName = true;
+        nameStart = 2;
+        nameEnd = arg.indexOf('=', 2);
+        if (nameEnd < 0)
+        {
+            nameEnd = length;
+        }
+        else
+        {
+            valueStart = nameEnd + 1;
+        }
+        if (!isNameChar(arg.charAt(2)))
+        {
+            return error("unknown option: " + arg);
+        }
+        option = model.findOptionWithLongName(arg, nameStart, nameEnd);
+        if (option == null)
+        {
+            return error("unknown option: " + token());
+        }
+        if (valueStart >= 0 && !option.hasParameters())
+        {
+            return error("option " + token() + " does not take an argument");
+        }
+        return OPTION;
+    }
+
+    /**
+     * Reads the short name at the given position, and the value that follows
+     * if the option takes an argument.
+     */
+    private int shortName(final int index)
+    {
+        longName = false;
+        nameStart = index;
+        nameEnd = index + 1;
+        nextShortName = -1;
+        final char name = arg.charAt(index);
+        if (isNameChar(name))
+        {
+            option = model.findOptionWithShortName(name);
+        }
+        if (option == null)
+        {
+            return error("unknown option: " + token());
+        }
+        if (nameEnd < arg.length())
+        {
+            if (option.hasParameters())
+            {
+                valueStart = nameEnd;
+            }
+            else
+            {
+                nextShortName = nameEnd;
+            }
+        }
+        return OPTION;
+    }
+
+    private int error(final String message)
+    {
+        error = message;
+        option = null;
+        valueStart = -1;
+        nextShortName = -1;
+        return ERROR;
+    }
+
+    private static boolean isNameChar(final char c)
+    {
+        return c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c >= '0' && c <= '9';
+    }
+
+    OptionModel option()
+    {
+        return option;
+    }
+
+    /**
+     * @return the current option as written on the command-line, such as
+     *         {@code -v} for a short name in a cluster.
+     */
+    String token()
+    {
+        if (nameStart == 1 && arg.length() == 2 || longName && nameEnd == arg.length())
+        {
+            return arg;
+        }
+        if (longName)
+        {
+            return arg.substring(0, nameEnd);
+        }
+        return "-" + arg.charAt(nameStart);
+    }
+
+    /**
+     * @return the argument of the current option, following the option in the
+     *         same argument or else in the next argument, or {@code null} if
+     *         there are no more arguments.
+     */
+    String nextArgument()
+    {
+        if (valueStart < 0)
+        {
+            return arguments.next();
+        }
+        final String value = arg.substring(valueStart);
+        valueStart = -1;
+        return value;
+    }
+
+    /**
+     * @return the current argument, which is not an option.
+     */
+    String argument()
+    {
+        return arg;
+    }
+
+    String error()
+    {
+        return error;
+    }
+}
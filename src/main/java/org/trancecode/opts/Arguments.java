@@ -0,0 +1,277 @@
+/*
+ * Copyright 2026 Herve Quiroz
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.trancecode.opts;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Command-line arguments, with {@code @file} arguments found where an option
+ * is expected replaced by the arguments read from the file, as they are
+ * consumed.
+ * <p>
+ * Argument files may refer to other argument files. Relative paths are
+ * resolved against the working directory, which is the current directory
+ * unless specified.
+ * 
+ * @author Herve Quiroz
+ */
+final class Arguments
+{
+    private final String[] args;
+    private final File workingDirectory;
+    private int index;
+    private int fileIndex;
+    private final List<ArgumentFile> files = new ArrayList<ArgumentFile>();
+    private List<String> recordedArgs;
+    private List<Integer> recordedIndexes;
+    private List<String> pushedBackArgs;
+    private List<Integer> pushedBackIndexes;
+    private int pushedBackCount;
+    private int pushedBackIndex = -1;
+    private IllegalArgumentException pushedBackError;
+    private int pushedBackErrorIndex;
+
+    Arguments(final String[] args)
+    {
+        this(args, null);
+    }
+
+    /**
+     * @param workingDirectory
+     *            the directory relative paths are resolved against, or
+     *            {@code null} for the current directory.
+     */
+    Arguments(final String[] args, final File workingDirectory)
+    {
+        this.args = args;
+        this.workingDirectory = workingDirectory;
+    }
+
+    /**
+     * @return the next option, or {@code null} if there are no more
+     *         arguments.
+     */
+    String nextOption()
+    {
+        final String pushedBackArg = readPushedBack();
+        if (pushedBackArg != null)
+        {
+            return record(pushedBackArg);
+        }
+
+        while (true)
+        {
+            final String arg = read();
+            if (arg == null || arg.length() < 2 || arg.charAt(0) != '@')
+            {
+                return record(arg);
+            }
+            if (files.isEmpty())
+            {
+                fileIndex = index - 1;
+            }
+            final File file = new File(arg.substring(1));
+            if (workingDirectory != null && !file.isAbsolute())
+            {
+                open(new File(workingDirectory, file.getPath()));
+            }
+            else
+            {
+                open(file);
+            }
+        }
+    }
+
+    /**
+     * @return the next argument, or {@code null} if there are no more
+     *         arguments.
+     */
+    String next()
+    {
+        final String pushedBackArg = readPushedBack();
+        if (pushedBackArg != null)
+        {
+            return record(pushedBackArg);
+        }
+
+        return record(read());
+    }
+
+    /**
+     * Records the arguments returned from now on, along with their
+     * {@link #index()}.
+     */
+    void record(final List<String> args, final List<Integer> indexes)
+    {
+        recordedArgs = args;
+        recordedIndexes = indexes;
+    }
+
+    /**
+     * Returns the given arguments again, along with their {@link #index()},
+     * before reading on. The arguments are returned as they are: argument
+     * files among them have already been read.
+     * 
+     * @param error
+     *            the error reading the arguments stopped at, thrown again
+     *            after the given arguments, or {@code null}.
+     */
+    void pushBack(final List<String> args, final List<Integer> indexes, final IllegalArgumentException error)
+    {
+        final List<String> newArgs = new ArrayList<String>(args);
+        final List<Integer> newIndexes = new ArrayList<Integer>(indexes);
+        if (pushedBackArgs != null)
+        {
+            newArgs.addAll(pushedBackArgs.subList(pushedBackCount, pushedBackArgs.size()));
+            newIndexes.addAll(pushedBackIndexes.subList(pushedBackCount, pushedBackIndexes.size()));
+        }
+        if (error != null)
+        {
+            pushedBackError = error;
+            pushedBackErrorIndex = index();
+        }
+        pushedBackArgs = newArgs;
+        pushedBackIndexes = newIndexes;
+        pushedBackCount = 0;
+    }
+
+    /**
+     * @return the next argument pushed back, or {@code null} if there are
+     *         none left.
+     */
+    private String readPushedBack()
+    {
+        if (pushedBackArgs != null && pushedBackCount < pushedBackArgs.size())
+        {
+            pushedBackIndex = pushedBackIndexes.get(pushedBackCount);
+            return pushedBackArgs.get(pushedBackCount++);
+        }
+
+        pushedBackArgs = null;
+        pushedBackIndexes = null;
+        if (pushedBackError != null)
+        {
+            final IllegalArgumentException error = pushedBackError;
+            pushedBackIndex = pushedBackErrorIndex;
+            pushedBackError = null;
+            throw error;
+        }
+        pushedBackIndex = -1;
+        return null;
+    }
+
+    private String record(final String arg)
+    {
+        if (recordedArgs != null && arg != null)
+        {
+            recordedArgs.add(arg);
+            recordedIndexes.add(index());
+        }
+        return arg;
+    }
+
+    private String read()
+    {
+        while (!files.isEmpty())
+        {
+            final ArgumentFile file = files.get(files.size() - 1);
+            final String arg;
+            try
+            {
+                arg = file.next();
+            }
+            catch (final IOException e)
+            {
+                throw new IllegalArgumentException("cannot read argument file " + file.file() + ": "
+                        + e.getMessage(), e);
+            }
+            if (arg != null)
+            {
+                return arg;
+            }
+            files.remove(files.size() - 1);
+            closeQuietly(file);
+        }
+
+        if (index < args.length)
+        {
+            return args[index++];
+        }
+        return null;
+    }
+
+    /**
+     * @return the position on the command-line of the last argument returned,
+     *         or of the {@code @file} argument it was read from.
+     */
+    int index()
+    {
+        if (pushedBackIndex >= 0)
+        {
+            return pushedBackIndex;
+        }
+        if (files.isEmpty())
+        {
+            return index - 1;
+        }
+        return fileIndex;
+    }
+
+    private void open(final File file)
+    {
+        try
+        {
+            final File canonicalFile = file.getCanonicalFile();
+            for (final ArgumentFile openFile : files)
+            {
+                Preconditions.checkArgument(!openFile.file().equals(canonicalFile), "recursive argument file: %s",
+                        file);
+            }
+            files.add(new ArgumentFile(canonicalFile));
+        }
+        catch (final IOException e)
+        {
+            throw new IllegalArgumentException("cannot read argument file " + file + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Closes the argument files that have not been read until the end.
+     */
+    void close()
+    {
+        for (final ArgumentFile file : files)
+        {
+            closeQuietly(file);
+        }
+        files.clear();
+    }
+
+    private static void closeQuietly(final ArgumentFile file)
+    {
+        try
+        {
+            file.close();
+        }
+        catch (final IOException e)
+        {
+            // Only read from
+        }
+    }
+}
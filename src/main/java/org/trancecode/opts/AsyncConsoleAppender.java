@@ -0,0 +1,210 @@
+/*
+ * Copyright 2026 Herve Quiroz
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.trancecode.opts;
+
+import java.io.PrintStream;
+
+import org.apache.log4j.AppenderSkeleton;
+import org.apache.log4j.Layout;
+import org.apache.log4j.spi.LoggingEvent;
+
+/**
+ * Writes log messages to the console from a background thread, so that
+ * logging does not wait for the console.
+ * <p>
+ * Messages are formatted by the logging thread and kept in a bounded ring
+ * buffer. The background thread takes all the pending messages at once, and
+ * writes and flushes them as a single batch. When the buffer is full, the
+ * logging thread either waits for room or drops the message, depending on the
+ * blocking policy; the number of dropped messages is then logged. Pending
+ * messages are written when the appender is closed, or when the JVM shuts
+ * down.
+ * 
+ * @author Herve Quiroz
+ */
+final class AsyncConsoleAppender extends AppenderSkeleton
+{
+    private final PrintStream out;
+    private final boolean blocking;
+    private final String[] messages;
+    private final Thread dispatcher;
+    private final Thread shutdownHook;
+    private int head;
+    private int size;
+    private int dropped;
+
+    AsyncConsoleAppender(final Layout layout, final PrintStream out, final int bufferSize, final boolean blocking)
+    {
+        Preconditions.checkNotNull(layout);
+        Preconditions.checkNotNull(out);
+        Preconditions.checkArgument(bufferSize > 0, "invalid buffer size: %s", bufferSize);
+        setLayout(layout);
+        this.out = out;
+        this.blocking = blocking;
+        messages = new String[bufferSize];
+
+        dispatcher = new Thread("tc-opts-async-console")
+        {
+            @Override
+            public void run()
+            {
+                dispatch();
+            }
+        };
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+        shutdownHook = new Thread("tc-opts-async-console-shutdown")
+        {
+            @Override
+            public void run()
+            {
+                AsyncConsoleAppender.this.close();
+            }
+        };
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+    }
+
+    /**
+     * Called with the lock of the appender held, by
+     * {@link AppenderSkeleton#doAppend(LoggingEvent)}.
+     */
+    @Override
+    protected void append(final LoggingEvent event)
+    {
+        final StringBuilder message = new StringBuilder(layout.format(event));
+        if (layout.ignoresThrowable() && event.getThrowableStrRep() != null)
+        {
+            for (final String line : event.getThrowableStrRep())
+            {
+                message.append(line).append(Layout.LINE_SEP);
+            }
+        }
+
+        while (size == messages.length)
+        {
+            if (!blocking)
+            {
+                dropped++;
+                return;
+            }
+            try
+            {
+                wait();
+            }
+            catch (final InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                dropped++;
+                return;
+            }
+        }
+        messages[(head + size) % messages.length] = message.toString();
+        size++;
+        if (size == 1)
+        {
+            notifyAll();
+        }
+    }
+
+    private void dispatch()
+    {
+        final StringBuilder batch = new StringBuilder();
+        while (true)
+        {
+            synchronized (this)
+            {
+                while (size == 0 && dropped == 0 && !closed)
+                {
+                    try
+                    {
+                        wait();
+                    }
+                    catch (final InterruptedException e)
+                    {
+                        // Only stopped by close()
+                    }
+                }
+                if (size == 0 && dropped == 0)
+                {
+                    return;
+                }
+
+                for (; size > 0; size--)
+                {
+                    batch.append(messages[head]);
+                    messages[head] = null;
+                    head = (head + 1) % messages.length;
+                }
+                if (dropped > 0)
+                {
+                    batch.append(dropped).append(" log messages dropped").append(Layout.LINE_SEP);
+                    dropped = 0;
+                }
+                notifyAll();
+            }
+
+            out.print(batch);
+            out.flush();
+            batch.setLength(0);
+        }
+    }
+
+    /**
+     * Writes the pending messages and stops the background thread.
+     */
+    @Override
+    public void close()
+    {
+        synchronized (this)
+        {
+            if (closed)
+            {
+                return;
+            }
+            closed = true;
+            notifyAll();
+        }
+
+        if (Thread.currentThread() != dispatcher)
+        {
+            try
+            {
+                dispatcher.join();
+            }
+            catch (final InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (Thread.currentThread() != shutdownHook)
+        {
+            try
+            {
+                Runtime.getRuntime().removeShutdownHook(shutdownHook);
+            }
+            catch (final IllegalStateException e)
+            {
+                // Already shutting down
+            }
+        }
+    }
+
+    @Override
+    public boolean requiresLayout()
+    {
+        return true;
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright 2026 Herve Quiroz
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.trancecode.opts;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.lang.reflect.WildcardType;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.trancecode.opts.converter.StringConverters;
+
+/**
+ * An array, {@link List}, {@link Set} or {@link Collection} parameter, which
+ * receives the arguments of all the occurrences of an option in a single
+ * invocation. Each argument is converted to the element type, which is
+ * {@link String} for raw collections and collections of {@link Object}.
+ * 
+ * @author Herve Quiroz
+ */
+final class BulkParameter
+{
+    private final Class<?> type;
+    private final Class<?> elementType;
+    private final PrimitiveParameter primitiveElement;
+
+    /**
+     * @return the bulk parameter for the given parameter type, or
+     *         {@code null} if the parameter is not an array or a collection.
+     */
+    static BulkParameter forType(final Class<?> type, final Type genericType)
+    {
+        if (type.isArray())
+        {
+            return new BulkParameter(type, type.getComponentType());
+        }
+        if (type != List.class && type != Set.class && type != Collection.class)
+        {
+            return null;
+        }
+
+        if (genericType instanceof ParameterizedType)
+        {
+            final Class<?> elementType = getRawType(((ParameterizedType) genericType).getActualTypeArguments()[0]);
+            return new BulkParameter(type, elementType == Object.class ? String.class : elementType);
+        }
+        return new BulkParameter(type, String.class);
+    }
+
+    /**
+     * @return the class of the values a parameter of the given type accepts.
+     */
+    static Class<?> getRawType(final Type type)
+    {
+        if (type instanceof Class)
+        {
+            return (Class<?>) type;
+        }
+        if (type instanceof ParameterizedType)
+        {
+            return getRawType(((ParameterizedType) type).getRawType());
+        }
+        if (type instanceof GenericArrayType)
+        {
+            return Array.newInstance(getRawType(((GenericArrayType) type).getGenericComponentType()), 0).getClass();
+        }
+        if (type instanceof WildcardType)
+        {
+            return getRawType(((WildcardType) type).getUpperBounds()[0]);
+        }
+        if (type instanceof TypeVariable)
+        {
+            return getRawType(((TypeVariable<?>) type).getBounds()[0]);
+        }
+
+        return String.class;
+    }
+
+    BulkParameter(final Class<?> type, final Class<?> elementType)
+    {
+        Preconditions.checkArgument(type.isArray() || type == List.class || type == Set.class
+                || type == Collection.class, "not an array or a collection: %s", type);
+        Preconditions.checkArgument(!type.isArray() || type.getComponentType() == elementType,
+                "%s is not the component type of %s", elementType, type);
+        this.type = type;
+        this.elementType = elementType;
+        primitiveElement = PrimitiveParameter.forType(elementType);
+    }
+
+    Class<?> elementType()
+    {
+        return elementType;
+    }
+
+    /**
+     * @return {@code true} if the elements are converted by
+     *         {@link #convertPrimitive(String)}.
+     */
+    boolean isPrimitive()
+    {
+        return primitiveElement != null;
+    }
+
+    long convertPrimitive(final String argumentPart)
+    {
+        return primitiveElement.convert(argumentPart);
+    }
+
+    Object convert(final String argumentPart)
+    {
+        return StringConverters.convert(argumentPart, elementType);
+    }
+
+    /**
+     * @return the parameter value holding the first {@code size} primitive
+     *         values.
+     */
+    Object newValue(final long[] values, final int size)
+    {
+        return primitiveElement.toArray(values, size);
+    }
+
+    /**
+     * @return the parameter value holding the given elements, which is the
+     *         list itself for {@link List} and {@link Collection} parameters.
+     */
+    Object newValue(final List<Object> elements)
+    {
+        if (type.isArray())
+        {
+            final Object[] array = (Object[]) Array.newInstance(elementType, elements.size());
+            return elements.toArray(array);
+        }
+        if (type == Set.class)
+        {
+            return new LinkedHashSet<Object>(elements);
+        }
+
+        return elements;
+    }
+}
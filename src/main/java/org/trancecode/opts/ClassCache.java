@@ -0,0 +1,71 @@
+/*
+ * Copyright 2026 Herve Quiroz
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.trancecode.opts;
+
+/**
+ * Values computed once per class, such as command models or converter
+ * resolutions. Lookups never block: a value may be computed more than once
+ * when threads race for the same class, in which case only one of them is
+ * kept. Classes are not held strongly, so that the class loaders of
+ * launchers can be unloaded.
+ * 
+ * @author Herve Quiroz
+ */
+public abstract class ClassCache<V>
+{
+    private static final boolean CLASS_VALUE = isClassValueAvailable();
+
+    private final ClassStore<V> store;
+
+    protected ClassCache()
+    {
+        if (CLASS_VALUE)
+        {
+            store = new ClassValueStore<V>(this);
+        }
+        else
+        {
+            store = new WeakClassStore<V>(this);
+        }
+    }
+
+    private static boolean isClassValueAvailable()
+    {
+        try
+        {
+            Class.forName("java.lang.ClassValue");
+            return true;
+        }
+        catch (final ClassNotFoundException e)
+        {
+            return false;
+        }
+    }
+
+    /**
+     * @return the value of the class, computed on first use.
+     */
+    public final V get(final Class<?> type)
+    {
+        Preconditions.checkNotNull(type);
+        return store.get(type);
+    }
+
+    /**
+     * @return the value of the class, never {@code null}.
+     */
+    protected abstract V compute(Class<?> type);
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright 2026 Herve Quiroz
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.trancecode.opts;
+
+/**
+ * Keeps the values of a {@link ClassCache} in the classes themselves. Only
+ * loaded on Java 7 and later.
+ * 
+ * @author Herve Quiroz
+ */
+final class ClassValueStore<V> extends ClassValue<V> implements ClassStore<V>
+{
+    private final ClassCache<V> cache;
+
+    ClassValueStore(final ClassCache<V> cache)
+    {
+        this.cache = Preconditions.checkNotNull(cache);
+    }
+
+    @Override
+    protected V computeValue(final Class<?> type)
+    {
+        return Preconditions.checkNotNull(cache.compute(type));
+    }
+}
@@ -0,0 +1,226 @@
+/*
+ * Copyright 2026 Herve Quiroz
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.trancecode.opts;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Options of a launcher class read from the binary index written at compile
+ * time by {@code tc-opts-processor} for the launchers it leaves to
+ * reflection, which spares the scan of all the public methods of the
+ * launcher class hierarchy and of their annotations.
+ * <p>
+ * An index is a {@value #RESOURCE_PREFIX}<i>launcher class name</i> resource
+ * with the following content, written with {@link java.io.DataOutput}:
+ * 
+ * <pre>
+ * int     MAGIC
+ * int     VERSION
+ * UTF     launcher class name
+ * int     option count
+ * option count times:
+ *   UTF   method name
+ *   UTF   return type name
+ *   int   parameter count
+ *   UTF   parameter type name (as returned by Class.getName()), for each parameter
+ *   UTF   short name
+ *   UTF   long name
+ *   UTF   description
+ *   byte  REQUIRED | EXIT | MULTIPLE | STREAMING | BULK flags
+ *   UTF   argument label
+ *   UTF   argument pattern
+ * </pre>
+ * 
+ * Only the annotations of the indexed methods are read, and checked against
+ * the index. An index that does not match the launcher class any more (an
+ * option method that cannot be found, that has a different return type or
+ * whose {@link Option} or {@link Argument} annotation changed) is ignored, so
+ * that a launcher compiled again without the processor falls back to
+ * reflection. Options added to the launcher without updating its index are not
+ * detected.
+ * 
+ * @author Herve Quiroz
+ */
+final class CommandIndex
+{
+    static final String RESOURCE_PREFIX = "META-INF/tc-opts/commands/";
+    static final int MAGIC = 0x74636f69;
+    static final int VERSION = 4;
+
+    static final int REQUIRED = 1;
+    static final int EXIT = 2;
+    static final int MULTIPLE = 4;
+    static final int STREAMING = 8;
+    static final int BULK = 16;
+
+    private static final Map<String, Class<?>> PRIMITIVE_TYPES = new HashMap<String, Class<?>>();
+
+    static
+    {
+        for (final Class<?> type : new Class<?>[] { Boolean.TYPE, Byte.TYPE, Character.TYPE, Double.TYPE,
+                Float.TYPE, Integer.TYPE, Long.TYPE, Short.TYPE })
+        {
+            PRIMITIVE_TYPES.put(type.getName(), type);
+        }
+    }
+
+    private CommandIndex()
+    {
+        // No instantiation
+    }
+
+    /**
+     * @return the options of the launcher class, or {@code null} if there is
+     *         no valid index for it.
+     */
+    static List<OptionModel> getOptions(final Class<?> launcherClass)
+    {
+        final ClassLoader classLoader = launcherClass.getClassLoader();
+        if (classLoader == null)
+        {
+            return null;
+        }
+        final InputStream resource = classLoader.getResourceAsStream(RESOURCE_PREFIX + launcherClass.getName());
+        if (resource == null)
+        {
+            return null;
+        }
+
+        try
+        {
+            final DataInputStream in = new DataInputStream(new BufferedInputStream(resource));
+            try
+            {
+                return readOptions(launcherClass, in);
+            }
+            finally
+            {
+                in.close();
+            }
+        }
+        catch (final IOException e)
+        {
+            return null;
+        }
+    }
+
+    /**
+     * @return the options read from the index, or {@code null} if it does not
+     *         match the launcher class.
+     */
+    static List<OptionModel> readOptions(final Class<?> launcherClass, final DataInputStream in) throws IOException
+    {
+        if (in.readInt() != MAGIC || in.readInt() != VERSION || !in.readUTF().equals(launcherClass.getName()))
+        {
+            return null;
+        }
+
+        final int optionCount = in.readInt();
+        final List<OptionModel> options = new ArrayList<OptionModel>(optionCount);
+        for (int i = 0; i < optionCount; i++)
+        {
+            final String methodName = in.readUTF();
+            final String returnTypeName = in.readUTF();
+            final Class<?>[] parameterTypes = new Class<?>[in.readInt()];
+            for (int j = 0; j < parameterTypes.length; j++)
+            {
+                parameterTypes[j] = getType(in.readUTF(), launcherClass.getClassLoader());
+                if (parameterTypes[j] == null)
+                {
+                    return null;
+                }
+            }
+
+            final Method method;
+            try
+            {
+                method = launcherClass.getMethod(methodName, parameterTypes);
+            }
+            catch (final NoSuchMethodException e)
+            {
+                return null;
+            }
+            if (!method.getReturnType().getName().equals(returnTypeName))
+            {
+                return null;
+            }
+
+            final String shortName = in.readUTF();
+            final String longName = in.readUTF();
+            final String description = in.readUTF();
+            final int flags = in.readByte();
+            final String label = in.readUTF();
+            final String pattern = in.readUTF();
+            if (!isUpToDate(method, shortName, longName, description, flags, label, pattern))
+            {
+                return null;
+            }
+            options.add(CommandModel.newReflectiveOption(options.size(), method, shortName, longName, description,
+                    (flags & REQUIRED) != 0, (flags & EXIT) != 0, (flags & MULTIPLE) != 0, (flags & STREAMING) != 0,
+                    (flags & BULK) != 0, label, pattern));
+        }
+
+        return options;
+    }
+
+    /**
+     * @return whether the annotations of the option method still hold the
+     *         indexed values.
+     */
+    private static boolean isUpToDate(final Method method, final String shortName, final String longName,
+            final String description, final int flags, final String label, final String pattern)
+    {
+        final Option option = CommandModel.getOption(method);
+        if (option == null)
+        {
+            return false;
+        }
+        final int optionFlags = (option.required() ? REQUIRED : 0) | (option.exit() ? EXIT : 0)
+                | (option.multiple() ? MULTIPLE : 0) | (option.streaming() ? STREAMING : 0)
+                | (option.bulk() ? BULK : 0);
+        final Argument argument = method.getAnnotation(Argument.class);
+        return option.shortName().equals(shortName) && option.longName().equals(longName)
+                && option.description().equals(description) && optionFlags == flags
+                && (argument != null ? argument.label() : CommandModel.DEFAULT_LABEL).equals(label)
+                && (argument != null ? argument.pattern() : OptionModel.DEFAULT_PATTERN).equals(pattern);
+    }
+
+    private static Class<?> getType(final String name, final ClassLoader classLoader)
+    {
+        final Class<?> primitiveType = PRIMITIVE_TYPES.get(name);
+        if (primitiveType != null)
+        {
+            return primitiveType;
+        }
+
+        try
+        {
+            return Class.forName(name, false, classLoader);
+        }
+        catch (final ClassNotFoundException e)
+        {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2026 Herve Quiroz
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.trancecode.opts;
+
+/**
+ * An error found on a command-line by {@link Options#validate(Class, String...)}.
+ * 
+ * @author Herve Quiroz
+ */
+public final class CommandLineError
+{
+    /**
+     * The exit code of the errors in the usage of the command.
+     */
+    public static final int USAGE = 2;
+
+    private final int argumentIndex;
+    private final String option;
+    private final String message;
+    private final int exitCode;
+
+    CommandLineError(final int argumentIndex, final String option, final String message, final int exitCode)
+    {
+        this.argumentIndex = argumentIndex;
+        this.option = option;
+        this.message = message;
+        this.exitCode = exitCode;
+    }
+
+    /**
+     * @return the position on the command-line of the invalid argument, or of
+     *         the {@code @file} argument it was read from, or -1 if the error
+     *         is about a missing option.
+     */
+    public int argumentIndex()
+    {
+        return argumentIndex;
+    }
+
+    /**
+     * @return the name of the option the error is about, or {@code null}.
+     */
+    public String option()
+    {
+        return option;
+    }
+
+    public String message()
+    {
+        return message;
+    }
+
+    /**
+     * @return {@link #USAGE}, or the exit code of the
+     *         {@link CommandLineException} thrown by a converter.
+     */
+    public int exitCode()
+    {
+        return exitCode;
+    }
+
+    /**
+     * @return an exception with the same message and exit code, and no stack
+     *         trace.
+     */
+    public CommandLineException toException()
+    {
+        return CommandLineException.withoutStackTrace(exitCode, message);
+    }
+
+    @Override
+    public String toString()
+    {
+        return "#" + argumentIndex + ": " + message;
+    }
+}
@@ -15,8 +15,12 @@
  */
 package org.trancecode.opts;
 
-
 /**
+ * A command-line error, along with the exit code it should result in.
+ * <p>
+ * Exceptions created with {@link #withoutStackTrace(int, String)} are cheap
+ * to create, for errors that are reported rather than debugged.
+ * 
  * @author Herve Quiroz
  */
 public final class CommandLineException extends RuntimeException
@@ -34,12 +38,38 @@ public final class CommandLineException extends RuntimeException
     {
         super(formatMessage(message, args), cause);
         this.exitCode = exitCode;
+        super.fillInStackTrace();
     }
 
     public CommandLineException(final int exitCode, final String message, final Object... args)
     {
         super(formatMessage(message, args));
         this.exitCode = exitCode;
+        super.fillInStackTrace();
+    }
+
+    private CommandLineException(final int exitCode, final String message)
+    {
+        super(message);
+        this.exitCode = exitCode;
+    }
+
+    /**
+     * @return an exception with no stack trace, and the message as is rather
+     *         than used as a format string.
+     */
+    public static CommandLineException withoutStackTrace(final int exitCode, final String message)
+    {
+        return new CommandLineException(exitCode, message);
+    }
+
+    /**
+     * The stack trace is filled by the constructors that want one.
+     */
+    @Override
+    public synchronized Throwable fillInStackTrace()
+    {
+        return this;
     }
 
     public int exitCode()
@@ -0,0 +1,507 @@
+/*
+ * Copyright 2026 Herve Quiroz
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.trancecode.opts;
+
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Options of a launcher class, scanned and validated once per class and then
+ * shared by every {@link Options#execute(Class, String...)} and
+ * {@link Options#printSyntax(Class)} call.
+ * 
+ * @author Herve Quiroz
+ */
+final class CommandModel
+{
+    static final String DEFAULT_LABEL = "VALUE";
+
+    /**
+     * Short names that can be used on the command-line are ASCII characters.
+     */
+    private static final int SHORT_NAME_CHARS = 128;
+
+    private static final boolean METHOD_HANDLES = MethodHandleInvokers.isAvailable();
+
+    /**
+     * Models built so far, by launcher class.
+     */
+    private static final ClassCache<CommandModel> MODELS = new ClassCache<CommandModel>()
+    {
+        @Override
+        protected CommandModel compute(final Class<?> launcherClass)
+        {
+            return newModel(launcherClass);
+        }
+    };
+
+    private final Class<?> launcherClass;
+    private final List<OptionModel> options;
+    private final Map<String, OptionModel> optionsByShortName;
+    private final Map<String, OptionModel> optionsByLongName;
+    private final OptionModel[] optionsByShortNameChar;
+    private final OptionModel[] longNameTable;
+    private final GeneratedCommand<?> generatedCommand;
+    private final boolean indexed;
+    private final boolean streaming;
+    private final Constructor<?> constructor;
+    private final SubcommandIndex subcommands;
+
+    static CommandModel get(final Class<?> launcherClass)
+    {
+        return MODELS.get(launcherClass);
+    }
+
+    private static CommandModel newModel(final Class<?> launcherClass)
+    {
+        final GeneratedCommand<?> generatedCommand = getGeneratedCommand(launcherClass);
+        if (generatedCommand != null)
+        {
+            return new CommandModel(launcherClass, generatedCommand.options(), generatedCommand, false);
+        }
+
+        final List<OptionModel> indexedOptions = CommandIndex.getOptions(launcherClass);
+        if (indexedOptions != null)
+        {
+            return new CommandModel(launcherClass, indexedOptions, null, true);
+        }
+
+        return new CommandModel(launcherClass, getOptions(launcherClass), null, false);
+    }
+
+    private static GeneratedCommand<?> getGeneratedCommand(final Class<?> launcherClass)
+    {
+        final Class<?> generatedClass;
+        try
+        {
+            generatedClass = Class.forName(GeneratedCommand.getClassName(launcherClass.getName()), true,
+                    launcherClass.getClassLoader());
+        }
+        catch (final ClassNotFoundException e)
+        {
+            return null;
+        }
+
+        final GeneratedCommand<?> generatedCommand;
+        try
+        {
+            generatedCommand = (GeneratedCommand<?>) generatedClass.getDeclaredConstructor().newInstance();
+        }
+        catch (final Exception e)
+        {
+            throw new IllegalStateException("cannot instantiate " + generatedClass.getName(), e);
+        }
+        Preconditions.checkState(generatedCommand.launcherClass() == launcherClass, "%s was generated for %s",
+                generatedClass.getName(), generatedCommand.launcherClass());
+        return generatedCommand;
+    }
+
+    /**
+     * @return the annotation of the method, or else of the method it
+     *         overrides in the superclasses, or {@code null}.
+     */
+    static Option getOption(final Method method)
+    {
+        final Option explicitOption = method.getAnnotation(Option.class);
+        if (explicitOption != null)
+        {
+            return explicitOption;
+        }
+
+        final Class<?> parentType = method.getDeclaringClass().getSuperclass();
+        if (parentType != null && parentType != Object.class)
+        {
+            try
+            {
+                final Method parentClassMethod = parentType.getMethod(method.getName(), method.getParameterTypes());
+                return getOption(parentClassMethod);
+            }
+            catch (final NoSuchMethodException e)
+            {
+                return null;
+            }
+        }
+
+        return null;
+    }
+
+    private static List<OptionModel> getOptions(final Class<?> launcherClass)
+    {
+        final List<OptionModel> options = new ArrayList<OptionModel>();
+        for (final Method method : launcherClass.getMethods())
+        {
+            final Option option = getOption(method);
+            if (option != null)
+            {
+                final Argument argument = method.getAnnotation(Argument.class);
+                options.add(newReflectiveOption(options.size(), method, option.shortName(), option.longName(),
+                        option.description(), option.required(), option.exit(), option.multiple(),
+                        option.streaming(), option.bulk(), argument != null ? argument.label() : DEFAULT_LABEL,
+                        argument != null ? argument.pattern() : OptionModel.DEFAULT_PATTERN));
+            }
+        }
+
+        return options;
+    }
+
+    /**
+     * @return an option invoked through a method handle, or else with
+     *         {@link Method#invoke(Object, Object...)}.
+     */
+    static OptionModel newReflectiveOption(final int index, final Method method, final String shortName,
+            final String longName, final String description, final boolean required, final boolean exit,
+            final boolean multiple, final boolean streaming, final boolean bulk, final String label,
+            final String pattern)
+    {
+        Preconditions.checkState(
+                method.getReturnType().equals(Void.TYPE) || method.getReturnType().equals(Integer.TYPE),
+                "an @Option method can only return 'void' or 'int': %s", method);
+        suppressAccessChecks(method);
+        final Class<?>[] parameterTypes = method.getParameterTypes();
+        OptionInvoker invoker = null;
+        PrimitiveOptionInvoker primitiveInvoker = null;
+        if (METHOD_HANDLES)
+        {
+            invoker = MethodHandleInvokers.newOptionInvoker(method);
+            if (invoker != null && parameterTypes.length == 1 && PrimitiveParameter.forType(parameterTypes[0]) != null)
+            {
+                primitiveInvoker = MethodHandleInvokers.newPrimitiveInvoker(method);
+            }
+        }
+        if (invoker == null)
+        {
+            invoker = new OptionInvoker()
+            {
+                @Override
+                public Object invoke(final Object launcher, final Object[] parameters) throws Exception
+                {
+                    return method.invoke(launcher, parameters);
+                }
+            };
+        }
+        BulkParameter bulkParameter = null;
+        if (bulk)
+        {
+            if (parameterTypes.length == 1)
+            {
+                bulkParameter = BulkParameter.forType(parameterTypes[0], method.getGenericParameterTypes()[0]);
+            }
+            Preconditions.checkState(bulkParameter != null,
+                    "a bulk option takes a single array or collection parameter: %s", method);
+        }
+        return new OptionModel(index, shortName, longName, description, required, exit, multiple, streaming,
+                parameterTypes, label, compilePattern(pattern, method), invoker, primitiveInvoker, bulkParameter,
+                getLazyTypes(method));
+    }
+
+    /**
+     * @return the types the {@link Lazy} parameters of the method convert
+     *         their argument to, {@link String} for raw {@link Lazy}
+     *         parameters, or {@code null} if there is no such parameter.
+     */
+    private static Class<?>[] getLazyTypes(final Method method)
+    {
+        final Class<?>[] parameterTypes = method.getParameterTypes();
+        Class<?>[] lazyTypes = null;
+        for (int i = 0; i < parameterTypes.length; i++)
+        {
+            if (parameterTypes[i] != Lazy.class)
+            {
+                continue;
+            }
+            if (lazyTypes == null)
+            {
+                lazyTypes = new Class<?>[parameterTypes.length];
+            }
+            final Type type = method.getGenericParameterTypes()[i];
+            if (type instanceof ParameterizedType)
+            {
+                final Class<?> lazyType = BulkParameter.getRawType(((ParameterizedType) type)
+                        .getActualTypeArguments()[0]);
+                lazyTypes[i] = lazyType == Object.class ? String.class : lazyType;
+            }
+            else
+            {
+                lazyTypes[i] = String.class;
+            }
+        }
+        return lazyTypes;
+    }
+
+    /**
+     * Access checks are done on every {@link Method#invoke(Object, Object...)}
+     * or {@link Constructor#newInstance(Object...)} call unless suppressed.
+     */
+    private static void suppressAccessChecks(final AccessibleObject object)
+    {
+        try
+        {
+            object.setAccessible(true);
+        }
+        catch (final RuntimeException e)
+        {
+            // SecurityException, or InaccessibleObjectException from Java 9
+            // on for a class in a module that is not open: keep the access
+            // checks
+        }
+    }
+
+    private static Constructor<?> getConstructor(final Class<?> launcherClass)
+    {
+        final Constructor<?> constructor;
+        try
+        {
+            constructor = launcherClass.getDeclaredConstructor();
+        }
+        catch (final NoSuchMethodException e)
+        {
+            return null;
+        }
+
+        if (Modifier.isPublic(constructor.getModifiers()))
+        {
+            suppressAccessChecks(constructor);
+        }
+        return constructor;
+    }
+
+    static Pattern compilePattern(final String pattern, final Object source)
+    {
+        try
+        {
+            return Pattern.compile(pattern);
+        }
+        catch (final PatternSyntaxException e)
+        {
+            throw new IllegalStateException(String.format("argument pattern is invalid for %s: %s", source, pattern),
+                    e);
+        }
+    }
+
+    private CommandModel(final Class<?> launcherClass, final List<OptionModel> options,
+            final GeneratedCommand<?> generatedCommand, final boolean indexed)
+    {
+        this.launcherClass = launcherClass;
+        this.generatedCommand = generatedCommand;
+        this.indexed = indexed;
+        if (generatedCommand == null)
+        {
+            constructor = getConstructor(launcherClass);
+        }
+        else
+        {
+            constructor = null;
+        }
+
+        final Map<String, OptionModel> optionsByShortName = new HashMap<String, OptionModel>();
+        final Map<String, OptionModel> optionsByLongName = new HashMap<String, OptionModel>();
+        boolean streaming = false;
+        for (final OptionModel option : options)
+        {
+            streaming |= option.streaming();
+            Preconditions.checkState(!option.description().isEmpty(), "@Option is missing a description: %s",
+                    option.displayName());
+            Preconditions.checkState(
+                    option.shortName().isEmpty() || optionsByShortName.put(option.shortName(), option) == null,
+                    "duplicate option with short name -%s", option.shortName());
+            Preconditions.checkState(
+                    option.longName().isEmpty() || optionsByLongName.put(option.longName(), option) == null,
+                    "duplicate option with long name --%s", option.longName());
+        }
+        this.options = Collections.unmodifiableList(new ArrayList<OptionModel>(options));
+        this.optionsByShortName = optionsByShortName;
+        this.optionsByLongName = optionsByLongName;
+        optionsByShortNameChar = new OptionModel[SHORT_NAME_CHARS];
+        for (final OptionModel option : options)
+        {
+            if (option.shortName().length() == 1 && option.shortName().charAt(0) < SHORT_NAME_CHARS)
+            {
+                optionsByShortNameChar[option.shortName().charAt(0)] = option;
+            }
+        }
+        longNameTable = newLongNameTable(optionsByLongName);
+        subcommands = SubcommandIndex.load(launcherClass);
+        this.streaming = streaming;
+    }
+
+    /**
+     * @return an open-addressing hash table of the options by long name, that
+     *         can be looked up with a part of an argument.
+     */
+    private static OptionModel[] newLongNameTable(final Map<String, OptionModel> optionsByLongName)
+    {
+        int size = 2;
+        while (size < optionsByLongName.size() * 2)
+        {
+            size *= 2;
+        }
+        final OptionModel[] table = new OptionModel[size];
+        for (final Entry<String, OptionModel> option : optionsByLongName.entrySet())
+        {
+            int slot = hash(option.getKey(), 0, option.getKey().length()) & (size - 1);
+            while (table[slot] != null)
+            {
+                slot = (slot + 1) & (size - 1);
+            }
+            table[slot] = option.getValue();
+        }
+        return table;
+    }
+
+    private static int hash(final String string, final int start, final int end)
+    {
+        int hash = 0;
+        for (int i = start; i < end; i++)
+        {
+            hash = 31 * hash + string.charAt(i);
+        }
+        return hash ^ (hash >>> 16);
+    }
+
+    Class<?> launcherClass()
+    {
+        return launcherClass;
+    }
+
+    /**
+     * @return the {@link Command} annotation of the launcher class, or
+     *         {@code null} if it is missing.
+     */
+    Command command()
+    {
+        // Only needed for the syntax
+        return launcherClass.getAnnotation(Command.class);
+    }
+
+    /**
+     * @return all the options, in invocation order.
+     */
+    List<OptionModel> options()
+    {
+        return options;
+    }
+
+    boolean isGenerated()
+    {
+        return generatedCommand != null;
+    }
+
+    /**
+     * @return {@code true} if the options were read from a
+     *         {@link CommandIndex} rather than scanned.
+     */
+    boolean isIndexed()
+    {
+        return indexed;
+    }
+
+    /**
+     * @return {@code true} if some options are invoked as soon as they are
+     *         parsed.
+     */
+    boolean hasStreamingOptions()
+    {
+        return streaming;
+    }
+
+    SubcommandIndex subcommands()
+    {
+        return subcommands;
+    }
+
+    /**
+     * @throws InvocationTargetException
+     *             wrapping the exception thrown by the constructor of the
+     *             launcher class.
+     */
+    Object newLauncher() throws Exception
+    {
+        if (generatedCommand != null)
+        {
+            return generatedCommand.newLauncher();
+        }
+
+        if (constructor == null)
+        {
+            // Reports the missing constructor
+            return launcherClass.getDeclaredConstructor().newInstance();
+        }
+        return constructor.newInstance();
+    }
+
+    /**
+     * @return the option with the given short name, or {@code null} if there
+     *         is none.
+     */
+    OptionModel findOptionWithShortName(final String shortName)
+    {
+        return optionsByShortName.get(shortName);
+    }
+
+    /**
+     * @return the option with the given long name, or {@code null} if there
+     *         is none.
+     */
+    OptionModel findOptionWithLongName(final String longName)
+    {
+        return optionsByLongName.get(longName);
+    }
+
+    /**
+     * @return the option with the given single-character short name, or
+     *         {@code null} if there is none.
+     */
+    OptionModel findOptionWithShortName(final char shortName)
+    {
+        if (shortName < SHORT_NAME_CHARS)
+        {
+            return optionsByShortNameChar[shortName];
+        }
+        return null;
+    }
+
+    /**
+     * @return the option with the long name found in the given part of the
+     *         argument, or {@code null} if there is none.
+     */
+    OptionModel findOptionWithLongName(final String arg, final int start, final int end)
+    {
+        final int length = end - start;
+        final int mask = longNameTable.length - 1;
+        for (int slot = hash(arg, start, end) & mask; longNameTable[slot] != null; slot = (slot + 1) & mask)
+        {
+            final String longName = longNameTable[slot].longName();
+            if (longName.length() == length && arg.regionMatches(start, longName, 0, length))
+            {
+                return longNameTable[slot];
+            }
+        }
+        return null;
+    }
+}
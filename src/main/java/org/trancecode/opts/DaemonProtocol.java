@@ -0,0 +1,191 @@
+/*
+ * Copyright 2026 Herve Quiroz
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.trancecode.opts;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+
+/**
+ * The protocol between {@link OptionsClient} and {@link OptionsDaemon}, over
+ * a loopback TCP connection.
+ * <p>
+ * The client sends {@link #MAGIC}, {@link #VERSION}, the token read from the
+ * token file, the launcher class name, its working directory, its environment
+ * variables (count, then names and values) and its arguments (count, then
+ * values). The daemon answers with {@link #STDOUT} and {@link #STDERR} frames
+ * (length, then bytes) followed by an {@link #EXIT} frame (exit code).
+ * Strings are encoded in UTF-8, preceded by their length.
+ * <p>
+ * The token file holds the port and the token of the running daemon, and is
+ * only readable by its owner.
+ * 
+ * @author Herve Quiroz
+ */
+final class DaemonProtocol
+{
+    static final int MAGIC = 0x74636f64;
+    static final int VERSION = 1;
+    static final byte STDOUT = 1;
+    static final byte STDERR = 2;
+    static final byte EXIT = 3;
+
+    private static final int MAX_LENGTH = 16 * 1024 * 1024;
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private DaemonProtocol()
+    {
+        // No instantiation
+    }
+
+    static File getDefaultTokenFile()
+    {
+        return new File(System.getProperty("user.home"), ".tc-opts-daemon");
+    }
+
+    static void writeString(final DataOutputStream out, final String string) throws IOException
+    {
+        final byte[] bytes = string.getBytes(UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static String readString(final DataInputStream in) throws IOException
+    {
+        final byte[] bytes = new byte[readLength(in)];
+        in.readFully(bytes);
+        return new String(bytes, UTF_8);
+    }
+
+    static int readLength(final DataInputStream in) throws IOException
+    {
+        final int length = in.readInt();
+        if (length < 0 || length > MAX_LENGTH)
+        {
+            throw new IOException("invalid length: " + length);
+        }
+        return length;
+    }
+
+    /**
+     * Writes the token file, readable by its owner only. The file is written
+     * in a new directory that only its owner can enter, then moved in place,
+     * so that it cannot be opened by anybody else while it is being written.
+     */
+    static void writeTokenFile(final File file, final int port, final String token) throws IOException
+    {
+        final File parentDirectory = file.getAbsoluteFile().getParentFile();
+        final File directory = new File(parentDirectory, "." + file.getName() + "-" + port + "-"
+                + System.nanoTime());
+        if (!directory.mkdir())
+        {
+            throw new IOException("cannot create " + directory);
+        }
+
+        try
+        {
+            restrictToOwner(directory);
+            final File temporaryFile = new File(directory, file.getName());
+            if (!temporaryFile.createNewFile())
+            {
+                throw new IOException("already exists: " + temporaryFile);
+            }
+            restrictToOwner(temporaryFile);
+            final OutputStream out = new FileOutputStream(temporaryFile);
+            try
+            {
+                final Writer writer = new OutputStreamWriter(out, UTF_8);
+                writer.write(port + " " + token + "\n");
+                writer.flush();
+            }
+            finally
+            {
+                out.close();
+            }
+
+            if (!temporaryFile.renameTo(file))
+            {
+                // Not replaced by renameTo() on some platforms
+                if (file.exists() && !file.delete())
+                {
+                    throw new IOException("cannot delete " + file);
+                }
+                if (!temporaryFile.renameTo(file))
+                {
+                    throw new IOException("cannot move " + temporaryFile + " to " + file);
+                }
+            }
+        }
+        finally
+        {
+            final File[] files = directory.listFiles();
+            if (files != null)
+            {
+                for (final File remainingFile : files)
+                {
+                    remainingFile.delete();
+                }
+            }
+            if (!directory.delete())
+            {
+                throw new IOException("cannot delete " + directory);
+            }
+        }
+    }
+
+    private static void restrictToOwner(final File file) throws IOException
+    {
+        final boolean directory = file.isDirectory();
+        if (!(file.setReadable(false, false) && file.setWritable(false, false) && file.setExecutable(false, false)
+                && file.setReadable(true, true) && file.setWritable(true, true) && (!directory || file
+                .setExecutable(true, true))))
+        {
+            throw new IOException("cannot restrict the permissions of " + file);
+        }
+    }
+
+    /**
+     * @return the port and the token read from the token file.
+     */
+    static String[] readTokenFile(final File file) throws IOException
+    {
+        final InputStream in = new FileInputStream(file);
+        try
+        {
+            final byte[] bytes = new byte[(int) Math.min(file.length(), 1024)];
+            new DataInputStream(in).readFully(bytes);
+            final String content = new String(bytes, UTF_8).trim();
+            final int separator = content.indexOf(' ');
+            if (separator < 0)
+            {
+                throw new IOException("invalid token file: " + file);
+            }
+            return new String[] { content.substring(0, separator), content.substring(separator + 1) };
+        }
+        finally
+        {
+            in.close();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2026 Herve Quiroz
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.trancecode.opts;
+
+import org.trancecode.opts.converter.StringConverter;
+
+/**
+ * Notified of the time spent in each phase of
+ * {@link Options#execute(Class, String...)}, once registered with
+ * {@link Options#addListener(ExecutionListener)}. Executions do not measure
+ * anything while no listener is registered.
+ * <p>
+ * Listeners may be notified concurrently, from the threads executing
+ * launchers and from the threads converting arguments, and must not throw
+ * exceptions. They are given the launcher class passed to
+ * {@link Options#execute(Class, String...)}, even when one of its subcommands
+ * is executed.
+ * 
+ * @author Herve Quiroz
+ */
+public interface ExecutionListener
+{
+    enum Phase
+    {
+        /**
+         * Getting the option model of the launcher class, and of the
+         * subcommand to execute if any, which is built by the first execution.
+         */
+        MODEL,
+
+        /**
+         * Reading the arguments, including converting them and invoking
+         * streaming options.
+         */
+        PARSING,
+
+        /**
+         * Creating the launcher, if not created before parsing, and invoking
+         * its options.
+         */
+        INVOCATION,
+
+        /**
+         * Running the launcher.
+         */
+        RUN
+    }
+
+    /**
+     * Called once a phase has completed successfully.
+     */
+    void phaseCompleted(Class<? extends Runnable> launcherClass, Phase phase, long durationNanos);
+
+    /**
+     * Called once an argument has been converted successfully by the given
+     * converter to the given parameter type, or element type for array and
+     * collection parameters.
+     */
+    void argumentConverted(Class<? extends Runnable> launcherClass, StringConverter converter, Class<?> type,
+            long durationNanos);
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright 2026 Herve Quiroz
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.trancecode.opts;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import org.trancecode.opts.converter.StringConverter;
+
+/**
+ * Counts and total durations of the execution phases and argument
+ * conversions, by converter, for all launcher classes, also exposed through
+ * JMX once {@link #register(String)} is called.
+ * 
+ * @author Herve Quiroz
+ */
+public final class ExecutionStatistics implements ExecutionListener, ExecutionStatisticsMXBean
+{
+    public static final String DEFAULT_OBJECT_NAME = "org.trancecode.opts:type=ExecutionStatistics";
+
+    private final ConcurrentMap<Phase, AtomicLong> phaseCounts = new ConcurrentHashMap<Phase, AtomicLong>();
+    private final ConcurrentMap<Phase, AtomicLong> phaseDurations = new ConcurrentHashMap<Phase, AtomicLong>();
+
+    /**
+     * Conversion counters, by converter instance.
+     */
+    private final ConcurrentMap<StringConverter, AtomicLong> conversionCounts =
+            new ConcurrentHashMap<StringConverter, AtomicLong>();
+    private final ConcurrentMap<StringConverter, AtomicLong> conversionDurations =
+            new ConcurrentHashMap<StringConverter, AtomicLong>();
+
+    /**
+     * Registers new statistics as an {@link ExecutionListener}, and with the
+     * platform MBean server under the given name.
+     */
+    public static ExecutionStatistics register(final String objectName)
+    {
+        final ExecutionStatistics statistics = new ExecutionStatistics();
+        try
+        {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(statistics, new ObjectName(objectName));
+        }
+        catch (final JMException e)
+        {
+            throw new IllegalStateException("cannot register " + objectName, e);
+        }
+        Options.addListener(statistics);
+        return statistics;
+    }
+
+    /**
+     * Unregisters the statistics from {@link Options} and from the platform
+     * MBean server.
+     */
+    public static void unregister(final ExecutionStatistics statistics, final String objectName)
+    {
+        Options.removeListener(statistics);
+        try
+        {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(new ObjectName(objectName));
+        }
+        catch (final JMException e)
+        {
+            throw new IllegalStateException("cannot unregister " + objectName, e);
+        }
+    }
+
+    private static <K> void add(final ConcurrentMap<K, AtomicLong> counters, final K key, final long value)
+    {
+        AtomicLong counter = counters.get(key);
+        if (counter == null)
+        {
+            final AtomicLong newCounter = new AtomicLong();
+            counter = counters.putIfAbsent(key, newCounter);
+            if (counter == null)
+            {
+                counter = newCounter;
+            }
+        }
+        counter.addAndGet(value);
+    }
+
+    /**
+     * @return the counters by phase name, or by converter class name, summing
+     *         up the counters of converters of the same class.
+     */
+    private static Map<String, Long> snapshot(final ConcurrentMap<?, AtomicLong> counters)
+    {
+        final Map<String, Long> snapshot = new TreeMap<String, Long>();
+        for (final Entry<?, AtomicLong> counter : counters.entrySet())
+        {
+            final String name;
+            if (counter.getKey() instanceof Phase)
+            {
+                name = ((Phase) counter.getKey()).name();
+            }
+            else
+            {
+                name = counter.getKey().getClass().getName();
+            }
+            final Long previousValue = snapshot.get(name);
+            final long value = counter.getValue().get();
+            snapshot.put(name, previousValue != null ? previousValue + value : value);
+        }
+        return snapshot;
+    }
+
+    @Override
+    public void phaseCompleted(final Class<? extends Runnable> launcherClass, final Phase phase,
+            final long durationNanos)
+    {
+        add(phaseCounts, phase, 1);
+        add(phaseDurations, phase, durationNanos);
+    }
+
+    @Override
+    public void argumentConverted(final Class<? extends Runnable> launcherClass, final StringConverter converter,
+            final Class<?> type, final long durationNanos)
+    {
+        add(conversionCounts, converter, 1);
+        add(conversionDurations, converter, durationNanos);
+    }
+
+    @Override
+    public Map<String, Long> getPhaseCounts()
+    {
+        return snapshot(phaseCounts);
+    }
+
+    @Override
+    public Map<String, Long> getPhaseDurations()
+    {
+        return snapshot(phaseDurations);
+    }
+
+    @Override
+    public Map<String, Long> getConversionCounts()
+    {
+        return snapshot(conversionCounts);
+    }
+
+    @Override
+    public Map<String, Long> getConversionDurations()
+    {
+        return snapshot(conversionDurations);
+    }
+
+    @Override
+    public void reset()
+    {
+        phaseCounts.clear();
+        phaseDurations.clear();
+        conversionCounts.clear();
+        conversionDurations.clear();
+    }
+}
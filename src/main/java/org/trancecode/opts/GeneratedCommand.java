@@ -0,0 +1,198 @@
+/*
+ * Copyright 2026 Herve Quiroz
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.trancecode.opts;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Reflection-free description of a {@link Command} class, generated at build
+ * time by the tc-opts annotation processor.
+ * <p>
+ * When a subclass named after {@link #getClassName(String)} is found next to
+ * a launcher class, {@link Options} uses it instead of scanning the launcher
+ * class with reflection. Parsing and validation are the same on both paths.
+ * 
+ * @author Herve Quiroz
+ */
+public abstract class GeneratedCommand<T extends Runnable>
+{
+    private static final String CLASS_NAME_SUFFIX = "_TcOpts";
+
+    private final Class<T> launcherClass;
+    private final List<OptionModel> options = new ArrayList<OptionModel>();
+
+    /**
+     * @return the fully qualified name of the class generated for the given
+     *         launcher class name (as returned by {@link Class#getName()}).
+     */
+    public static String getClassName(final String launcherClassName)
+    {
+        return launcherClassName.replace('$', '_') + CLASS_NAME_SUFFIX;
+    }
+
+    protected GeneratedCommand(final Class<T> launcherClass)
+    {
+        this.launcherClass = Preconditions.checkNotNull(launcherClass);
+    }
+
+    /**
+     * Declares the next option, in invocation order. The index passed to
+     * {@link #invoke(Runnable, int, Object[])} is the declaration order of the
+     * option.
+     */
+    protected final void option(final String shortName, final String longName, final String description,
+            final boolean required, final boolean exit, final boolean multiple, final String label,
+            final String pattern, final Class<?>... parameterTypes)
+    {
+        option(shortName, longName, description, required, exit, multiple, false, label, pattern, parameterTypes);
+    }
+
+    protected final void option(final String shortName, final String longName, final String description,
+            final boolean required, final boolean exit, final boolean multiple, final boolean streaming,
+            final String label, final String pattern, final Class<?>... parameterTypes)
+    {
+        addOption(shortName, longName, description, required, exit, multiple, streaming, label, pattern,
+                parameterTypes, null);
+    }
+
+    /**
+     * Declares the next {@link Option#bulk() bulk} option, which takes an
+     * array or collection of the given element type holding the arguments of
+     * all its occurrences.
+     */
+    protected final void bulkOption(final String shortName, final String longName, final String description,
+            final boolean required, final boolean exit, final boolean multiple, final String label,
+            final String pattern, final Class<?> parameterType, final Class<?> elementType)
+    {
+        addOption(shortName, longName, description, required, exit, multiple, false, label, pattern,
+                new Class<?>[] { parameterType }, new BulkParameter(parameterType, elementType));
+    }
+
+    private void addOption(final String shortName, final String longName, final String description,
+            final boolean required, final boolean exit, final boolean multiple, final boolean streaming,
+            final String label, final String pattern, final Class<?>[] parameterTypes,
+            final BulkParameter bulkParameter)
+    {
+        final int index = options.size();
+        final OptionInvoker invoker = new OptionInvoker()
+        {
+            @Override
+            public Object invoke(final Object launcher, final Object[] parameters) throws Exception
+            {
+                try
+                {
+                    return GeneratedCommand.this.invoke(launcherClass.cast(launcher), index, parameters);
+                }
+                catch (final Throwable e)
+                {
+                    // Same as Method.invoke()
+                    throw new InvocationTargetException(e);
+                }
+            }
+        };
+        options.add(new OptionModel(index, shortName, longName, description, required, exit, multiple, streaming,
+                parameterTypes, label, CommandModel.compilePattern(pattern, launcherClass), invoker,
+                getPrimitiveInvoker(index, parameterTypes), bulkParameter, null));
+    }
+
+    private PrimitiveOptionInvoker getPrimitiveInvoker(final int index, final Class<?>[] parameterTypes)
+    {
+        if (!hasPrimitiveInvokers() || parameterTypes.length != 1)
+        {
+            return null;
+        }
+
+        final PrimitiveParameter parameter = PrimitiveParameter.forType(parameterTypes[0]);
+        if (parameter == null)
+        {
+            return null;
+        }
+
+        return new PrimitiveOptionInvoker()
+        {
+            @Override
+            public Object invoke(final Object launcher, final long value) throws Exception
+            {
+                try
+                {
+                    return parameter.invoke(GeneratedCommand.this, launcherClass.cast(launcher), index, value);
+                }
+                catch (final Throwable e)
+                {
+                    throw new InvocationTargetException(e);
+                }
+            }
+        };
+    }
+
+    /**
+     * @return {@code true} if options taking a single primitive parameter are
+     *         to be invoked through {@link #invokeBoolean(Runnable, int, boolean)},
+     *         {@link #invokeDouble(Runnable, int, double)} and
+     *         {@link #invokeLong(Runnable, int, long)}, without boxing.
+     */
+    protected boolean hasPrimitiveInvokers()
+    {
+        return false;
+    }
+
+    List<OptionModel> options()
+    {
+        return Collections.unmodifiableList(options);
+    }
+
+    public final Class<T> launcherClass()
+    {
+        return launcherClass;
+    }
+
+    public abstract T newLauncher();
+
+    /**
+     * @return the value returned by the option method, or {@code null} if it
+     *         returns {@code void}.
+     */
+    public abstract Object invoke(T launcher, int option, Object[] parameters) throws Exception;
+
+    /**
+     * Invokes an option taking a single {@code boolean} parameter.
+     */
+    public Object invokeBoolean(final T launcher, final int option, final boolean value) throws Exception
+    {
+        throw new UnsupportedOperationException("option index: " + option);
+    }
+
+    /**
+     * Invokes an option taking a single {@code double} or {@code float}
+     * parameter.
+     */
+    public Object invokeDouble(final T launcher, final int option, final double value) throws Exception
+    {
+        throw new UnsupportedOperationException("option index: " + option);
+    }
+
+    /**
+     * Invokes an option taking a single {@code byte}, {@code char},
+     * {@code int}, {@code long} or {@code short} parameter.
+     */
+    public Object invokeLong(final T launcher, final int option, final long value) throws Exception
+    {
+        throw new UnsupportedOperationException("option index: " + option);
+    }
+}
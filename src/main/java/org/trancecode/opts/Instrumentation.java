@@ -0,0 +1,121 @@
+/*
+ * Copyright 2026 Herve Quiroz
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.trancecode.opts;
+
+import java.util.Arrays;
+
+import org.trancecode.opts.ExecutionListener.Phase;
+import org.trancecode.opts.converter.StringConverter;
+import org.trancecode.opts.converter.StringConverters;
+
+/**
+ * Measures an execution for the {@link ExecutionListener listeners}
+ * registered when it starts. Executions started while no listener is
+ * registered share {@link #DISABLED}, which does not even read the clock.
+ * 
+ * @author Herve Quiroz
+ */
+final class Instrumentation
+{
+    private static final ExecutionListener[] NO_LISTENERS = new ExecutionListener[0];
+    private static final Instrumentation DISABLED = new Instrumentation(null, null);
+
+    private static volatile ExecutionListener[] listeners = NO_LISTENERS;
+
+    private final Class<? extends Runnable> launcherClass;
+    private final ExecutionListener[] executionListeners;
+
+    private Instrumentation(final Class<? extends Runnable> launcherClass,
+            final ExecutionListener[] executionListeners)
+    {
+        this.launcherClass = launcherClass;
+        this.executionListeners = executionListeners;
+    }
+
+    static Instrumentation get(final Class<? extends Runnable> launcherClass)
+    {
+        final ExecutionListener[] currentListeners = listeners;
+        if (currentListeners.length == 0)
+        {
+            return DISABLED;
+        }
+        return new Instrumentation(launcherClass, currentListeners);
+    }
+
+    static synchronized void addListener(final ExecutionListener listener)
+    {
+        Preconditions.checkNotNull(listener);
+        final ExecutionListener[] newListeners = Arrays.copyOf(listeners, listeners.length + 1);
+        newListeners[listeners.length] = listener;
+        listeners = newListeners;
+    }
+
+    static synchronized void removeListener(final ExecutionListener listener)
+    {
+        for (int i = 0; i < listeners.length; i++)
+        {
+            if (listeners[i] == listener)
+            {
+                final ExecutionListener[] newListeners = new ExecutionListener[listeners.length - 1];
+                System.arraycopy(listeners, 0, newListeners, 0, i);
+                System.arraycopy(listeners, i + 1, newListeners, i, newListeners.length - i);
+                listeners = newListeners;
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return the start time of a measure.
+     */
+    long start()
+    {
+        if (executionListeners == null)
+        {
+            return 0;
+        }
+        return System.nanoTime();
+    }
+
+    void phaseCompleted(final Phase phase, final long start)
+    {
+        if (executionListeners == null)
+        {
+            return;
+        }
+
+        final long duration = System.nanoTime() - start;
+        for (final ExecutionListener listener : executionListeners)
+        {
+            listener.phaseCompleted(launcherClass, phase, duration);
+        }
+    }
+
+    void argumentConverted(final Class<?> type, final long start)
+    {
+        if (executionListeners == null)
+        {
+            return;
+        }
+
+        final long duration = System.nanoTime() - start;
+        final StringConverter converter = StringConverters.getConverter(type);
+        for (final ExecutionListener listener : executionListeners)
+        {
+            listener.argumentConverted(launcherClass, converter, type, duration);
+        }
+    }
+}
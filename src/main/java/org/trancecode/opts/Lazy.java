@@ -0,0 +1,33 @@
+/*
+ * Copyright 2026 Herve Quiroz
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.trancecode.opts;
+
+/**
+ * An {@link Option} parameter whose argument is only converted when the value
+ * is first needed, such as {@code Lazy<URL>} or {@code Lazy<File>}. The
+ * argument is matched against the {@link Argument} pattern while parsing, but
+ * conversion errors are only reported by {@link #get()}.
+ * 
+ * @author Herve Quiroz
+ */
+public interface Lazy<T>
+{
+    /**
+     * @return the converted argument. The argument is converted once, on
+     *         first call, unless the conversion fails.
+     */
+    T get();
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2026 Herve Quiroz
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.trancecode.opts;
+
+import org.trancecode.opts.converter.StringConverters;
+
+/**
+ * A {@link Lazy} parameter converted from its argument by
+ * {@link StringConverters}.
+ * 
+ * @author Herve Quiroz
+ */
+final class LazyArgument implements Lazy<Object>
+{
+    private final Class<?> type;
+    private final Instrumentation instrumentation;
+    private String argument;
+    private Object value;
+    private volatile boolean converted;
+
+    LazyArgument(final String argument, final Class<?> type, final Instrumentation instrumentation)
+    {
+        this.argument = argument;
+        this.type = type;
+        this.instrumentation = instrumentation;
+    }
+
+    @Override
+    public Object get()
+    {
+        if (!converted)
+        {
+            synchronized (this)
+            {
+                if (!converted)
+                {
+                    final long start = instrumentation.start();
+                    value = StringConverters.convert(argument, type);
+                    instrumentation.argumentConverted(type, start);
+                    argument = null;
+                    converted = true;
+                }
+            }
+        }
+        return value;
+    }
+}
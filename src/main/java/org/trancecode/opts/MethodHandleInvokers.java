@@ -0,0 +1,207 @@
+/*
+ * Copyright 2026 Herve Quiroz
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.trancecode.opts;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/**
+ * Invokes {@link Option} methods through method handles, with neither the
+ * access checks nor the argument checks of
+ * {@link Method#invoke(Object, Object...)}, and without boxing single
+ * primitive parameters. Only loaded on Java 7 and later (see
+ * {@link #isAvailable()}).
+ * 
+ * @author Herve Quiroz
+ */
+final class MethodHandleInvokers
+{
+    private static final MethodHandle TO_BOOLEAN;
+    private static final MethodHandle TO_DOUBLE;
+    private static final MethodHandle NEW_INVOCATION_TARGET_EXCEPTION;
+
+    static
+    {
+        final MethodHandles.Lookup lookup = MethodHandles.lookup();
+        try
+        {
+            TO_BOOLEAN = lookup.findStatic(MethodHandleInvokers.class, "toBoolean", MethodType.methodType(
+                    Boolean.TYPE, Long.TYPE));
+            TO_DOUBLE = lookup.findStatic(Double.class, "longBitsToDouble", MethodType.methodType(Double.TYPE,
+                    Long.TYPE));
+            NEW_INVOCATION_TARGET_EXCEPTION = lookup.findConstructor(InvocationTargetException.class, MethodType
+                    .methodType(Void.TYPE, Throwable.class));
+        }
+        catch (final ReflectiveOperationException e)
+        {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private MethodHandleInvokers()
+    {
+        // No instantiation
+    }
+
+    /**
+     * @return {@code true} if the running JVM has method handles.
+     */
+    static boolean isAvailable()
+    {
+        try
+        {
+            Class.forName("java.lang.invoke.MethodHandles");
+            return true;
+        }
+        catch (final ClassNotFoundException e)
+        {
+            return false;
+        }
+    }
+
+    private static boolean toBoolean(final long value)
+    {
+        return value != 0;
+    }
+
+    /**
+     * @return an invoker for the method, or {@code null} if it cannot be
+     *         accessed through a method handle.
+     */
+    static OptionInvoker newOptionInvoker(final Method method)
+    {
+        final MethodHandle methodHandle = unreflect(method);
+        if (methodHandle == null)
+        {
+            return null;
+        }
+
+        final int parameterCount = method.getParameterTypes().length;
+        final MethodHandle handle = methodHandle.asType(MethodType.genericMethodType(parameterCount + 1))
+                .asSpreader(Object[].class, parameterCount);
+        return new OptionInvoker()
+        {
+            @Override
+            public Object invoke(final Object launcher, final Object[] parameters) throws Exception
+            {
+                try
+                {
+                    return (Object) handle.invokeExact(launcher, parameters);
+                }
+                catch (final Exception e)
+                {
+                    throw e;
+                }
+                catch (final Error e)
+                {
+                    throw e;
+                }
+                catch (final Throwable e)
+                {
+                    // Not thrown: what the method throws is wrapped
+                    throw new IllegalStateException(e);
+                }
+            }
+        };
+    }
+
+    /**
+     * @return an invoker for the method, which takes a single parameter of a
+     *         {@link PrimitiveParameter} type, or {@code null} if it cannot be
+     *         accessed through a method handle.
+     */
+    static PrimitiveOptionInvoker newPrimitiveInvoker(final Method method)
+    {
+        final MethodHandle methodHandle = unreflect(method);
+        if (methodHandle == null)
+        {
+            return null;
+        }
+
+        final Class<?> parameterType = method.getParameterTypes()[0];
+        MethodHandle handle = methodHandle.asType(MethodType.methodType(Object.class, Object.class,
+                parameterType));
+        if (parameterType == Boolean.TYPE)
+        {
+            handle = MethodHandles.filterArguments(handle, 1, TO_BOOLEAN);
+        }
+        else if (parameterType == Double.TYPE || parameterType == Float.TYPE)
+        {
+            // Floating-point values are stored as the raw bits of a double
+            handle = MethodHandles.filterArguments(handle, 1, MethodHandles.explicitCastArguments(TO_DOUBLE,
+                    MethodType.methodType(parameterType, Long.TYPE)));
+        }
+        else
+        {
+            handle = MethodHandles.explicitCastArguments(handle, MethodType.methodType(Object.class,
+                    Object.class, Long.TYPE));
+        }
+
+        final MethodHandle primitiveHandle = handle;
+        return new PrimitiveOptionInvoker()
+        {
+            @Override
+            public Object invoke(final Object launcher, final long value) throws Exception
+            {
+                try
+                {
+                    return (Object) primitiveHandle.invokeExact(launcher, value);
+                }
+                catch (final Exception e)
+                {
+                    throw e;
+                }
+                catch (final Error e)
+                {
+                    throw e;
+                }
+                catch (final Throwable e)
+                {
+                    // Not thrown: what the method throws is wrapped
+                    throw new IllegalStateException(e);
+                }
+            }
+        };
+    }
+
+    /**
+     * @return a handle that throws what the method throws wrapped in an
+     *         {@link InvocationTargetException}, the same as
+     *         {@link Method#invoke(Object, Object...)}, unlike the handles
+     *         adapted from it, which throw their own exceptions as they are.
+     */
+    private static MethodHandle unreflect(final Method method)
+    {
+        final MethodHandle handle;
+        try
+        {
+            // Access is checked once, here, unless suppressed on the method
+            handle = MethodHandles.lookup().unreflect(method);
+        }
+        catch (final IllegalAccessException e)
+        {
+            return null;
+        }
+
+        final MethodHandle wrapper = MethodHandles.filterArguments(MethodHandles.throwException(handle.type()
+                .returnType(), InvocationTargetException.class), 0, NEW_INVOCATION_TARGET_EXCEPTION);
+        return MethodHandles.catchException(handle, Throwable.class, MethodHandles.dropArguments(wrapper, 1, handle
+                .type().parameterList()));
+    }
+}
@@ -40,4 +40,19 @@ public @interface Option
     boolean exit() default false;
 
     boolean multiple() default false;
+
+    /**
+     * Invoke the method as soon as the option is parsed, on a launcher
+     * created before parsing the command-line, rather than keeping every
+     * occurrence until the whole command-line has been parsed.
+     */
+    boolean streaming() default false;
+
+    /**
+     * Invoke the method of this {@link #multiple()} option once, with the
+     * arguments of all its occurrences converted to the elements of its single
+     * array, {@link java.util.List}, {@link java.util.Set} or
+     * {@link java.util.Collection} parameter, rather than once per occurrence.
+     */
+    boolean bulk() default false;
 }
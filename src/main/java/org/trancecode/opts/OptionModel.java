@@ -0,0 +1,235 @@
+/*
+ * Copyright 2026 Herve Quiroz
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.trancecode.opts;
+
+import java.util.regex.Pattern;
+
+/**
+ * Compiled form of an {@link Option} method: annotation values, parameter
+ * types and argument pattern resolved once when the {@link CommandModel} is
+ * built, either by reflection or from a {@link GeneratedCommand}.
+ * 
+ * @author Herve Quiroz
+ */
+final class OptionModel
+{
+    static final String DEFAULT_PATTERN = "(.*)";
+
+    private final int index;
+    private final String shortName;
+    private final String longName;
+    private final String description;
+    private final boolean required;
+    private final boolean exit;
+    private final boolean multiple;
+    private final boolean streaming;
+    private final Class<?>[] parameterTypes;
+    private final String label;
+    private final Pattern pattern;
+    private final boolean defaultPattern;
+    private final OptionInvoker invoker;
+    private final PrimitiveOptionInvoker primitiveInvoker;
+    private final PrimitiveParameter primitiveParameter;
+    private final BulkParameter bulkParameter;
+    private final Class<?>[] lazyTypes;
+
+    OptionModel(final int index, final String shortName, final String longName, final String description,
+            final boolean required, final boolean exit, final boolean multiple, final boolean streaming,
+            final Class<?>[] parameterTypes,
+            final String label, final Pattern pattern, final OptionInvoker invoker,
+            final PrimitiveOptionInvoker primitiveInvoker, final BulkParameter bulkParameter,
+            final Class<?>[] lazyTypes)
+    {
+        this.index = index;
+        this.shortName = Preconditions.checkNotNull(shortName);
+        this.longName = Preconditions.checkNotNull(longName);
+        this.description = Preconditions.checkNotNull(description);
+        this.required = required;
+        this.exit = exit;
+        this.multiple = multiple;
+        this.streaming = streaming;
+        this.parameterTypes = Preconditions.checkNotNull(parameterTypes);
+        this.label = Preconditions.checkNotNull(label);
+        this.pattern = Preconditions.checkNotNull(pattern);
+        defaultPattern = parameterTypes.length == 1 && pattern.pattern().equals(DEFAULT_PATTERN);
+        Preconditions.checkState(parameterTypes.length == 0
+                || pattern.matcher("").groupCount() >= parameterTypes.length,
+                "argument pattern of %s has less groups than parameters: %s", displayName(), pattern);
+        this.invoker = Preconditions.checkNotNull(invoker);
+        this.primitiveInvoker = primitiveInvoker;
+        if (primitiveInvoker != null)
+        {
+            Preconditions.checkState(parameterTypes.length == 1, "%s does not take a single parameter", displayName());
+            primitiveParameter = PrimitiveParameter.forType(parameterTypes[0]);
+            Preconditions.checkState(primitiveParameter != null, "%s does not take a primitive parameter",
+                    displayName());
+        }
+        else
+        {
+            primitiveParameter = null;
+        }
+        this.bulkParameter = bulkParameter;
+        if (bulkParameter != null)
+        {
+            Preconditions.checkState(parameterTypes.length == 1, "%s does not take a single parameter", displayName());
+            Preconditions.checkState(multiple, "bulk option %s is not multiple", displayName());
+            Preconditions.checkState(!streaming, "streaming option %s cannot take all its occurrences at once",
+                    displayName());
+        }
+        Preconditions.checkState(lazyTypes == null || lazyTypes.length == parameterTypes.length,
+                "%s has %s lazy parameter types", displayName(), lazyTypes != null ? lazyTypes.length : 0);
+        Preconditions.checkState(bulkParameter == null || bulkParameter.elementType() != Lazy.class,
+                "%s cannot take lazy elements", displayName());
+        this.lazyTypes = lazyTypes;
+    }
+
+    int index()
+    {
+        return index;
+    }
+
+    String shortName()
+    {
+        return shortName;
+    }
+
+    String longName()
+    {
+        return longName;
+    }
+
+    String description()
+    {
+        return description;
+    }
+
+    boolean required()
+    {
+        return required;
+    }
+
+    boolean exit()
+    {
+        return exit;
+    }
+
+    boolean multiple()
+    {
+        return multiple;
+    }
+
+    boolean streaming()
+    {
+        return streaming;
+    }
+
+    Class<?>[] parameterTypes()
+    {
+        return parameterTypes;
+    }
+
+    boolean hasParameters()
+    {
+        return parameterTypes.length > 0;
+    }
+
+    String label()
+    {
+        return label;
+    }
+
+    Pattern pattern()
+    {
+        return pattern;
+    }
+
+    /**
+     * @return {@code true} if the whole argument is the only parameter, so
+     *         that no matching is needed.
+     */
+    boolean isDefaultPattern()
+    {
+        return defaultPattern;
+    }
+
+    Object invoke(final Object launcher, final Object[] parameters) throws Exception
+    {
+        return invoker.invoke(launcher, parameters);
+    }
+
+    /**
+     * @return {@code true} if the option argument is converted by
+     *         {@link #convertPrimitive(String)} and passed to
+     *         {@link #invokePrimitive(Object, long)}.
+     */
+    boolean isPrimitive()
+    {
+        return primitiveInvoker != null;
+    }
+
+    long convertPrimitive(final String argumentPart)
+    {
+        return primitiveParameter.convert(argumentPart);
+    }
+
+    Object invokePrimitive(final Object launcher, final long value) throws Exception
+    {
+        return primitiveInvoker.invoke(launcher, value);
+    }
+
+    /**
+     * @return {@code true} if all the occurrences of the option are passed to
+     *         a single invocation, as described by {@link #bulkParameter()}.
+     */
+    boolean isBulk()
+    {
+        return bulkParameter != null;
+    }
+
+    BulkParameter bulkParameter()
+    {
+        return bulkParameter;
+    }
+
+    /**
+     * @return the type the argument part of the given {@link Lazy} parameter
+     *         is converted to, or {@code null} if the parameter is not lazy.
+     */
+    Class<?> lazyType(final int parameterIndex)
+    {
+        if (lazyTypes == null)
+        {
+            return null;
+        }
+        return lazyTypes[parameterIndex];
+    }
+
+    String displayName()
+    {
+        if (!longName.isEmpty())
+        {
+            return "--" + longName;
+        }
+
+        return "-" + shortName;
+    }
+
+    @Override
+    public String toString()
+    {
+        return displayName();
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2026 Herve Quiroz
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.trancecode.opts;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The converted arguments of every occurrence of an option on the
+ * command-line, kept until the launcher is created. Arguments of primitive
+ * options are kept unboxed. Streaming options are invoked as they are parsed:
+ * only the fact that they occurred is recorded.
+ * <p>
+ * The arguments of all the occurrences of a bulk option are kept as the
+ * elements of its single parameter, and passed to a single invocation.
+ * 
+ * @author Herve Quiroz
+ */
+final class OptionOccurrences
+{
+    private final OptionModel option;
+    private final List<Object> values;
+    private long[] primitiveValues;
+    private int size;
+
+    OptionOccurrences(final OptionModel option)
+    {
+        this.option = option;
+        if (option.isPrimitive() || (option.isBulk() && option.bulkParameter().isPrimitive()))
+        {
+            values = null;
+            primitiveValues = new long[1];
+        }
+        else
+        {
+            values = new ArrayList<Object>(1);
+            primitiveValues = null;
+        }
+    }
+
+    void add(final Object[] parameters)
+    {
+        values.add(parameters);
+        size++;
+    }
+
+    /**
+     * Adds an element of the parameter of a bulk option.
+     */
+    void addElement(final Object element)
+    {
+        values.add(element);
+        size++;
+    }
+
+    /**
+     * Adds a value that is not converted yet, either the parameters of an
+     * occurrence or an element of the parameter of a bulk option.
+     * 
+     * @return the position of the value, to be passed to
+     *         {@link #set(int, Object)} once converted.
+     */
+    int reserve()
+    {
+        values.add(null);
+        return size++;
+    }
+
+    void set(final int position, final Object value)
+    {
+        values.set(position, value);
+    }
+
+    void add(final long primitiveValue)
+    {
+        if (size == primitiveValues.length)
+        {
+            primitiveValues = Arrays.copyOf(primitiveValues, size * 2);
+        }
+        primitiveValues[size++] = primitiveValue;
+    }
+
+    /**
+     * @return the number of times the option method is to be invoked.
+     */
+    int invocationCount()
+    {
+        if (option.isBulk() && size > 0)
+        {
+            return 1;
+        }
+
+        return size;
+    }
+
+    /**
+     * @return the value returned by the option method for the given
+     *         invocation.
+     */
+    Object invoke(final Object launcher, final int invocation) throws Exception
+    {
+        if (option.isBulk())
+        {
+            final BulkParameter bulkParameter = option.bulkParameter();
+            final Object value;
+            if (primitiveValues != null)
+            {
+                value = bulkParameter.newValue(primitiveValues, size);
+            }
+            else
+            {
+                value = bulkParameter.newValue(values);
+            }
+            return option.invoke(launcher, new Object[] { value });
+        }
+
+        if (primitiveValues != null)
+        {
+            return option.invokePrimitive(launcher, primitiveValues[invocation]);
+        }
+
+        return option.invoke(launcher, (Object[]) values.get(invocation));
+    }
+}
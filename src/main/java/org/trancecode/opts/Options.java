@@ -15,15 +15,20 @@
  */
 package org.trancecode.opts;
 
-import java.lang.reflect.Method;
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.regex.Pattern;
-import java.util.regex.PatternSyntaxException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.regex.Matcher;
 
+import org.trancecode.opts.ExecutionListener.Phase;
 import org.trancecode.opts.converter.StringConverters;
 
 /**
@@ -31,240 +36,613 @@ import org.trancecode.opts.converter.StringConverters;
  */
 public final class Options
 {
+    private static final Object[] NO_PARAMETERS = new Object[0];
+    private static final String LINE_SEPARATOR = System.getProperty("line.separator");
+
+    /**
+     * Usage rendered so far, by launcher class.
+     */
+    private static final ClassCache<String> SYNTAXES = new ClassCache<String>()
+    {
+        @Override
+        protected String compute(final Class<?> launcherClass)
+        {
+            return renderSyntax(CommandModel.get(launcherClass));
+        }
+    };
+
+    static final Comparator<OptionModel> OPTION_NAME_ORDER = new Comparator<OptionModel>()
+    {
+        @Override
+        public int compare(final OptionModel option1, final OptionModel option2)
+        {
+            int order = getName(option1).compareToIgnoreCase(getName(option2));
+            if (order == 0)
+            {
+                order = getName(option1).compareTo(getName(option2));
+            }
+            if (order == 0)
+            {
+                order = option1.shortName().compareTo(option2.shortName());
+            }
+            return order;
+        }
+    };
+
     private Options()
     {
         // No instantiation
     }
 
-    private static String getOptionDisplayName(final Option option)
+    /**
+     * An {@code @file} argument where an option is expected is replaced by
+     * the arguments read from the file (see {@link ArgumentFile}).
+     * <p>
+     * Launchers with {@link Option#streaming() streaming} options are created
+     * before parsing the command-line, and these options are invoked as they
+     * are parsed. The other options are invoked once the whole command-line
+     * has been parsed.
+     * <p>
+     * If the launcher class has {@link Subcommand subcommands}, the first
+     * argument that is not an option names the subcommand to execute instead,
+     * with the options before and after its name. Only the class of that
+     * subcommand is loaded.
+     * 
+     * @return the launcher and the exit code.
+     */
+    public static <T extends Runnable> Entry<T, Integer> execute(final Class<T> launcherClass, final String... args)
     {
-        if (!option.longName().isEmpty())
-        {
-            return "--" + option.longName();
-        }
+        return execute(launcherClass, null, args);
+    }
 
-        return "-" + option.shortName();
+    /**
+     * Same as {@link #execute(Class, String...)}, but the arguments of the
+     * options that are not {@link Option#streaming() streaming} are converted
+     * concurrently by the given executor, which pays off with converters that
+     * do I/O. Primitive arguments are still converted while parsing.
+     * <p>
+     * Options are invoked in the same order, and a conversion error is
+     * reported for the first invalid argument on the command-line.
+     * 
+     * @param executor
+     *            the executor to convert arguments with, or {@code null} to
+     *            convert them while parsing.
+     * @return the launcher and the exit code.
+     */
+    public static <T extends Runnable> Entry<T, Integer> execute(final Class<T> launcherClass,
+            final Executor executor, final String... args)
+    {
+        return execute(launcherClass, executor, null, args);
     }
 
-    private static Option getOption(final Method method)
+    /**
+     * @param workingDirectory
+     *            the directory relative {@code @file} paths are resolved
+     *            against, or {@code null} for the current directory.
+     */
+    static <T extends Runnable> Entry<T, Integer> execute(final Class<T> launcherClass, final Executor executor,
+            final File workingDirectory, final String... args)
     {
-        final Option explicitOption = method.getAnnotation(Option.class);
-        if (explicitOption != null)
+        Preconditions.checkNotNull(launcherClass);
+        Preconditions.checkNotNull(args);
+
+        final Instrumentation instrumentation = Instrumentation.get(launcherClass);
+        final long modelStart = instrumentation.start();
+        final Arguments arguments = new Arguments(args, workingDirectory);
+        try
         {
-            return explicitOption;
+            return execute(launcherClass, instrumentation, modelStart, executor, arguments);
         }
+        finally
+        {
+            arguments.close();
+        }
+    }
+
+    /**
+     * @param modelStart
+     *            the start of the {@link Phase#MODEL model phase}, which also
+     *            covers getting the model of the subcommand to execute, if
+     *            any, so that it is only reported once.
+     */
+    private static <T extends Runnable> Entry<T, Integer> execute(final Class<T> launcherClass,
+            final Instrumentation instrumentation, final long modelStart, final Executor executor,
+            final Arguments arguments)
+    {
+        Preconditions.checkArgument(!launcherClass.isInterface(), "%s is an interface", launcherClass.getName());
+        Preconditions.checkArgument(launcherClass.getAnnotation(Command.class) != null, "%s is missing %s",
+                launcherClass, Command.class);
 
-        final Class<?> parentType = method.getDeclaringClass().getSuperclass();
-        if (parentType != Object.class)
+        final CommandModel model = CommandModel.get(launcherClass);
+        if (!model.subcommands().isEmpty())
         {
-            try
+            final Class<? extends Runnable> subcommandClass = findSubcommand(model, arguments);
+            if (subcommandClass != null)
             {
-                final Method parentClassMethod = parentType.getMethod(method.getName(), method.getParameterTypes());
-                return getOption(parentClassMethod);
-            }
-            catch (final Exception e)
-            {
-                return null;
+                final Entry<? extends T, Integer> result = execute(subcommandClass.asSubclass(launcherClass),
+                        instrumentation, modelStart, executor, arguments);
+                return Options.<T> newResult(result.getKey(), result.getValue());
             }
         }
+        instrumentation.phaseCompleted(Phase.MODEL, modelStart);
 
-        return null;
-    }
+        long phaseStart = instrumentation.start();
+        final List<OptionOccurrences> occurrences = new ArrayList<OptionOccurrences>(
+                Collections.<OptionOccurrences> nCopies(model.options().size(), null));
 
-    private static Map<Option, Method> getOptions(final Class<?> type)
-    {
-        final Map<Option, Method> options = new HashMap<Option, Method>();
-        for (final Method method : type.getMethods())
+        T launcher = null;
+        if (model.hasStreamingOptions())
         {
-            final Option option = getOption(method);
-            if (option != null)
+            launcher = newLauncher(launcherClass, model);
+        }
+
+        final ArgumentConversions conversions = executor != null ? new ArgumentConversions(executor) : null;
+        final ArgumentLexer lexer = new ArgumentLexer(model, arguments);
+        try
+        {
+            for (int token = lexer.next(); token != ArgumentLexer.END; token = lexer.next())
             {
-                Preconditions.checkState(!option.description().isEmpty(), "@Option is missing a description: %s",
-                        getOptionDisplayName(option));
-                Preconditions.checkState(
-                        method.getReturnType().equals(Void.TYPE) || method.getReturnType().equals(Integer.TYPE),
-                        "an @Option method can only return 'void' or 'int': %s", method);
-                Preconditions.checkState(
-                        option.shortName().equals("") || findOptionWithShortName(options, option.shortName()) == null,
-                        "duplicate option with short name -%s", option.shortName());
-                Preconditions.checkState(
-                        option.longName().equals("") || findOptionWithLongName(options, option.longName()) == null,
-                        "duplicate option with long name --%s", option.longName());
-                final Argument argument = method.getAnnotation(Argument.class);
-                if (argument != null)
+                if (token == ArgumentLexer.ERROR)
+                {
+                    throw new IllegalArgumentException(lexer.error());
+                }
+                if (token == ArgumentLexer.ARGUMENT)
+                {
+                    throw new IllegalArgumentException(getUnexpectedArgumentMessage(model, lexer.argument()));
+                }
+                final OptionModel option = lexer.option();
+
+                OptionOccurrences optionOccurrences = occurrences.get(option.index());
+                if (!option.multiple() && optionOccurrences != null)
+                {
+                    throw new IllegalArgumentException("duplicate option: " + lexer.token());
+                }
+                final String optionArgument;
+                if (option.hasParameters())
+                {
+                    optionArgument = lexer.nextArgument();
+                    if (optionArgument == null)
+                    {
+                        throw new IllegalArgumentException("missing an argument for option " + lexer.token());
+                    }
+                }
+                else
+                {
+                    optionArgument = null;
+                }
+                if (optionOccurrences == null)
+                {
+                    optionOccurrences = new OptionOccurrences(option);
+                    occurrences.set(option.index(), optionOccurrences);
+                }
+                if (option.streaming())
                 {
-                    try
+                    final Object result = invoke(launcher, option, optionArgument, instrumentation);
+                    if (option.exit())
                     {
-                        Pattern.compile(argument.pattern());
+                        if (conversions != null)
+                        {
+                            conversions.complete();
+                        }
+                        instrumentation.phaseCompleted(Phase.PARSING, phaseStart);
+                        return newResult(launcher, getExitCode(result));
                     }
-                    catch (final PatternSyntaxException e)
+                }
+                else if (option.isBulk())
+                {
+                    final BulkParameter bulkParameter = option.bulkParameter();
+                    final String argumentPart = getSingleArgumentPart(option, optionArgument);
+                    if (bulkParameter.isPrimitive())
                     {
-                        throw new IllegalStateException(String.format("argument pattern is invalid for %s: %s", method,
-                                argument.pattern()), e);
+                        optionOccurrences.add(convertPrimitiveElement(bulkParameter, argumentPart, instrumentation));
                     }
+                    else if (conversions != null)
+                    {
+                        conversions.submit(optionOccurrences, new Callable<Object>()
+                        {
+                            @Override
+                            public Object call()
+                            {
+                                return convertElement(bulkParameter, argumentPart, instrumentation);
+                            }
+                        });
+                    }
+                    else
+                    {
+                        optionOccurrences.addElement(convertElement(bulkParameter, argumentPart, instrumentation));
+                    }
+                }
+                else if (option.isPrimitive())
+                {
+                    optionOccurrences.add(getPrimitiveParameter(option, optionArgument, instrumentation));
+                }
+                else if (conversions != null && option.hasParameters())
+                {
+                    conversions.submit(optionOccurrences, new Callable<Object>()
+                    {
+                        @Override
+                        public Object call()
+                        {
+                            return getParameters(option, optionArgument, instrumentation);
+                        }
+                    });
+                }
+                else
+                {
+                    optionOccurrences.add(getParameters(option, optionArgument, instrumentation));
                 }
-                options.put(option, method);
             }
         }
-
-        return options;
-    }
-
-    private static Option findOptionWithShortName(final Map<Option, Method> options, final String shortName)
-    {
-        for (final Option option : options.keySet())
+        catch (final RuntimeException e)
         {
-            if (option.shortName().equals(shortName))
+            if (conversions != null)
             {
-                return option;
+                // An invalid argument before this error is reported first
+                conversions.complete();
             }
+            throw e;
+        }
+        finally
+        {
+            // Argument files are not kept open while the launcher runs
+            arguments.close();
         }
 
-        return null;
-    }
+        if (conversions != null)
+        {
+            conversions.complete();
+        }
+        instrumentation.phaseCompleted(Phase.PARSING, phaseStart);
 
-    private static Option findOptionWithLongName(final Map<Option, Method> options, final String longName)
-    {
-        for (final Option option : options.keySet())
+        phaseStart = instrumentation.start();
+        if (launcher == null)
+        {
+            launcher = newLauncher(launcherClass, model);
+        }
+
+        for (final OptionModel option : model.options())
         {
-            if (option.longName().equals(longName))
+            final OptionOccurrences optionOccurrences = occurrences.get(option.index());
+            if (option.required() && optionOccurrences == null)
+            {
+                throw new IllegalStateException("missing required option: " + option);
+            }
+
+            if (optionOccurrences == null)
             {
-                return option;
+                continue;
+            }
+
+            for (int invocation = 0; invocation < optionOccurrences.invocationCount(); invocation++)
+            {
+                final Object result;
+                try
+                {
+                    result = optionOccurrences.invoke(launcher, invocation);
+                }
+                catch (final Exception e)
+                {
+                    throw getInvocationException(e);
+                }
+
+                if (option.exit())
+                {
+                    instrumentation.phaseCompleted(Phase.INVOCATION, phaseStart);
+                    return newResult(launcher, getExitCode(result));
+                }
             }
         }
 
-        return null;
+        if (launcher instanceof AbstractLauncher)
+        {
+            ((AbstractLauncher) launcher).optionsParsed();
+        }
+        instrumentation.phaseCompleted(Phase.INVOCATION, phaseStart);
+
+        phaseStart = instrumentation.start();
+        launcher.run();
+        instrumentation.phaseCompleted(Phase.RUN, phaseStart);
+
+        return newResult(launcher, 0);
     }
 
     /**
-     * @return the launcher and the exit code.
+     * Checks a command-line without creating the launcher nor invoking any
+     * option: options are looked up, and their arguments are matched against
+     * the {@link Argument} pattern and converted. Errors are returned rather
+     * than thrown, and checking stops at the first error that prevents reading
+     * the rest of the command-line, such as an unknown option.
+     * 
+     * @return the errors found on the command-line, in order, or an empty list
+     *         if the command-line is valid.
      */
-    public static <T extends Runnable> Entry<T, Integer> execute(final Class<T> launcherClass, final String... args)
+    public static List<CommandLineError> validate(final Class<? extends Runnable> launcherClass,
+            final String... args)
     {
         Preconditions.checkNotNull(launcherClass);
-        Preconditions.checkArgument(!launcherClass.isInterface(), "%s is an interface", launcherClass.getName());
-        Preconditions.checkArgument(launcherClass.getAnnotation(Command.class) != null, "%s is missing %s",
-                launcherClass, Command.class);
         Preconditions.checkNotNull(args);
 
-        final Map<Option, Method> options = getOptions(launcherClass);
-        final Map<Method, List<Object[]>> methodsToInvoke = new HashMap<Method, List<Object[]>>();
+        final Arguments arguments = new Arguments(args);
+        try
+        {
+            return validate(launcherClass, arguments);
+        }
+        finally
+        {
+            arguments.close();
+        }
+    }
 
-        for (int argIndex = 0; argIndex < args.length; argIndex++)
+    private static List<CommandLineError> validate(final Class<? extends Runnable> launcherClass,
+            final Arguments arguments)
+    {
+        Preconditions.checkArgument(launcherClass.getAnnotation(Command.class) != null, "%s is missing %s",
+                launcherClass, Command.class);
+
+        final CommandModel model = CommandModel.get(launcherClass);
+        if (!model.subcommands().isEmpty())
         {
-            final String arg = args[argIndex];
-            final Option option;
-            if (arg.matches("--[a-zA-Z0-9].*"))
+            final Class<? extends Runnable> subcommandClass = findSubcommand(model, arguments);
+            if (subcommandClass != null)
             {
-                option = findOptionWithLongName(options, arg.substring(2));
+                return validate(subcommandClass, arguments);
             }
-            else if (arg.matches("-[a-zA-Z0-9]"))
+        }
+
+        final boolean[] found = new boolean[model.options().size()];
+        final List<CommandLineError> errors = new ArrayList<CommandLineError>();
+        final ArgumentLexer lexer = new ArgumentLexer(model, arguments);
+        try
+        {
+            for (int token = lexer.next(); token != ArgumentLexer.END; token = lexer.next())
             {
-                option = findOptionWithShortName(options, arg.substring(1));
+                if (token == ArgumentLexer.ERROR || token == ArgumentLexer.ARGUMENT)
+                {
+                    errors.add(new CommandLineError(arguments.index(), null, token == ArgumentLexer.ERROR ? lexer
+                            .error() : getUnexpectedArgumentMessage(model, lexer.argument()), CommandLineError.USAGE));
+                    return errors;
+                }
+                final OptionModel option = lexer.option();
+
+                if (found[option.index()] && !option.multiple())
+                {
+                    errors.add(new CommandLineError(arguments.index(), option.displayName(), "duplicate option: "
+                            + lexer.token(), CommandLineError.USAGE));
+                }
+                found[option.index()] = true;
+
+                if (option.hasParameters())
+                {
+                    final String optionArgument = lexer.nextArgument();
+                    if (optionArgument == null)
+                    {
+                        errors.add(new CommandLineError(arguments.index(), option.displayName(),
+                                "missing an argument for option " + lexer.token(), CommandLineError.USAGE));
+                        return errors;
+                    }
+                    final CommandLineError error = validateArgument(option, optionArgument, arguments.index());
+                    if (error != null)
+                    {
+                        errors.add(error);
+                    }
+                }
+
+                if (option.streaming() && option.exit())
+                {
+                    // The rest of the command-line would not be parsed
+                    return errors;
+                }
             }
-            else
+        }
+        catch (final IllegalArgumentException e)
+        {
+            // Argument file that cannot be read
+            errors.add(new CommandLineError(arguments.index(), null, e.getMessage(), CommandLineError.USAGE));
+            return errors;
+        }
+
+        for (final OptionModel option : model.options())
+        {
+            if (option.required() && !found[option.index()])
             {
-                throw new IllegalArgumentException(arg);
+                errors.add(new CommandLineError(-1, option.displayName(), "missing required option: " + option,
+                        CommandLineError.USAGE));
             }
-            Preconditions.checkArgument(option != null, "unknown option: %s", arg);
-
-            final Method method = options.get(option);
-            Preconditions.checkArgument(option.multiple() || !methodsToInvoke.containsKey(method),
-                    "duplicate option: %s", arg);
-            final String optionArgument;
-            if (method.getParameterTypes().length > 0)
+            else if (option.exit() && found[option.index()])
             {
-                Preconditions.checkArgument(argIndex < args.length - 1, "missing an argument for option %s", arg);
-                optionArgument = args[++argIndex];
+                // The options after this one would not be invoked
+                break;
             }
-            else
+        }
+
+        return errors;
+    }
+
+    /**
+     * Reads the arguments up to the first one that is not an option, which
+     * names the subcommand. The arguments read before, from {@code @files} if
+     * need be, are then pushed back to be parsed again along with the rest of
+     * the command-line, by the subcommand or else by the launcher itself.
+     * 
+     * @return the subcommand, or {@code null} if the command-line does not
+     *         name a subcommand, or has an error to report for the launcher
+     *         itself.
+     */
+    private static Class<? extends Runnable> findSubcommand(final CommandModel model, final Arguments arguments)
+    {
+        final List<String> readArgs = new ArrayList<String>();
+        final List<Integer> readIndexes = new ArrayList<Integer>();
+        arguments.record(readArgs, readIndexes);
+        final ArgumentLexer lexer = new ArgumentLexer(model, arguments);
+        Class<? extends Runnable> launcherClass = null;
+        IllegalArgumentException error = null;
+        try
+        {
+            int token = lexer.next();
+            while (token == ArgumentLexer.OPTION && (!lexer.option().hasParameters() || lexer.nextArgument() != null))
             {
-                optionArgument = null;
+                token = lexer.next();
             }
-            final Object[] parameters = getParameters(method, optionArgument);
-            if (!methodsToInvoke.containsKey(method))
+            if (token == ArgumentLexer.ARGUMENT)
             {
-                methodsToInvoke.put(method, new ArrayList<Object[]>());
+                launcherClass = model.subcommands().getSubcommandClass(lexer.argument());
             }
-            methodsToInvoke.get(method).add(parameters);
+        }
+        catch (final IllegalArgumentException e)
+        {
+            // Argument file that cannot be read, reported for the launcher
+            error = e;
+        }
+        finally
+        {
+            arguments.record(null, null);
         }
 
-        final T launcher;
-        try
+        if (launcherClass != null)
         {
-            launcher = launcherClass.newInstance();
+            // Everything but the name of the subcommand
+            readArgs.remove(readArgs.size() - 1);
+            readIndexes.remove(readIndexes.size() - 1);
         }
-        catch (final Exception e)
+        arguments.pushBack(readArgs, readIndexes, error);
+        return launcherClass;
+    }
+
+    private static String getUnexpectedArgumentMessage(final CommandModel model, final String arg)
+    {
+        if (model.subcommands().isEmpty())
+        {
+            return "unexpected argument: " + arg;
+        }
+        return "unknown subcommand: " + arg;
+    }
+
+    /**
+     * Matches and converts the argument of an option, the same way as when
+     * executing the command-line.
+     * 
+     * @return the error found in the argument, or {@code null}.
+     */
+    private static CommandLineError validateArgument(final OptionModel option, final String argument,
+            final int argumentIndex)
+    {
+        Matcher matcher = null;
+        if (!option.isDefaultPattern())
         {
-            if (e instanceof RuntimeException)
+            matcher = option.pattern().matcher(argument);
+            if (!matcher.matches())
             {
-                throw (RuntimeException) e;
+                return new CommandLineError(argumentIndex, option.displayName(), "invalid argument for option "
+                        + option + ": '" + argument + "' does not match " + option.pattern(), CommandLineError.USAGE);
             }
-            throw new IllegalStateException(e);
         }
 
-        for (final Method method : launcherClass.getMethods())
+        // Converters report invalid values with exceptions
+        try
         {
-            final Option option = getOption(method);
-            if (option != null)
+            if (option.isBulk())
             {
-                if (option.required() && !methodsToInvoke.containsKey(method))
+                final BulkParameter bulkParameter = option.bulkParameter();
+                final String argumentPart = matcher != null ? getArgumentPart(matcher, 0) : argument;
+                if (bulkParameter.isPrimitive())
                 {
-                    throw new IllegalStateException("missing required option: " + option);
+                    bulkParameter.convertPrimitive(argumentPart);
                 }
-
-                if (!methodsToInvoke.containsKey(method))
+                else
                 {
-                    continue;
+                    bulkParameter.convert(argumentPart);
                 }
-
-                for (final Object[] parameter : methodsToInvoke.get(method))
+            }
+            else if (option.isPrimitive())
+            {
+                option.convertPrimitive(matcher != null ? getArgumentPart(matcher, 0) : argument);
+            }
+            else
+            {
+                final Class<?>[] parameterTypes = option.parameterTypes();
+                for (int i = 0; i < parameterTypes.length; i++)
                 {
-                    final Object result;
-                    try
-                    {
-                        result = method.invoke(launcher, parameter);
-                    }
-                    catch (final Exception e)
+                    // Lazy parameters are only converted if the launcher uses them
+                    if (option.lazyType(i) == null)
                     {
-                        // TODO handle error code depending on the Exception
-                        if (e instanceof RuntimeException)
-                        {
-                            throw (RuntimeException) e;
-                        }
-                        throw new IllegalStateException(e);
+                        StringConverters.convert(matcher != null ? getArgumentPart(matcher, i) : argument,
+                                parameterTypes[i]);
                     }
+                }
+            }
+        }
+        catch (final CommandLineException e)
+        {
+            return new CommandLineError(argumentIndex, option.displayName(), e.getMessage(), e.exitCode());
+        }
+        catch (final RuntimeException e)
+        {
+            return new CommandLineError(argumentIndex, option.displayName(), "invalid argument for option "
+                    + option + ": " + (e.getMessage() != null ? e.getMessage() : e.toString()),
+                    CommandLineError.USAGE);
+        }
 
-                    if (option.exit())
-                    {
-                        final int exitCode = getExitCode(result);
-                        return new Map.Entry<T, Integer>()
-                        {
-                            @Override
-                            public T getKey()
-                            {
-                                return launcher;
-                            }
+        return null;
+    }
 
-                            @Override
-                            public Integer getValue()
-                            {
-                                return exitCode;
-                            }
+    private static <T> T newLauncher(final Class<T> launcherClass, final CommandModel model)
+    {
+        try
+        {
+            return launcherClass.cast(model.newLauncher());
+        }
+        catch (final Exception e)
+        {
+            throw getInvocationException(e);
+        }
+    }
 
-                            @Override
-                            public Integer setValue(final Integer value)
-                            {
-                                throw new UnsupportedOperationException();
-                            }
-                        };
-                    }
-                }
+    /**
+     * Converts the argument and invokes a {@link Option#streaming() streaming}
+     * option right away.
+     */
+    private static Object invoke(final Object launcher, final OptionModel option, final String argument,
+            final Instrumentation instrumentation)
+    {
+        try
+        {
+            if (option.isPrimitive())
+            {
+                return option.invokePrimitive(launcher, getPrimitiveParameter(option, argument, instrumentation));
             }
+            return option.invoke(launcher, getParameters(option, argument, instrumentation));
         }
+        catch (final Exception e)
+        {
+            throw getInvocationException(e);
+        }
+    }
 
-        launcher.run();
+    /**
+     * Unwraps the exception thrown by an option method or by the constructor
+     * of the launcher, so that a {@link CommandLineException} is thrown as is,
+     * along with its exit code.
+     */
+    private static RuntimeException getInvocationException(final Exception e)
+    {
+        Throwable cause = e;
+        if (e instanceof InvocationTargetException && e.getCause() != null)
+        {
+            cause = e.getCause();
+        }
+        if (cause instanceof Error)
+        {
+            throw (Error) cause;
+        }
+        if (cause instanceof RuntimeException)
+        {
+            return (RuntimeException) cause;
+        }
+        return new IllegalStateException(cause);
+    }
 
+    private static <T> Entry<T, Integer> newResult(final T launcher, final int exitCode)
+    {
         return new Map.Entry<T, Integer>()
         {
             @Override
@@ -276,7 +654,7 @@ public final class Options
             @Override
             public Integer getValue()
             {
-                return 0;
+                return exitCode;
             }
 
             @Override
@@ -287,34 +665,112 @@ public final class Options
         };
     }
 
-    private static String getOptionArgumentPattern(final Method method)
+    private static Object[] getParameters(final OptionModel option, final String argument,
+            final Instrumentation instrumentation)
     {
-        final Argument argument = method.getAnnotation(Argument.class);
-        if (argument != null)
+        final Class<?>[] parameterTypes = option.parameterTypes();
+        if (parameterTypes.length == 0)
+        {
+            return NO_PARAMETERS;
+        }
+
+        if (option.isDefaultPattern())
         {
-            return argument.pattern();
+            return new Object[] { convert(option, 0, argument, instrumentation) };
         }
 
-        return "(.*)";
+        final Matcher matcher = matchArgument(option, argument);
+        final Object[] parameters = new Object[parameterTypes.length];
+        for (int i = 0; i < parameters.length; i++)
+        {
+            parameters[i] = convert(option, i, getArgumentPart(matcher, i), instrumentation);
+        }
+
+        return parameters;
     }
 
-    private static Object[] getParameters(final Method method, final String argument)
+    /**
+     * @return the value of the given parameter, or a {@link Lazy} that
+     *         converts the argument part on first access.
+     */
+    private static Object convert(final OptionModel option, final int parameterIndex, final String argumentPart,
+            final Instrumentation instrumentation)
     {
-        if (method.getParameterTypes().length == 0)
+        final Class<?> lazyType = option.lazyType(parameterIndex);
+        if (lazyType != null)
         {
-            return new Object[0];
+            return new LazyArgument(argumentPart, lazyType, instrumentation);
         }
 
-        final String pattern = getOptionArgumentPattern(method);
-        final Object[] parameters = new Object[method.getParameterTypes().length];
-        for (int i = 0; i < parameters.length; i++)
+        final Class<?> type = option.parameterTypes()[parameterIndex];
+        final long start = instrumentation.start();
+        final Object value = StringConverters.convert(argumentPart, type);
+        instrumentation.argumentConverted(type, start);
+        return value;
+    }
+
+    private static long getPrimitiveParameter(final OptionModel option, final String argument,
+            final Instrumentation instrumentation)
+    {
+        final String argumentPart = getSingleArgumentPart(option, argument);
+        final long start = instrumentation.start();
+        final long value = option.convertPrimitive(argumentPart);
+        instrumentation.argumentConverted(option.parameterTypes()[0], start);
+        return value;
+    }
+
+    private static Object convertElement(final BulkParameter bulkParameter, final String argumentPart,
+            final Instrumentation instrumentation)
+    {
+        final long start = instrumentation.start();
+        final Object value = bulkParameter.convert(argumentPart);
+        instrumentation.argumentConverted(bulkParameter.elementType(), start);
+        return value;
+    }
+
+    private static long convertPrimitiveElement(final BulkParameter bulkParameter, final String argumentPart,
+            final Instrumentation instrumentation)
+    {
+        final long start = instrumentation.start();
+        final long value = bulkParameter.convertPrimitive(argumentPart);
+        instrumentation.argumentConverted(bulkParameter.elementType(), start);
+        return value;
+    }
+
+    /**
+     * @return the part of the argument for the single parameter of the
+     *         option.
+     */
+    private static String getSingleArgumentPart(final OptionModel option, final String argument)
+    {
+        if (option.isDefaultPattern())
         {
-            final String argumentPart = argument.replaceAll(pattern, "$" + (i + 1));
-            final Class<?> requiredType = method.getParameterTypes()[i];
-            parameters[i] = StringConverters.convert(argumentPart, requiredType);
+            return argument;
         }
 
-        return parameters;
+        return getArgumentPart(matchArgument(option, argument), 0);
+    }
+
+    private static Matcher matchArgument(final OptionModel option, final String argument)
+    {
+        final Matcher matcher = option.pattern().matcher(argument);
+        if (!matcher.matches())
+        {
+            throw new IllegalArgumentException(String.format("invalid argument for option %s: '%s' does not match %s",
+                    option, argument, option.pattern()));
+        }
+        return matcher;
+    }
+
+    private static String getArgumentPart(final Matcher matcher, final int parameterIndex)
+    {
+        final String argumentPart = matcher.group(parameterIndex + 1);
+        // A group that did not participate in the match is an empty part
+        if (argumentPart == null)
+        {
+            return "";
+        }
+        return argumentPart;
     }
 
     private static int getExitCode(final Object code)
@@ -324,89 +780,108 @@ public final class Options
             return 0;
         }
 
-        if (code.getClass().equals(Integer.TYPE))
+        if (code instanceof Integer)
         {
-            return Integer.TYPE.cast(code).intValue();
+            return ((Integer) code).intValue();
         }
 
         throw new UnsupportedOperationException(code.getClass().getName());
     }
 
-    private static String getParameterName(final Method method)
+    /**
+     * @return the usage of the launcher class, rendered on first use.
+     */
+    private static String getSyntax(final Class<?> launcherClass)
     {
-        Preconditions.checkNotNull(method);
-
-        final Argument argument = method.getAnnotation(Argument.class);
-        if (argument != null)
-        {
-            return argument.label();
-        }
-
-        return "VALUE";
+        return SYNTAXES.get(launcherClass);
     }
 
-    private static CharSequence getSyntax(final Class<?> launcherClass)
+    /**
+     * Options are listed by name, which does not depend on the order methods
+     * are scanned in.
+     */
+    private static String renderSyntax(final CommandModel model)
     {
-        Preconditions.checkNotNull(launcherClass);
+        final Command command = model.command();
+        Preconditions.checkArgument(command != null, "%s is missing %s", model.launcherClass(), Command.class);
         final StringBuilder syntax = new StringBuilder();
-        final Command command = launcherClass.getAnnotation(Command.class);
-        final Map<Option, Method> options = getOptions(launcherClass);
-        Preconditions.checkArgument(command != null, "%s is missing %s", launcherClass, Command.class);
         syntax.append("usage: ").append(command.value());
+        final List<OptionModel> options = new ArrayList<OptionModel>(model.options());
         if (!options.isEmpty())
         {
+            Collections.sort(options, OPTION_NAME_ORDER);
             syntax.append(" [options]\n");
 
-            for (final Entry<Option, Method> option : options.entrySet())
+            for (final OptionModel option : options)
             {
                 syntax.append("\n");
-                final StringBuilder line = new StringBuilder();
-                if (!option.getKey().shortName().isEmpty())
-                {
-                    line.append(" -").append(option.getKey().shortName());
-                }
-                while (line.length() < 3)
+                final int lineStart = syntax.length();
+                if (!option.shortName().isEmpty())
                 {
-                    line.append(" ");
+                    syntax.append(" -").append(option.shortName());
                 }
-                if (!option.getKey().longName().isEmpty())
+                pad(syntax, lineStart + 3);
+                if (!option.longName().isEmpty())
                 {
-                    line.append(" --").append(option.getKey().longName());
+                    syntax.append(" --").append(option.longName());
                 }
 
-                if (option.getValue().getParameterTypes().length > 0)
+                if (option.hasParameters())
                 {
-                    final String parameterName = getParameterName(option.getValue());
-                    line.append(" ").append(parameterName);
-                    if (containsMultipleOptions(options.keySet()))
-                    {
-                        line.append(" [+]");
-                    }
+                    syntax.append(" ").append(option.label());
                 }
-
-                line.append(" ");
-                while (line.length() < 30)
+                if (option.multiple())
                 {
-                    line.append(" ");
+                    syntax.append(" [+]");
                 }
 
-                line.append(option.getKey().description());
+                syntax.append(" ");
+                pad(syntax, lineStart + 30);
 
-                syntax.append(line);
+                syntax.append(option.description());
             }
 
-            if (containsMultipleOptions(options.keySet()))
+            if (containsMultipleOptions(options))
             {
                 syntax.append("\n\n[+] marked option can be specified multiple times");
             }
         }
 
-        return syntax;
+        if (!model.subcommands().isEmpty())
+        {
+            syntax.append("\n\nsubcommands:");
+            for (final String name : model.subcommands().names())
+            {
+                syntax.append(' ').append(name);
+            }
+        }
+
+        return syntax.toString();
+    }
+
+    private static void pad(final StringBuilder syntax, final int length)
+    {
+        while (syntax.length() < length)
+        {
+            syntax.append(' ');
+        }
     }
 
-    private static boolean containsMultipleOptions(final Iterable<Option> options)
+    /**
+     * @return the long name of the option, or else its short name.
+     */
+    private static String getName(final OptionModel option)
     {
-        for (final Option option : options)
+        if (option.longName().isEmpty())
+        {
+            return option.shortName();
+        }
+        return option.longName();
+    }
+
+    private static boolean containsMultipleOptions(final Iterable<OptionModel> options)
+    {
+        for (final OptionModel option : options)
         {
             if (option.multiple())
             {
@@ -417,6 +892,33 @@ public final class Options
         return false;
     }
 
+    /**
+     * Writes the usage of the launcher class, followed by a line separator.
+     * The usage is rendered once per launcher class.
+     */
+    public static void printSyntax(final Class<?> launcherClass, final Appendable out) throws IOException
+    {
+        Preconditions.checkNotNull(out);
+        out.append(getSyntax(launcherClass)).append(LINE_SEPARATOR);
+    }
+
+    /**
+     * Registers a listener notified of the time spent by the executions
+     * started from now on.
+     */
+    public static void addListener(final ExecutionListener listener)
+    {
+        Instrumentation.addListener(listener);
+    }
+
+    public static void removeListener(final ExecutionListener listener)
+    {
+        Instrumentation.removeListener(listener);
+    }
+
+    /**
+     * Prints the usage of the launcher class to the standard error stream.
+     */
     public static void printSyntax(final Class<?> launcherClass)
     {
         System.err.println(getSyntax(launcherClass));
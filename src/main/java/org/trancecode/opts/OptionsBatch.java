@@ -0,0 +1,268 @@
+/*
+ * Copyright 2026 Herve Quiroz
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.trancecode.opts;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Executes many command-lines of the same launcher class concurrently, with
+ * {@link Options#execute(Class, String...)}.
+ * <p>
+ * The option model of the launcher class is built once and shared by all the
+ * executions, and parsing and argument conversion are safe under concurrent
+ * use, as long as the registered converters are. Each command-line gets its
+ * own launcher instance. At most {@value #MAX_PENDING} command-lines are read
+ * ahead of the executions.
+ * 
+ * @author Herve Quiroz
+ */
+public final class OptionsBatch
+{
+    static final int MAX_PENDING = 1024;
+
+    /**
+     * The outcome of the execution of one command-line.
+     */
+    public static final class Result
+    {
+        private final int index;
+        private final int exitCode;
+        private final Throwable error;
+
+        private Result(final int index, final int exitCode, final Throwable error)
+        {
+            this.index = index;
+            this.exitCode = exitCode;
+            this.error = error;
+        }
+
+        /**
+         * @return the position of the command-line in the batch, starting at
+         *         0.
+         */
+        public int index()
+        {
+            return index;
+        }
+
+        /**
+         * @return the exit code of the launcher, the one of the
+         *         {@link CommandLineException} it failed with, or 1 if it
+         *         failed with another error.
+         */
+        public int exitCode()
+        {
+            return exitCode;
+        }
+
+        /**
+         * @return the error the execution failed with, or {@code null}.
+         */
+        public Throwable error()
+        {
+            return error;
+        }
+
+        @Override
+        public String toString()
+        {
+            return "#" + index + ": " + (error != null ? error : exitCode);
+        }
+    }
+
+    /**
+     * Executions submitted so far.
+     */
+    private static final class Batch<T extends Runnable>
+    {
+        private final Class<T> launcherClass;
+        private final Executor executor;
+        private final Semaphore pending = new Semaphore(MAX_PENDING);
+        private final List<Result> results = new ArrayList<Result>();
+
+        private Batch(final Class<T> launcherClass, final Executor executor)
+        {
+            this.launcherClass = launcherClass;
+            this.executor = executor;
+        }
+
+        private void submit(final String[] args)
+        {
+            Preconditions.checkNotNull(args);
+            final int index;
+            synchronized (results)
+            {
+                index = results.size();
+                results.add(null);
+            }
+
+            acquire(1);
+            try
+            {
+                executor.execute(new Runnable()
+                {
+                    @Override
+                    public void run()
+                    {
+                        try
+                        {
+                            setResult(index, execute(index, args));
+                        }
+                        finally
+                        {
+                            pending.release();
+                        }
+                    }
+                });
+            }
+            catch (final RejectedExecutionException e)
+            {
+                pending.release();
+                throw e;
+            }
+        }
+
+        private Result execute(final int index, final String[] args)
+        {
+            try
+            {
+                return new Result(index, Options.execute(launcherClass, args).getValue(), null);
+            }
+            catch (final CommandLineException e)
+            {
+                return new Result(index, e.exitCode(), e);
+            }
+            catch (final Throwable e)
+            {
+                // Reported along with the command-line it occurred for
+                return new Result(index, 1, e);
+            }
+        }
+
+        private void setResult(final int index, final Result result)
+        {
+            synchronized (results)
+            {
+                results.set(index, result);
+            }
+        }
+
+        private void acquire(final int permits)
+        {
+            try
+            {
+                pending.acquire(permits);
+            }
+            catch (final InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+
+        /**
+         * @return the results, once all the executions are over.
+         */
+        private List<Result> await()
+        {
+            acquire(MAX_PENDING);
+            pending.release(MAX_PENDING);
+            synchronized (results)
+            {
+                return Collections.unmodifiableList(new ArrayList<Result>(results));
+            }
+        }
+    }
+
+    private OptionsBatch()
+    {
+        // No instantiation
+    }
+
+    /**
+     * Executes the command-lines with the given executor.
+     * 
+     * @return the results, in the order of the command-lines.
+     */
+    public static <T extends Runnable> List<Result> execute(final Class<T> launcherClass, final Executor executor,
+            final Iterator<String[]> commandLines)
+    {
+        final Batch<T> batch = newBatch(launcherClass, executor);
+        List<Result> results = null;
+        try
+        {
+            while (commandLines.hasNext())
+            {
+                batch.submit(commandLines.next());
+            }
+        }
+        finally
+        {
+            // Also waits for the submitted executions on failure
+            results = batch.await();
+        }
+
+        return results;
+    }
+
+    /**
+     * Executes the command-lines read from a file, one per line, with the
+     * given executor. Arguments are separated and quoted the same way as in
+     * {@code @file} arguments.
+     * 
+     * @return the results, in the order of the command-lines.
+     */
+    public static <T extends Runnable> List<Result> execute(final Class<T> launcherClass, final Executor executor,
+            final File commandLines) throws IOException
+    {
+        final Batch<T> batch = newBatch(launcherClass, executor);
+        final ArgumentFile file = new ArgumentFile(commandLines.getCanonicalFile());
+        List<Result> results = null;
+        try
+        {
+            for (String[] args = file.nextLine(); args != null; args = file.nextLine())
+            {
+                batch.submit(args);
+            }
+        }
+        finally
+        {
+            file.close();
+            results = batch.await();
+        }
+
+        return results;
+    }
+
+    private static <T extends Runnable> Batch<T> newBatch(final Class<T> launcherClass, final Executor executor)
+    {
+        Preconditions.checkNotNull(launcherClass);
+        Preconditions.checkNotNull(executor);
+        Preconditions.checkArgument(launcherClass.getAnnotation(Command.class) != null, "%s is missing %s",
+                launcherClass, Command.class);
+        // Built once, before the executions share it
+        CommandModel.get(launcherClass);
+        return new Batch<T>(launcherClass, executor);
+    }
+}
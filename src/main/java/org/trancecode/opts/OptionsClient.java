@@ -0,0 +1,165 @@
+/*
+ * Copyright 2026 Herve Quiroz
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.trancecode.opts;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Map.Entry;
+
+/**
+ * Runs a launcher in a running {@link OptionsDaemon}:
+ * 
+ * <pre>
+ * java -cp tc-opts.jar org.trancecode.opts.OptionsClient CLASS [ARGUMENT...]
+ * </pre>
+ * 
+ * The output of the launcher is written to the standard output and error, and
+ * its exit code is the one of the client. The token file of the daemon is
+ * read from the {@code tc-opts.daemon.tokenFile} system property, if set.
+ * 
+ * @author Herve Quiroz
+ */
+public final class OptionsClient
+{
+    private OptionsClient()
+    {
+        // No instantiation
+    }
+
+    public static void main(final String[] args)
+    {
+        if (args.length == 0)
+        {
+            System.err.println("usage: java -cp tc-opts.jar " + OptionsClient.class.getName()
+                    + " CLASS [ARGUMENT...]");
+            System.exit(2);
+        }
+
+        final String tokenFile = System.getProperty("tc-opts.daemon.tokenFile");
+        int exitCode;
+        try
+        {
+            exitCode = execute(tokenFile != null ? new File(tokenFile) : DaemonProtocol.getDefaultTokenFile(),
+                    System.out, System.err, args[0], Arrays.copyOfRange(args, 1, args.length));
+        }
+        catch (final IOException e)
+        {
+            System.err.println("cannot run " + args[0] + " in the tc-opts daemon: " + e.getMessage());
+            exitCode = 1;
+        }
+        System.out.flush();
+        System.err.flush();
+        System.exit(exitCode);
+    }
+
+    /**
+     * Runs the launcher in the daemon the token file refers to, with the
+     * working directory and the environment of this JVM.
+     * 
+     * @return the exit code of the launcher.
+     */
+    public static int execute(final File tokenFile, final OutputStream out, final OutputStream err,
+            final String launcherClassName, final String... args) throws IOException
+    {
+        Preconditions.checkNotNull(launcherClassName);
+        Preconditions.checkNotNull(args);
+        final String[] portAndToken = DaemonProtocol.readTokenFile(tokenFile);
+        final int port;
+        try
+        {
+            port = Integer.parseInt(portAndToken[0]);
+        }
+        catch (final NumberFormatException e)
+        {
+            throw new IOException("invalid token file: " + tokenFile);
+        }
+
+        final Socket socket = new Socket(InetAddress.getByName(null), port);
+        try
+        {
+            final DataOutputStream request = new DataOutputStream(new BufferedOutputStream(
+                    socket.getOutputStream()));
+            request.writeInt(DaemonProtocol.MAGIC);
+            request.writeInt(DaemonProtocol.VERSION);
+            DaemonProtocol.writeString(request, portAndToken[1]);
+            DaemonProtocol.writeString(request, launcherClassName);
+            DaemonProtocol.writeString(request, new File(System.getProperty("user.dir")).getAbsolutePath());
+            final Map<String, String> environment = System.getenv();
+            request.writeInt(environment.size());
+            for (final Entry<String, String> variable : environment.entrySet())
+            {
+                DaemonProtocol.writeString(request, variable.getKey());
+                DaemonProtocol.writeString(request, variable.getValue());
+            }
+            request.writeInt(args.length);
+            for (final String arg : args)
+            {
+                DaemonProtocol.writeString(request, arg);
+            }
+            request.flush();
+
+            final DataInputStream response = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            final byte[] buffer = new byte[8192];
+            while (true)
+            {
+                final byte type;
+                try
+                {
+                    type = response.readByte();
+                }
+                catch (final EOFException e)
+                {
+                    throw new IOException("connection closed by the daemon");
+                }
+
+                if (type == DaemonProtocol.EXIT)
+                {
+                    return response.readInt();
+                }
+                if (type != DaemonProtocol.STDOUT && type != DaemonProtocol.STDERR)
+                {
+                    throw new IOException("unexpected frame type: " + type);
+                }
+                final OutputStream output = type == DaemonProtocol.STDOUT ? out : err;
+                for (int remaining = DaemonProtocol.readLength(response); remaining > 0;)
+                {
+                    final int length = response.read(buffer, 0, Math.min(remaining, buffer.length));
+                    if (length < 0)
+                    {
+                        throw new EOFException();
+                    }
+                    output.write(buffer, 0, length);
+                    remaining -= length;
+                }
+                output.flush();
+            }
+        }
+        finally
+        {
+            socket.close();
+        }
+    }
+}
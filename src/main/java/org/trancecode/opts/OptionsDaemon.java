@@ -0,0 +1,502 @@
+/*
+ * Copyright 2026 Herve Quiroz
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.trancecode.opts;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps a JVM running to execute launchers for {@link OptionsClient}, so that
+ * each command pays neither the JVM startup nor the scan of the launcher
+ * class.
+ * <p>
+ * The daemon listens on the loopback interface, and writes its port and a
+ * random token to a token file only readable by its owner: clients must send
+ * the token, and can only run the launcher classes the daemon was started
+ * with. Clients that do not send their request within
+ * {@link #REQUEST_TIMEOUT} milliseconds are disconnected, and at most
+ * {@code --threads} commands run at once: other clients are disconnected.
+ * <p>
+ * The output of a command is sent back to its client, and relative
+ * {@code @file} paths are resolved against the directory of the client.
+ * Relative {@code File} and {@code URL} option values are converted as usual
+ * though, against the directory of the daemon: launchers can resolve them
+ * against {@link #getWorkingDirectory()}. The environment of the client is
+ * not applied either: {@link System#getenv()} returns the one of the daemon,
+ * and launchers get the one of the client from {@link #getEnvironment()}.
+ * Launchers run by the daemon must not call {@link System#exit(int)}, and do
+ * not get the standard input of the client. Only the thread that runs the
+ * command has the output, working directory and environment of the client:
+ * threads started by the launcher get those of the daemon.
+ * 
+ * @author Herve Quiroz
+ */
+@Command("java -cp ... org.trancecode.opts.OptionsDaemon --launcher CLASS")
+public final class OptionsDaemon extends AbstractLauncher implements Runnable, Closeable
+{
+    /**
+     * Milliseconds a client has to send its request.
+     */
+    public static final int REQUEST_TIMEOUT = 10000;
+
+    private static final ThreadLocal<Request> REQUEST = new ThreadLocal<Request>();
+    private static boolean outputInstalled;
+
+    private int port;
+    private File tokenFile = DaemonProtocol.getDefaultTokenFile();
+    private final Set<String> launcherClassNames = new HashSet<String>();
+    private int threads = 16;
+    private ServerSocket serverSocket;
+    private ExecutorService executor;
+    private Thread acceptThread;
+    private byte[] token;
+
+    private static final class Request
+    {
+        private final File workingDirectory;
+        private final Map<String, String> environment;
+        private final PrintStream out;
+        private final PrintStream err;
+
+        private Request(final File workingDirectory, final Map<String, String> environment, final PrintStream out,
+                final PrintStream err)
+        {
+            this.workingDirectory = workingDirectory;
+            this.environment = environment;
+            this.out = out;
+            this.err = err;
+        }
+    }
+
+    /**
+     * Standard output or error of the command run by the current thread, or
+     * else of the JVM.
+     */
+    private static final class RequestOutputStream extends OutputStream
+    {
+        private final PrintStream defaultStream;
+        private final boolean err;
+
+        private RequestOutputStream(final PrintStream defaultStream, final boolean err)
+        {
+            this.defaultStream = defaultStream;
+            this.err = err;
+        }
+
+        private PrintStream stream()
+        {
+            final Request request = REQUEST.get();
+            if (request == null)
+            {
+                return defaultStream;
+            }
+            return err ? request.err : request.out;
+        }
+
+        @Override
+        public void write(final int b)
+        {
+            stream().write(b);
+        }
+
+        @Override
+        public void write(final byte[] bytes, final int offset, final int length)
+        {
+            stream().write(bytes, offset, length);
+        }
+
+        @Override
+        public void flush()
+        {
+            stream().flush();
+        }
+    }
+
+    /**
+     * Sends what is written as frames of the given type.
+     */
+    private static final class FrameOutputStream extends OutputStream
+    {
+        private final DataOutputStream out;
+        private final byte type;
+
+        private FrameOutputStream(final DataOutputStream out, final byte type)
+        {
+            this.out = out;
+            this.type = type;
+        }
+
+        @Override
+        public void write(final int b) throws IOException
+        {
+            write(new byte[] { (byte) b }, 0, 1);
+        }
+
+        @Override
+        public void write(final byte[] bytes, final int offset, final int length) throws IOException
+        {
+            synchronized (out)
+            {
+                out.writeByte(type);
+                out.writeInt(length);
+                out.write(bytes, offset, length);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException
+        {
+            synchronized (out)
+            {
+                out.flush();
+            }
+        }
+    }
+
+    public static void main(final String[] args)
+    {
+        System.exit(Options.execute(OptionsDaemon.class, args).getValue());
+    }
+
+    /**
+     * @return the working directory of the client the current command runs
+     *         for, or else the current directory.
+     */
+    public static File getWorkingDirectory()
+    {
+        final Request request = REQUEST.get();
+        if (request == null)
+        {
+            return new File(System.getProperty("user.dir"));
+        }
+        return request.workingDirectory;
+    }
+
+    /**
+     * @return the environment of the client the current command runs for, or
+     *         else of the JVM.
+     */
+    public static Map<String, String> getEnvironment()
+    {
+        final Request request = REQUEST.get();
+        if (request == null)
+        {
+            return System.getenv();
+        }
+        return request.environment;
+    }
+
+    @Option(shortName = "p", longName = "port", description = "Listen on this port (any free port by default)")
+    @Argument(label = "PORT")
+    public void setPort(final int port)
+    {
+        Preconditions.checkArgument(port >= 0 && port <= 0xFFFF, "invalid port: %s", port);
+        this.port = port;
+    }
+
+    @Option(longName = "token-file", description = "Write the port and token for clients to this file")
+    @Argument(label = "FILE")
+    public void setTokenFile(final File tokenFile)
+    {
+        this.tokenFile = tokenFile;
+    }
+
+    @Option(shortName = "l", longName = "launcher", description = "Allow clients to run this launcher class",
+            required = true, multiple = true, bulk = true)
+    @Argument(label = "CLASS")
+    public void setLauncherClassNames(final List<String> launcherClassNames)
+    {
+        this.launcherClassNames.addAll(launcherClassNames);
+    }
+
+    @Option(shortName = "t", longName = "threads", description = "Run at most this many commands at once (16 by "
+            + "default)")
+    @Argument(label = "COUNT")
+    public void setThreads(final int threads)
+    {
+        Preconditions.checkArgument(threads > 0, "invalid number of threads: %s", threads);
+        this.threads = threads;
+    }
+
+    /**
+     * Starts listening in the background.
+     */
+    public synchronized void start() throws IOException
+    {
+        Preconditions.checkState(serverSocket == null, "already started");
+        installOutput();
+        final byte[] randomBytes = new byte[16];
+        new SecureRandom().nextBytes(randomBytes);
+        final StringBuilder hexToken = new StringBuilder();
+        for (final byte randomByte : randomBytes)
+        {
+            hexToken.append(Character.forDigit((randomByte >> 4) & 0xF, 16)).append(
+                    Character.forDigit(randomByte & 0xF, 16));
+        }
+        token = hexToken.toString().getBytes("UTF-8");
+
+        serverSocket = new ServerSocket(port, 50, InetAddress.getByName(null));
+        DaemonProtocol.writeTokenFile(tokenFile, serverSocket.getLocalPort(), hexToken.toString());
+        executor = new ThreadPoolExecutor(0, threads, 60, TimeUnit.SECONDS, new SynchronousQueue<Runnable>(),
+                new ThreadFactory()
+                {
+                    @Override
+                    public Thread newThread(final Runnable runnable)
+                    {
+                        final Thread thread = new Thread(runnable, "tc-opts-daemon");
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+        final ServerSocket acceptSocket = serverSocket;
+        acceptThread = new Thread("tc-opts-daemon-accept")
+        {
+            @Override
+            public void run()
+            {
+                accept(acceptSocket);
+            }
+        };
+        acceptThread.setDaemon(true);
+        acceptThread.start();
+    }
+
+    /**
+     * @return the port the daemon listens on.
+     */
+    public synchronized int getPort()
+    {
+        Preconditions.checkState(serverSocket != null, "not started");
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Starts the daemon and waits until it is closed.
+     */
+    @Override
+    public void run()
+    {
+        final Thread thread;
+        try
+        {
+            start();
+            thread = acceptThread;
+        }
+        catch (final IOException e)
+        {
+            throw new IllegalStateException(e);
+        }
+
+        try
+        {
+            thread.join();
+        }
+        catch (final InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException
+    {
+        if (serverSocket == null)
+        {
+            return;
+        }
+
+        executor.shutdownNow();
+        serverSocket.close();
+        serverSocket = null;
+        if (!tokenFile.delete() && tokenFile.exists())
+        {
+            throw new IOException("cannot delete " + tokenFile);
+        }
+    }
+
+    private static synchronized void installOutput()
+    {
+        if (!outputInstalled)
+        {
+            System.setOut(new PrintStream(new RequestOutputStream(System.out, false), true));
+            System.setErr(new PrintStream(new RequestOutputStream(System.err, true), true));
+            outputInstalled = true;
+        }
+    }
+
+    private void accept(final ServerSocket acceptSocket)
+    {
+        while (true)
+        {
+            final Socket socket;
+            try
+            {
+                socket = acceptSocket.accept();
+            }
+            catch (final IOException e)
+            {
+                // Closed
+                return;
+            }
+
+            try
+            {
+                executor.execute(new Runnable()
+                {
+                    @Override
+                    public void run()
+                    {
+                        handle(socket);
+                    }
+                });
+            }
+            catch (final RejectedExecutionException e)
+            {
+                // Busy, or closed
+                close(socket);
+            }
+        }
+    }
+
+    private void handle(final Socket socket)
+    {
+        try
+        {
+            socket.setSoTimeout(REQUEST_TIMEOUT);
+            final DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            if (in.readInt() != DaemonProtocol.MAGIC || in.readInt() != DaemonProtocol.VERSION
+                    || !MessageDigest.isEqual(DaemonProtocol.readString(in).getBytes("UTF-8"), token))
+            {
+                return;
+            }
+
+            final String launcherClassName = DaemonProtocol.readString(in);
+            final File workingDirectory = new File(DaemonProtocol.readString(in));
+            final Map<String, String> environment = new HashMap<String, String>();
+            for (int i = DaemonProtocol.readLength(in); i > 0; i--)
+            {
+                environment.put(DaemonProtocol.readString(in), DaemonProtocol.readString(in));
+            }
+            final String[] args = new String[DaemonProtocol.readLength(in)];
+            for (int i = 0; i < args.length; i++)
+            {
+                args[i] = DaemonProtocol.readString(in);
+            }
+            socket.setSoTimeout(0);
+
+            final PrintStream requestOut = new PrintStream(new BufferedOutputStream(new FrameOutputStream(out,
+                    DaemonProtocol.STDOUT)), true);
+            final PrintStream requestErr = new PrintStream(new BufferedOutputStream(new FrameOutputStream(out,
+                    DaemonProtocol.STDERR)), true);
+            final int exitCode;
+            REQUEST.set(new Request(workingDirectory, Collections.unmodifiableMap(environment), requestOut,
+                    requestErr));
+            try
+            {
+                exitCode = execute(launcherClassName, workingDirectory, args, requestErr);
+            }
+            finally
+            {
+                REQUEST.remove();
+                requestOut.flush();
+                requestErr.flush();
+            }
+
+            synchronized (out)
+            {
+                out.writeByte(DaemonProtocol.EXIT);
+                out.writeInt(exitCode);
+                out.flush();
+            }
+        }
+        catch (final IOException e)
+        {
+            // Malformed request or the client went away
+        }
+        finally
+        {
+            close(socket);
+        }
+    }
+
+    private static void close(final Socket socket)
+    {
+        try
+        {
+            socket.close();
+        }
+        catch (final IOException e)
+        {
+            // Already closed
+        }
+    }
+
+    /**
+     * @return the exit code of the command.
+     */
+    private int execute(final String launcherClassName, final File workingDirectory, final String[] args,
+            final PrintStream err)
+    {
+        if (!launcherClassNames.contains(launcherClassName))
+        {
+            err.println("launcher not allowed by the daemon: " + launcherClassName);
+            return 2;
+        }
+
+        try
+        {
+            final Class<? extends Runnable> launcherClass = Class.forName(launcherClassName, true,
+                    OptionsDaemon.class.getClassLoader()).asSubclass(Runnable.class);
+            return Options.execute(launcherClass, null, workingDirectory, args).getValue();
+        }
+        catch (final CommandLineException e)
+        {
+            e.printStackTrace(err);
+            return e.exitCode();
+        }
+        catch (final Throwable e)
+        {
+            // Errors too, so that the client always gets an exit code
+            e.printStackTrace(err);
+            return 1;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright 2026 Herve Quiroz
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.trancecode.opts;
+
+/**
+ * Invokes the method behind an {@link Option} taking a single primitive
+ * parameter, without boxing the parameter.
+ * 
+ * @author Herve Quiroz
+ */
+interface PrimitiveOptionInvoker
+{
+    /**
+     * @param value
+     *            the parameter, as encoded by
+     *            {@link PrimitiveParameter#convert(String)}.
+     * @return the value returned by the option method, or {@code null} if it
+     *         returns {@code void}.
+     */
+    Object invoke(Object launcher, long value) throws Exception;
+}
@@ -0,0 +1,245 @@
+/*
+ * Copyright 2026 Herve Quiroz
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.trancecode.opts;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.trancecode.opts.converter.StringConverters;
+
+/**
+ * Primitive parameter types, each converted to a {@code long} so that all
+ * primitive option arguments can be stored and passed around without boxing.
+ * Floating-point values are stored as their raw bits.
+ * 
+ * @author Herve Quiroz
+ */
+enum PrimitiveParameter
+{
+    BOOLEAN(Boolean.TYPE)
+    {
+        @Override
+        long convert(final String string)
+        {
+            return StringConverters.convertToBoolean(string) ? 1 : 0;
+        }
+
+        @Override
+        Object toArray(final long[] values, final int size)
+        {
+            final boolean[] array = new boolean[size];
+            for (int i = 0; i < size; i++)
+            {
+                array[i] = values[i] != 0;
+            }
+            return array;
+        }
+
+        @Override
+        <T extends Runnable> Object invoke(final GeneratedCommand<T> command, final T launcher, final int option,
+                final long value) throws Exception
+        {
+            return command.invokeBoolean(launcher, option, value != 0);
+        }
+    },
+    BYTE(Byte.TYPE)
+    {
+        @Override
+        long convert(final String string)
+        {
+            return StringConverters.convertToByte(string);
+        }
+
+        @Override
+        Object toArray(final long[] values, final int size)
+        {
+            final byte[] array = new byte[size];
+            for (int i = 0; i < size; i++)
+            {
+                array[i] = (byte) values[i];
+            }
+            return array;
+        }
+    },
+    CHAR(Character.TYPE)
+    {
+        @Override
+        long convert(final String string)
+        {
+            return StringConverters.convertToChar(string);
+        }
+
+        @Override
+        Object toArray(final long[] values, final int size)
+        {
+            final char[] array = new char[size];
+            for (int i = 0; i < size; i++)
+            {
+                array[i] = (char) values[i];
+            }
+            return array;
+        }
+    },
+    DOUBLE(Double.TYPE)
+    {
+        @Override
+        long convert(final String string)
+        {
+            return Double.doubleToRawLongBits(StringConverters.convertToDouble(string));
+        }
+
+        @Override
+        Object toArray(final long[] values, final int size)
+        {
+            final double[] array = new double[size];
+            for (int i = 0; i < size; i++)
+            {
+                array[i] = Double.longBitsToDouble(values[i]);
+            }
+            return array;
+        }
+
+        @Override
+        <T extends Runnable> Object invoke(final GeneratedCommand<T> command, final T launcher, final int option,
+                final long value) throws Exception
+        {
+            return command.invokeDouble(launcher, option, Double.longBitsToDouble(value));
+        }
+    },
+    FLOAT(Float.TYPE)
+    {
+        @Override
+        long convert(final String string)
+        {
+            return Double.doubleToRawLongBits(StringConverters.convertToFloat(string));
+        }
+
+        @Override
+        Object toArray(final long[] values, final int size)
+        {
+            final float[] array = new float[size];
+            for (int i = 0; i < size; i++)
+            {
+                array[i] = (float) Double.longBitsToDouble(values[i]);
+            }
+            return array;
+        }
+
+        @Override
+        <T extends Runnable> Object invoke(final GeneratedCommand<T> command, final T launcher, final int option,
+                final long value) throws Exception
+        {
+            return command.invokeDouble(launcher, option, Double.longBitsToDouble(value));
+        }
+    },
+    INT(Integer.TYPE)
+    {
+        @Override
+        long convert(final String string)
+        {
+            return StringConverters.convertToInt(string);
+        }
+
+        @Override
+        Object toArray(final long[] values, final int size)
+        {
+            final int[] array = new int[size];
+            for (int i = 0; i < size; i++)
+            {
+                array[i] = (int) values[i];
+            }
+            return array;
+        }
+    },
+    LONG(Long.TYPE)
+    {
+        @Override
+        long convert(final String string)
+        {
+            return StringConverters.convertToLong(string);
+        }
+
+        @Override
+        Object toArray(final long[] values, final int size)
+        {
+            return Arrays.copyOf(values, size);
+        }
+    },
+    SHORT(Short.TYPE)
+    {
+        @Override
+        long convert(final String string)
+        {
+            return StringConverters.convertToShort(string);
+        }
+
+        @Override
+        Object toArray(final long[] values, final int size)
+        {
+            final short[] array = new short[size];
+            for (int i = 0; i < size; i++)
+            {
+                array[i] = (short) values[i];
+            }
+            return array;
+        }
+    };
+
+    private static final Map<Class<?>, PrimitiveParameter> PARAMETERS = new HashMap<Class<?>, PrimitiveParameter>();
+
+    static
+    {
+        for (final PrimitiveParameter parameter : values())
+        {
+            PARAMETERS.put(parameter.type, parameter);
+        }
+    }
+
+    private final Class<?> type;
+
+    private PrimitiveParameter(final Class<?> type)
+    {
+        this.type = type;
+    }
+
+    /**
+     * @return the parameter for the given primitive type, or {@code null} if
+     *         the type is not primitive.
+     */
+    static PrimitiveParameter forType(final Class<?> type)
+    {
+        return PARAMETERS.get(type);
+    }
+
+    abstract long convert(String string);
+
+    /**
+     * @return an array of this primitive type holding the first {@code size}
+     *         values.
+     */
+    abstract Object toArray(long[] values, int size);
+
+    /**
+     * Integral values are passed to
+     * {@link GeneratedCommand#invokeLong(Runnable, int, long)} by default.
+     */
+    <T extends Runnable> Object invoke(final GeneratedCommand<T> command, final T launcher, final int option,
+            final long value) throws Exception
+    {
+        return command.invokeLong(launcher, option, value);
+    }
+}
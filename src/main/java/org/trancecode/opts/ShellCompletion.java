@@ -0,0 +1,374 @@
+/*
+ * Copyright 2026 Herve Quiroz
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.trancecode.opts;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.URI;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Writes bash and zsh completion scripts for a launcher class, so that
+ * completing a command-line does not start a JVM:
+ * 
+ * <pre>
+ * java -cp ... org.trancecode.opts.ShellCompletion --launcher CLASS --name NAME --shell bash
+ * </pre>
+ * 
+ * Scripts complete option names, file names for {@link File}, {@link URL} and
+ * {@link URI} arguments, and {@code true} or {@code false} for
+ * {@code boolean} arguments. zsh also displays the descriptions of the options
+ * and the {@link Argument} labels.
+ * 
+ * @author Herve Quiroz
+ */
+@Command("java -cp ... org.trancecode.opts.ShellCompletion --launcher CLASS --name NAME")
+public final class ShellCompletion extends AbstractLauncher implements Runnable
+{
+    private String launcherClassName;
+    private String commandName;
+    private String shell = "bash";
+    private File output;
+
+    public static void main(final String[] args)
+    {
+        System.exit(Options.execute(ShellCompletion.class, args).getValue());
+    }
+
+    @Option(shortName = "l", longName = "launcher", description = "Complete the options of this launcher class",
+            required = true)
+    @Argument(label = "CLASS")
+    public void setLauncherClassName(final String launcherClassName)
+    {
+        this.launcherClassName = launcherClassName;
+    }
+
+    @Option(shortName = "n", longName = "name", description = "Complete this command name", required = true)
+    @Argument(label = "NAME")
+    public void setCommandName(final String commandName)
+    {
+        checkCommandName(commandName);
+        this.commandName = commandName;
+    }
+
+    @Option(shortName = "s", longName = "shell", description = "Write a script for this shell (bash by default)")
+    @Argument(label = "bash|zsh", pattern = "(bash|zsh)")
+    public void setShell(final String shell)
+    {
+        this.shell = shell;
+    }
+
+    @Option(shortName = "o", longName = "output", description = "Write the script to this file")
+    @Argument(label = "FILE")
+    public void setOutput(final File output)
+    {
+        this.output = output;
+    }
+
+    @Override
+    public void run()
+    {
+        try
+        {
+            final Class<?> launcherClass = Class.forName(launcherClassName, true,
+                    ShellCompletion.class.getClassLoader());
+            final Writer out = new OutputStreamWriter(output != null ? new FileOutputStream(output) : System.out,
+                    "UTF-8");
+            try
+            {
+                if (shell.equals("zsh"))
+                {
+                    writeZshScript(launcherClass, commandName, out);
+                }
+                else
+                {
+                    writeBashScript(launcherClass, commandName, out);
+                }
+            }
+            finally
+            {
+                if (output != null)
+                {
+                    out.close();
+                }
+                else
+                {
+                    out.flush();
+                }
+            }
+        }
+        catch (final ClassNotFoundException e)
+        {
+            throw new IllegalArgumentException("launcher class not found: " + launcherClassName, e);
+        }
+        catch (final IOException e)
+        {
+            throw new IllegalStateException("cannot write completion script: " + e.getMessage(), e);
+        }
+    }
+
+    private static void checkCommandName(final String commandName)
+    {
+        Preconditions.checkArgument(commandName.matches("[a-zA-Z0-9._+-]+"), "invalid command name: %s",
+                commandName);
+    }
+
+    private static List<OptionModel> getOptions(final Class<?> launcherClass)
+    {
+        final List<OptionModel> options = new ArrayList<OptionModel>(CommandModel.get(launcherClass).options());
+        Collections.sort(options, Options.OPTION_NAME_ORDER);
+        return options;
+    }
+
+    /**
+     * @return the type the argument of the option is converted to, or
+     *         {@code null} if the argument is split into several parameters.
+     */
+    private static Class<?> getArgumentType(final OptionModel option)
+    {
+        if (option.parameterTypes().length != 1)
+        {
+            return null;
+        }
+        if (option.isBulk())
+        {
+            return option.bulkParameter().elementType();
+        }
+        if (option.lazyType(0) != null)
+        {
+            return option.lazyType(0);
+        }
+        return option.parameterTypes()[0];
+    }
+
+    private static boolean isFileArgument(final OptionModel option)
+    {
+        final Class<?> type = getArgumentType(option);
+        return type == File.class || type == URL.class || type == URI.class;
+    }
+
+    private static boolean isBooleanArgument(final OptionModel option)
+    {
+        final Class<?> type = getArgumentType(option);
+        return type == Boolean.TYPE || type == Boolean.class;
+    }
+
+    /**
+     * @return the names of the option, as written on the command-line.
+     */
+    private static List<String> getNames(final OptionModel option)
+    {
+        final List<String> names = new ArrayList<String>(2);
+        if (!option.shortName().isEmpty())
+        {
+            names.add("-" + option.shortName());
+        }
+        if (!option.longName().isEmpty())
+        {
+            names.add("--" + option.longName());
+        }
+        return names;
+    }
+
+    private static String getFunctionName(final String commandName)
+    {
+        return "_tc_opts_" + commandName.replaceAll("[^a-zA-Z0-9_]", "_");
+    }
+
+    /**
+     * Writes a script to source from {@code .bashrc}, or to install in the
+     * {@code bash-completion} directory.
+     */
+    public static void writeBashScript(final Class<?> launcherClass, final String commandName, final Appendable out)
+            throws IOException
+    {
+        Preconditions.checkNotNull(out);
+        checkCommandName(commandName);
+        final List<OptionModel> options = getOptions(launcherClass);
+        final String functionName = getFunctionName(commandName);
+
+        out.append("# bash completion for ").append(commandName).append(", generated by tc-opts from ")
+                .append(launcherClass.getName()).append("\n\n");
+        out.append(functionName).append("()\n{\n");
+        out.append("    local cur=\"${COMP_WORDS[COMP_CWORD]}\"\n");
+        out.append("    local prev=\"${COMP_WORDS[COMP_CWORD-1]}\"\n");
+        // --name=value is split around '='
+        out.append("    if [[ \"$cur\" == \"=\" ]]\n    then\n        cur=\n");
+        out.append("    elif [[ \"$prev\" == \"=\" ]]\n    then\n        prev=\"${COMP_WORDS[COMP_CWORD-2]}\"\n");
+        out.append("    fi\n\n");
+
+        out.append("    case \"$prev\" in\n");
+        for (final OptionModel option : options)
+        {
+            if (!option.hasParameters())
+            {
+                continue;
+            }
+            out.append("        ");
+            appendJoined(getNames(option), "|", out);
+            out.append(")\n");
+            if (isFileArgument(option))
+            {
+                out.append("            compopt -o filenames 2>/dev/null\n");
+                out.append("            COMPREPLY=($(compgen -f -- \"$cur\"))\n");
+            }
+            else if (isBooleanArgument(option))
+            {
+                out.append("            COMPREPLY=($(compgen -W \"true false\" -- \"$cur\"))\n");
+            }
+            else
+            {
+                out.append("            COMPREPLY=()\n");
+            }
+            out.append("            return 0\n            ;;\n");
+        }
+        out.append("    esac\n\n");
+
+        out.append("    if [[ \"$cur\" == @* ]]\n    then\n");
+        out.append("        compopt -o filenames 2>/dev/null\n");
+        out.append("        COMPREPLY=($(compgen -f -P @ -- \"${cur#@}\"))\n");
+        out.append("        return 0\n    fi\n\n");
+
+        out.append("    COMPREPLY=($(compgen -W \"");
+        final List<String> names = new ArrayList<String>();
+        for (final OptionModel option : options)
+        {
+            names.addAll(getNames(option));
+        }
+        appendJoined(names, " ", out);
+        out.append("\" -- \"$cur\"))\n}\n\n");
+        out.append("complete -F ").append(functionName).append(' ').append(commandName).append('\n');
+    }
+
+    /**
+     * Writes a script to install as {@code _NAME} in a directory of the
+     * {@code fpath}. Short names can be grouped and {@code --} ends the
+     * options, the same way as on the command-line.
+     */
+    public static void writeZshScript(final Class<?> launcherClass, final String commandName, final Appendable out)
+            throws IOException
+    {
+        Preconditions.checkNotNull(out);
+        checkCommandName(commandName);
+        final List<OptionModel> options = getOptions(launcherClass);
+
+        out.append("#compdef ").append(commandName).append("\n\n");
+        out.append("# zsh completion for ").append(commandName).append(", generated by tc-opts from ")
+                .append(launcherClass.getName()).append("\n\n");
+        out.append("_arguments -s -S");
+        for (final OptionModel option : options)
+        {
+            out.append(" \\\n  ");
+            final List<String> names = getNames(option);
+            if (option.multiple())
+            {
+                out.append("'*'");
+            }
+            else if (names.size() > 1)
+            {
+                out.append("'(");
+                appendJoined(names, " ", out);
+                out.append(")'");
+            }
+
+            final List<String> specNames = new ArrayList<String>(names.size());
+            for (final String name : names)
+            {
+                if (!option.hasParameters())
+                {
+                    specNames.add(name);
+                }
+                else if (name.startsWith("--"))
+                {
+                    // Value after '=' or in the next word
+                    specNames.add(name + "=");
+                }
+                else
+                {
+                    // Value in the same word or in the next one
+                    specNames.add(name + "+");
+                }
+            }
+            if (specNames.size() > 1)
+            {
+                out.append('{');
+                appendJoined(specNames, ",", out);
+                out.append('}');
+            }
+            else
+            {
+                out.append(specNames.get(0));
+            }
+
+            out.append("'[").append(quoteZsh(escapeZshSpec(option.description()))).append(']');
+            if (option.hasParameters())
+            {
+                out.append(':').append(quoteZsh(escapeZshSpec(option.label()))).append(':');
+                if (isFileArgument(option))
+                {
+                    out.append("_files");
+                }
+                else if (isBooleanArgument(option))
+                {
+                    out.append("(true false)");
+                }
+                else
+                {
+                    out.append(' ');
+                }
+            }
+            out.append('\'');
+        }
+        out.append('\n');
+    }
+
+    private static void appendJoined(final List<String> strings, final String separator, final Appendable out)
+            throws IOException
+    {
+        for (int i = 0; i < strings.size(); i++)
+        {
+            if (i > 0)
+            {
+                out.append(separator);
+            }
+            out.append(strings.get(i));
+        }
+    }
+
+    /**
+     * Escapes the characters that delimit the parts of an {@code _arguments}
+     * option specification.
+     */
+    private static String escapeZshSpec(final String string)
+    {
+        return string.replace("\\", "\\\\").replace("[", "\\[").replace("]", "\\]").replace(":", "\\:")
+                .replace("\n", " ");
+    }
+
+    /**
+     * @return the string to write within single quotes.
+     */
+    private static String quoteZsh(final String string)
+    {
+        return string.replace("'", "'\\''");
+    }
+}
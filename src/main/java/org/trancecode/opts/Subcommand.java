@@ -0,0 +1,48 @@
+/*
+ * Copyright 2026 Herve Quiroz
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.trancecode.opts;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares a launcher class as a subcommand of another one, selected by its
+ * name on the command-line of the parent command:
+ * 
+ * <pre>
+ * tool [GLOBAL OPTION...] NAME [OPTION...]
+ * </pre>
+ * 
+ * The subcommand class extends the parent class, which holds the global
+ * options, and has its own {@link Command} annotation.
+ * {@code tc-opts-processor} writes the subcommands of each parent class to an
+ * index, so that only the selected subcommand is loaded (see
+ * {@link Options#execute(Class, String...)}).
+ * 
+ * @author Herve Quiroz
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface Subcommand
+{
+    Class<? extends Runnable> parent();
+
+    String name();
+}
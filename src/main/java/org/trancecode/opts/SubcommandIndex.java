@@ -0,0 +1,160 @@
+/*
+ * Copyright 2026 Herve Quiroz
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.trancecode.opts;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The {@link Subcommand} classes of a launcher class, read from the
+ * {@value #RESOURCE_PREFIX}<i>launcher class name</i> resources without
+ * loading any of them.
+ * <p>
+ * Each line of an index holds the name of a subcommand followed by the name
+ * of its class, separated by whitespace. Comments start with {@code #}.
+ * Several modules can add subcommands to the same launcher class.
+ * 
+ * @author Herve Quiroz
+ */
+final class SubcommandIndex
+{
+    static final String RESOURCE_PREFIX = "META-INF/tc-opts/subcommands/";
+
+    private static final SubcommandIndex EMPTY = new SubcommandIndex(null, Collections.<String, String> emptyMap());
+
+    private final Class<?> launcherClass;
+    private final Map<String, String> classNames;
+
+    static SubcommandIndex load(final Class<?> launcherClass)
+    {
+        final ClassLoader classLoader = launcherClass.getClassLoader();
+        if (classLoader == null)
+        {
+            return EMPTY;
+        }
+
+        final String resourceName = RESOURCE_PREFIX + launcherClass.getName();
+        final Map<String, String> classNames = new LinkedHashMap<String, String>();
+        try
+        {
+            final Enumeration<URL> resources = classLoader.getResources(resourceName);
+            while (resources.hasMoreElements())
+            {
+                final BufferedReader reader = new BufferedReader(new InputStreamReader(resources.nextElement()
+                        .openStream(), "UTF-8"));
+                try
+                {
+                    for (String line = reader.readLine(); line != null; line = reader.readLine())
+                    {
+                        readLine(line, classNames, resourceName);
+                    }
+                }
+                finally
+                {
+                    reader.close();
+                }
+            }
+        }
+        catch (final IOException e)
+        {
+            throw new IllegalStateException("cannot read " + resourceName, e);
+        }
+
+        if (classNames.isEmpty())
+        {
+            return EMPTY;
+        }
+        return new SubcommandIndex(launcherClass, classNames);
+    }
+
+    private static void readLine(final String line, final Map<String, String> classNames,
+            final String resourceName)
+    {
+        final int commentIndex = line.indexOf('#');
+        final String content = (commentIndex >= 0 ? line.substring(0, commentIndex) : line).trim();
+        if (content.isEmpty())
+        {
+            return;
+        }
+
+        int separatorIndex = 0;
+        while (separatorIndex < content.length() && !Character.isWhitespace(content.charAt(separatorIndex)))
+        {
+            separatorIndex++;
+        }
+        final String name = content.substring(0, separatorIndex);
+        final String className = content.substring(separatorIndex).trim();
+        Preconditions.checkState(!className.isEmpty(), "missing a class name for subcommand %s in %s", name,
+                resourceName);
+        final String previousClassName = classNames.put(name, className);
+        Preconditions.checkState(previousClassName == null || previousClassName.equals(className),
+                "duplicate subcommand %s in %s: %s and %s", name, resourceName, previousClassName, className);
+    }
+
+    private SubcommandIndex(final Class<?> launcherClass, final Map<String, String> classNames)
+    {
+        this.launcherClass = launcherClass;
+        this.classNames = Collections.unmodifiableMap(classNames);
+    }
+
+    boolean isEmpty()
+    {
+        return classNames.isEmpty();
+    }
+
+    /**
+     * @return the names of the subcommands, in class path order.
+     */
+    Set<String> names()
+    {
+        return classNames.keySet();
+    }
+
+    /**
+     * Loads the class of the subcommand with the given name.
+     * 
+     * @return the subcommand class, or {@code null} if there is no such
+     *         subcommand.
+     */
+    Class<? extends Runnable> getSubcommandClass(final String name)
+    {
+        final String className = classNames.get(name);
+        if (className == null)
+        {
+            return null;
+        }
+
+        final Class<?> subcommandClass;
+        try
+        {
+            subcommandClass = Class.forName(className, true, launcherClass.getClassLoader());
+        }
+        catch (final ClassNotFoundException e)
+        {
+            throw new IllegalStateException("class not found for subcommand " + name + ": " + className, e);
+        }
+        Preconditions.checkState(launcherClass.isAssignableFrom(subcommandClass), "subcommand %s does not extend %s",
+                subcommandClass.getName(), launcherClass.getName());
+        return subcommandClass.asSubclass(Runnable.class);
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2026 Herve Quiroz
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.trancecode.opts;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Keeps the values of a {@link ClassCache} in a concurrent map weakly keyed by
+ * class, for JVMs without {@code ClassValue}. Entries of unloaded classes are
+ * purged when a value is added.
+ * 
+ * @author Herve Quiroz
+ */
+final class WeakClassStore<V> implements ClassStore<V>
+{
+    private final ClassCache<V> cache;
+    private final ConcurrentMap<Key, V> values = new ConcurrentHashMap<Key, V>();
+    private final ReferenceQueue<Class<?>> queue = new ReferenceQueue<Class<?>>();
+
+    WeakClassStore(final ClassCache<V> cache)
+    {
+        this.cache = Preconditions.checkNotNull(cache);
+    }
+
+    @Override
+    public V get(final Class<?> type)
+    {
+        final V value = values.get(new Key(type, null));
+        if (value != null)
+        {
+            return value;
+        }
+
+        purge();
+        final V newValue = Preconditions.checkNotNull(cache.compute(type));
+        final V existingValue = values.putIfAbsent(new Key(type, queue), newValue);
+        if (existingValue != null)
+        {
+            return existingValue;
+        }
+        return newValue;
+    }
+
+    private void purge()
+    {
+        for (Reference<? extends Class<?>> key = queue.poll(); key != null; key = queue.poll())
+        {
+            values.remove(key);
+        }
+    }
+
+    /**
+     * Compares classes by identity, including once cleared so that purged keys
+     * still find their entry.
+     */
+    private static final class Key extends WeakReference<Class<?>>
+    {
+        private final int hashCode;
+
+        Key(final Class<?> type, final ReferenceQueue<Class<?>> queue)
+        {
+            super(type, queue);
+            hashCode = System.identityHashCode(type);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(final Object o)
+        {
+            if (o == this)
+            {
+                return true;
+            }
+            if (!(o instanceof Key))
+            {
+                return false;
+            }
+            final Class<?> type = get();
+            return type != null && type == ((Key) o).get();
+        }
+    }
+}
@@ -0,0 +1,226 @@
+/*
+ * Copyright 2026 Herve Quiroz
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.trancecode.opts.converter;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Source types of the {@link StringConverter} implementations available on
+ * the class path, read from {@value #INDEX_RESOURCE} files without loading
+ * any converter or source type class.
+ * <p>
+ * Each line of an index file holds the name of a converter class followed by
+ * the names (as returned by {@link Class#getName()}) of the types it supports,
+ * separated by whitespace. Comments start with {@code #}.
+ * <p>
+ * A type name can be followed by a colon and the comma-separated names of its
+ * supertypes, other than {@link Object}, so that resolving a converter for a
+ * supertype does not load the types that do not extend it:
+ * 
+ * <pre>
+ * com.example.ColorStringConverter com.example.Color:com.example.Paint,java.io.Serializable
+ * </pre>
+ * 
+ * @author Herve Quiroz
+ */
+final class ConverterIndex
+{
+    static final String INDEX_RESOURCE = "META-INF/tc-opts/converters";
+    private static final String SERVICE_RESOURCE = "META-INF/services/" + StringConverter.class.getName();
+
+    private final Map<String, String> converterNames;
+    private final Map<String, Set<String>> supertypeNames;
+    private final List<String> unindexedConverterNames;
+
+    static ConverterIndex load(final ClassLoader classLoader)
+    {
+        final Map<String, String> converterNames = new LinkedHashMap<String, String>();
+        final Map<String, Set<String>> supertypeNames = new HashMap<String, Set<String>>();
+        for (final List<String> tokens : readLines(classLoader, INDEX_RESOURCE))
+        {
+            for (final String token : tokens.subList(1, tokens.size()))
+            {
+                final int colonIndex = token.indexOf(':');
+                if (colonIndex < 0)
+                {
+                    converterNames.put(token, tokens.get(0));
+                }
+                else
+                {
+                    final String typeName = token.substring(0, colonIndex);
+                    converterNames.put(typeName, tokens.get(0));
+                    supertypeNames.put(typeName, splitSupertypeNames(token.substring(colonIndex + 1)));
+                }
+            }
+        }
+
+        final List<String> unindexedConverterNames = new ArrayList<String>();
+        for (final List<String> tokens : readLines(classLoader, SERVICE_RESOURCE))
+        {
+            final String converterName = tokens.get(0);
+            if (!converterNames.containsValue(converterName) && !unindexedConverterNames.contains(converterName))
+            {
+                unindexedConverterNames.add(converterName);
+            }
+        }
+
+        return new ConverterIndex(converterNames, supertypeNames, unindexedConverterNames);
+    }
+
+    /**
+     * Splits a comma-separated list of supertype names.
+     */
+    private static Set<String> splitSupertypeNames(final String names)
+    {
+        final Set<String> supertypeNames = new HashSet<String>();
+        int start = 0;
+        for (int end = names.indexOf(','); end >= 0; end = names.indexOf(',', start))
+        {
+            supertypeNames.add(names.substring(start, end));
+            start = end + 1;
+        }
+        supertypeNames.add(names.substring(start));
+
+        return Collections.unmodifiableSet(supertypeNames);
+    }
+
+    /**
+     * @return the whitespace-separated tokens of each non-empty line of all
+     *         the resources with the given name.
+     */
+    private static List<List<String>> readLines(final ClassLoader classLoader, final String resourceName)
+    {
+        final List<List<String>> lines = new ArrayList<List<String>>();
+        try
+        {
+            final Enumeration<URL> resources = classLoader.getResources(resourceName);
+            while (resources.hasMoreElements())
+            {
+                final BufferedReader reader = new BufferedReader(new InputStreamReader(resources.nextElement()
+                        .openStream(), "UTF-8"));
+                try
+                {
+                    for (String line = reader.readLine(); line != null; line = reader.readLine())
+                    {
+                        final List<String> tokens = getTokens(line);
+                        if (!tokens.isEmpty())
+                        {
+                            lines.add(tokens);
+                        }
+                    }
+                }
+                finally
+                {
+                    reader.close();
+                }
+            }
+        }
+        catch (final IOException e)
+        {
+            throw new IllegalStateException("cannot read " + resourceName, e);
+        }
+
+        return lines;
+    }
+
+    /**
+     * Splits a line on whitespace without {@link String#split(String)}, so
+     * that reading the index does not load the regular expression classes.
+     */
+    private static List<String> getTokens(final String line)
+    {
+        final List<String> tokens = new ArrayList<String>();
+        final int commentIndex = line.indexOf('#');
+        final int end = commentIndex >= 0 ? commentIndex : line.length();
+        int start = -1;
+        for (int i = 0; i < end; i++)
+        {
+            if (Character.isWhitespace(line.charAt(i)))
+            {
+                if (start >= 0)
+                {
+                    tokens.add(line.substring(start, i));
+                    start = -1;
+                }
+            }
+            else if (start < 0)
+            {
+                start = i;
+            }
+        }
+        if (start >= 0)
+        {
+            tokens.add(line.substring(start, end));
+        }
+
+        return tokens;
+    }
+
+    private ConverterIndex(final Map<String, String> converterNames, final Map<String, Set<String>> supertypeNames,
+            final List<String> unindexedConverterNames)
+    {
+        this.converterNames = Collections.unmodifiableMap(converterNames);
+        this.supertypeNames = Collections.unmodifiableMap(supertypeNames);
+        this.unindexedConverterNames = Collections.unmodifiableList(unindexedConverterNames);
+    }
+
+    /**
+     * @return the name of the converter class for the given type name, or
+     *         {@code null} if the type is not indexed.
+     */
+    String getConverterName(final String typeName)
+    {
+        return converterNames.get(typeName);
+    }
+
+    /**
+     * @return the indexed type names, in class path order.
+     */
+    Iterable<String> getTypeNames()
+    {
+        return converterNames.keySet();
+    }
+
+    /**
+     * @return the names of the supertypes of the given type, {@link Object}
+     *         excepted, or {@code null} if they are not indexed.
+     */
+    Set<String> getSupertypeNames(final String typeName)
+    {
+        return supertypeNames.get(typeName);
+    }
+
+    /**
+     * @return the names of the converter classes registered as services but
+     *         missing from the index.
+     */
+    List<String> getUnindexedConverterNames()
+    {
+        return unindexedConverterNames;
+    }
+}
@@ -15,13 +15,106 @@
  */
 package org.trancecode.opts.converter;
 
-import org.trancecode.opts.Preconditions;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * @author Herve Quiroz
  */
-public final class PrimitiveStringConverter extends AbstractStringConverter
+public final class PrimitiveStringConverter extends AbstractStringConverter implements BooleanStringConverter,
+        ByteStringConverter, CharStringConverter, DoubleStringConverter, FloatStringConverter, IntStringConverter,
+        LongStringConverter, ShortStringConverter
 {
+    private static final Map<Class<?>, Primitive> PRIMITIVES = new HashMap<Class<?>, Primitive>();
+
+    private enum Primitive
+    {
+        BOOLEAN(Boolean.TYPE, Boolean.class)
+        {
+            @Override
+            Object convert(final PrimitiveStringConverter converter, final String string)
+            {
+                return converter.convertToBoolean(string);
+            }
+        },
+        BYTE(Byte.TYPE, Byte.class)
+        {
+            @Override
+            Object convert(final PrimitiveStringConverter converter, final String string)
+            {
+                return converter.convertToByte(string);
+            }
+        },
+        CHAR(Character.TYPE, Character.class)
+        {
+            @Override
+            Object convert(final PrimitiveStringConverter converter, final String string)
+            {
+                return converter.convertToChar(string);
+            }
+        },
+        DOUBLE(Double.TYPE, Double.class)
+        {
+            @Override
+            Object convert(final PrimitiveStringConverter converter, final String string)
+            {
+                return converter.convertToDouble(string);
+            }
+        },
+        FLOAT(Float.TYPE, Float.class)
+        {
+            @Override
+            Object convert(final PrimitiveStringConverter converter, final String string)
+            {
+                return converter.convertToFloat(string);
+            }
+        },
+        INT(Integer.TYPE, Integer.class)
+        {
+            @Override
+            Object convert(final PrimitiveStringConverter converter, final String string)
+            {
+                return converter.convertToInt(string);
+            }
+        },
+        LONG(Long.TYPE, Long.class)
+        {
+            @Override
+            Object convert(final PrimitiveStringConverter converter, final String string)
+            {
+                return converter.convertToLong(string);
+            }
+        },
+        SHORT(Short.TYPE, Short.class)
+        {
+            @Override
+            Object convert(final PrimitiveStringConverter converter, final String string)
+            {
+                return converter.convertToShort(string);
+            }
+        };
+
+        private final Class<?> primitiveType;
+        private final Class<?> wrapperType;
+
+        private Primitive(final Class<?> primitiveType, final Class<?> wrapperType)
+        {
+            this.primitiveType = primitiveType;
+            this.wrapperType = wrapperType;
+        }
+
+        abstract Object convert(PrimitiveStringConverter converter, String string);
+    }
+
+    static
+    {
+        for (final Primitive primitive : Primitive.values())
+        {
+            PRIMITIVES.put(primitive.primitiveType, primitive);
+            PRIMITIVES.put(primitive.wrapperType, primitive);
+        }
+    }
+
     public PrimitiveStringConverter()
     {
         super(Boolean.TYPE, Boolean.class, Byte.TYPE, Byte.class, Character.TYPE, Character.class, Double.TYPE,
@@ -32,47 +125,64 @@ public final class PrimitiveStringConverter extends AbstractStringConverter
     @Override
     public Object convert(final String string, final Class<?> type)
     {
-        if (type.equals(Boolean.TYPE) || type.equals(Boolean.class))
+        final Primitive primitive = PRIMITIVES.get(type);
+        if (primitive == null)
         {
-            return Boolean.parseBoolean(string);
+            throw new IllegalArgumentException("unsupported type: " + type.getName());
         }
 
-        if (type.equals(Byte.TYPE) || type.equals(Byte.class))
-        {
-            return Byte.parseByte(string);
-        }
+        return primitive.convert(this, string);
+    }
 
-        if (type.equals(Character.TYPE) || type.equals(Character.class))
-        {
-            Preconditions.checkArgument(string.length() == 1, "string is too long: %s", string);
-            return string.charAt(0);
-        }
+    @Override
+    public boolean convertToBoolean(final String string)
+    {
+        return Boolean.parseBoolean(string);
+    }
 
-        if (type.equals(Double.TYPE) || type.equals(Double.class))
-        {
-            return Double.parseDouble(string);
-        }
+    @Override
+    public byte convertToByte(final String string)
+    {
+        return Byte.parseByte(string);
+    }
 
-        if (type.equals(Float.TYPE) || type.equals(Float.class))
+    @Override
+    public char convertToChar(final String string)
+    {
+        if (string.length() != 1)
         {
-            return Float.parseFloat(string);
+            throw new IllegalArgumentException("string is too long: " + string);
         }
+        return string.charAt(0);
+    }
 
-        if (type.equals(Integer.TYPE) || type.equals(Integer.class))
-        {
-            return Integer.parseInt(string);
-        }
+    @Override
+    public double convertToDouble(final String string)
+    {
+        return Double.parseDouble(string);
+    }
 
-        if (type.equals(Long.TYPE) || type.equals(Long.class))
-        {
-            return Long.parseLong(string);
-        }
+    @Override
+    public float convertToFloat(final String string)
+    {
+        return Float.parseFloat(string);
+    }
 
-        if (type.equals(Short.TYPE) || type.equals(Short.class))
-        {
-            return Short.parseShort(string);
-        }
+    @Override
+    public int convertToInt(final String string)
+    {
+        return Integer.parseInt(string);
+    }
 
-        throw new IllegalArgumentException("unsupported type: " + type.getName());
+    @Override
+    public long convertToLong(final String string)
+    {
+        return Long.parseLong(string);
+    }
+
+    @Override
+    public short convertToShort(final String string)
+    {
+        return Short.parseShort(string);
     }
 }
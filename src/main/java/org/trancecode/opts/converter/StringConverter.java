@@ -17,6 +17,9 @@ package org.trancecode.opts.converter;
 
 
 /**
+ * A single instance of each converter is shared by all the conversions, which
+ * may run concurrently: implementations must be thread-safe.
+ * 
  * @author Herve Quiroz
  */
 public interface StringConverter
@@ -15,30 +15,158 @@
  */
 package org.trancecode.opts.converter;
 
+import java.lang.ref.Reference;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.ServiceLoader;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.trancecode.opts.ClassCache;
 
 /**
+ * Converts option arguments with the {@link StringConverter} registered for
+ * the target type.
+ * <p>
+ * Converters are looked up in the {@value ConverterIndex#INDEX_RESOURCE}
+ * index files, and each converter class is only loaded when a type it
+ * supports is first converted. Converters registered with
+ * {@link ServiceLoader} but missing from the index are all loaded on the first
+ * conversion, and take precedence over indexed ones.
+ * <p>
+ * Safe for concurrent use: converters are resolved without locking, and only
+ * one instance of each converter is kept, whichever thread asks first.
+ * 
  * @author Herve Quiroz
  */
 public final class StringConverters
 {
-    private static final Map<Class<?>, StringConverter> CONVERTERS;
+    /**
+     * Safe to initialize while building a native image: the index only holds
+     * class names.
+     */
+    private static final ConverterIndex INDEX = ConverterIndex.load(getClassLoader());
+
+    /**
+     * Indexed converters instantiated so far, by class name.
+     */
+    private static final ConcurrentMap<String, StringConverter> INDEXED_CONVERTERS =
+            new ConcurrentHashMap<String, StringConverter>();
+
+    /**
+     * Converter resolved for each type requested so far, including types with
+     * no converter.
+     */
+    private static final ClassCache<Resolution> RESOLUTIONS = new ClassCache<Resolution>()
+    {
+        @Override
+        protected Resolution compute(final Class<?> type)
+        {
+            return resolve(type);
+        }
+    };
+
+    /**
+     * Converters that are not indexed, by source type, loaded on first use.
+     */
+    private static final class UnindexedConverters
+    {
+        private static final Map<Class<?>, StringConverter> CONVERTERS;
+
+        static
+        {
+            final Map<Class<?>, StringConverter> converters = new LinkedHashMap<Class<?>, StringConverter>();
+            for (final String converterName : INDEX.getUnindexedConverterNames())
+            {
+                final StringConverter converter = newConverter(converterName);
+                for (final Class<?> type : converter.getSourceTypes())
+                {
+                    converters.put(type, converter);
+                }
+            }
+            CONVERTERS = Collections.unmodifiableMap(converters);
+        }
+    }
+
+    /**
+     * Converters specialized for primitive types, resolved on first use.
+     */
+    private static final class PrimitiveConverters
+    {
+        private static final BooleanStringConverter BOOLEAN = getConverter(Boolean.TYPE,
+                BooleanStringConverter.class);
+        private static final ByteStringConverter BYTE = getConverter(Byte.TYPE, ByteStringConverter.class);
+        private static final CharStringConverter CHAR = getConverter(Character.TYPE, CharStringConverter.class);
+        private static final DoubleStringConverter DOUBLE = getConverter(Double.TYPE, DoubleStringConverter.class);
+        private static final FloatStringConverter FLOAT = getConverter(Float.TYPE, FloatStringConverter.class);
+        private static final IntStringConverter INT = getConverter(Integer.TYPE, IntStringConverter.class);
+        private static final LongStringConverter LONG = getConverter(Long.TYPE, LongStringConverter.class);
+        private static final ShortStringConverter SHORT = getConverter(Short.TYPE, ShortStringConverter.class);
+
+        /**
+         * @return the converter registered for the primitive type if it is
+         *         specialized for that type, {@code null} otherwise.
+         */
+        private static <C> C getConverter(final Class<?> primitiveType, final Class<C> converterType)
+        {
+            final StringConverter converter = RESOLUTIONS.get(primitiveType).converter;
+            if (converterType.isInstance(converter))
+            {
+                return converterType.cast(converter);
+            }
 
-    static
+            return null;
+        }
+    }
+
+    /**
+     * A converter along with the type it is asked to convert to, or
+     * {@code null} for the requested type itself, so that a resolution does not
+     * hold its own key.
+     */
+    private static final class Resolution
     {
-        final Map<Class<?>, StringConverter> converters = new HashMap<Class<?>, StringConverter>();
-        for (final StringConverter converter : ServiceLoader.load(StringConverter.class))
+        private static final Resolution NONE = new Resolution(null, null);
+
+        private final StringConverter converter;
+
+        /**
+         * The subtype the converter supports, if not the requested type itself.
+         * Weakly held, as the requested type may outlive its subtypes.
+         */
+        private final Reference<Class<?>> subtype;
+
+        private Resolution(final StringConverter converter, final Class<?> subtype)
         {
-            for (final Class<?> type : converter.getSourceTypes())
+            this.converter = converter;
+            if (subtype != null)
             {
-                converters.put(type, converter);
+                this.subtype = new WeakReference<Class<?>>(subtype);
             }
+            else
+            {
+                this.subtype = null;
+            }
+        }
+
+        /**
+         * @return the type to convert to, or {@code null} if the subtype has
+         *         been unloaded since.
+         */
+        private Class<?> getType(final Class<?> requestedType)
+        {
+            if (subtype == null)
+            {
+                return requestedType;
+            }
+            return subtype.get();
         }
-        CONVERTERS = Collections.unmodifiableMap(converters);
     }
 
     private StringConverters()
@@ -46,22 +174,261 @@ public final class StringConverters
         // No instantiation
     }
 
+    /**
+     * Same class loader as {@link ServiceLoader#load(Class)}.
+     */
+    private static ClassLoader getClassLoader()
+    {
+        final ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+        if (contextClassLoader != null)
+        {
+            return contextClassLoader;
+        }
+
+        return StringConverters.class.getClassLoader();
+    }
+
+    private static StringConverter newConverter(final String converterName)
+    {
+        try
+        {
+            return Class.forName(converterName, true, getClassLoader()).asSubclass(StringConverter.class)
+                    .getDeclaredConstructor().newInstance();
+        }
+        catch (final Exception e)
+        {
+            throw new IllegalStateException("cannot instantiate converter " + converterName, e);
+        }
+    }
+
+    private static StringConverter getIndexedConverter(final String converterName)
+    {
+        final StringConverter converter = INDEXED_CONVERTERS.get(converterName);
+        if (converter != null)
+        {
+            return converter;
+        }
+
+        final StringConverter newConverter = newConverter(converterName);
+        final StringConverter existingConverter = INDEXED_CONVERTERS.putIfAbsent(converterName, newConverter);
+        if (existingConverter != null)
+        {
+            return existingConverter;
+        }
+        return newConverter;
+    }
+
+    /**
+     * @return the converter for the given type, or {@code null} if the type is
+     *         not supported.
+     */
+    public static StringConverter getConverter(final Class<?> type)
+    {
+        return RESOLUTIONS.get(type).converter;
+    }
+
     public static Object convert(final String string, final Class<?> type)
     {
-        final StringConverter explicitConverter = CONVERTERS.get(type);
-        if (explicitConverter != null)
+        Resolution resolution = RESOLUTIONS.get(type);
+        Class<?> convertedType = resolution.getType(type);
+        if (convertedType == null)
+        {
+            // The subtype was unloaded, maybe along with its converter
+            resolution = resolve(type);
+            convertedType = resolution.getType(type);
+        }
+        if (resolution.converter == null)
         {
-            return explicitConverter.convert(string, type);
+            throw new IllegalArgumentException("unsupported type: " + type.getName());
         }
 
-        for (final Entry<Class<?>, StringConverter> entry : CONVERTERS.entrySet())
+        return resolution.converter.convert(string, convertedType);
+    }
+
+    public static boolean convertToBoolean(final String string)
+    {
+        if (PrimitiveConverters.BOOLEAN != null)
+        {
+            return PrimitiveConverters.BOOLEAN.convertToBoolean(string);
+        }
+        return (Boolean) convert(string, Boolean.TYPE);
+    }
+
+    public static byte convertToByte(final String string)
+    {
+        if (PrimitiveConverters.BYTE != null)
+        {
+            return PrimitiveConverters.BYTE.convertToByte(string);
+        }
+        return (Byte) convert(string, Byte.TYPE);
+    }
+
+    public static char convertToChar(final String string)
+    {
+        if (PrimitiveConverters.CHAR != null)
+        {
+            return PrimitiveConverters.CHAR.convertToChar(string);
+        }
+        return (Character) convert(string, Character.TYPE);
+    }
+
+    public static double convertToDouble(final String string)
+    {
+        if (PrimitiveConverters.DOUBLE != null)
+        {
+            return PrimitiveConverters.DOUBLE.convertToDouble(string);
+        }
+        return (Double) convert(string, Double.TYPE);
+    }
+
+    public static float convertToFloat(final String string)
+    {
+        if (PrimitiveConverters.FLOAT != null)
+        {
+            return PrimitiveConverters.FLOAT.convertToFloat(string);
+        }
+        return (Float) convert(string, Float.TYPE);
+    }
+
+    public static int convertToInt(final String string)
+    {
+        if (PrimitiveConverters.INT != null)
+        {
+            return PrimitiveConverters.INT.convertToInt(string);
+        }
+        return (Integer) convert(string, Integer.TYPE);
+    }
+
+    public static long convertToLong(final String string)
+    {
+        if (PrimitiveConverters.LONG != null)
+        {
+            return PrimitiveConverters.LONG.convertToLong(string);
+        }
+        return (Long) convert(string, Long.TYPE);
+    }
+
+    public static short convertToShort(final String string)
+    {
+        if (PrimitiveConverters.SHORT != null)
+        {
+            return PrimitiveConverters.SHORT.convertToShort(string);
+        }
+        return (Short) convert(string, Short.TYPE);
+    }
+
+    /**
+     * Looks for a converter for the type itself, or else for the closest
+     * subtype in the class hierarchy. Subtypes at the same distance are
+     * chosen in index order, then in registration order.
+     */
+    private static Resolution resolve(final Class<?> type)
+    {
+        final StringConverter unindexedConverter = UnindexedConverters.CONVERTERS.get(type);
+        if (unindexedConverter != null)
+        {
+            return new Resolution(unindexedConverter, null);
+        }
+
+        final String indexedConverterName = INDEX.getConverterName(type.getName());
+        if (indexedConverterName != null)
+        {
+            return new Resolution(getIndexedConverter(indexedConverterName), null);
+        }
+
+        Class<?> closestIndexedType = null;
+        int resolutionDistance = Integer.MAX_VALUE;
+        for (final String typeName : INDEX.getTypeNames())
+        {
+            final Set<String> supertypeNames = INDEX.getSupertypeNames(typeName);
+            if (supertypeNames != null && type != Object.class && !supertypeNames.contains(type.getName()))
+            {
+                // Not a subtype: no need to load it
+                continue;
+            }
+
+            final Class<?> indexedType = getIndexedType(typeName);
+            if (indexedType != null && type.isAssignableFrom(indexedType))
+            {
+                final int distance = getDistance(indexedType, type);
+                if (distance < resolutionDistance)
+                {
+                    closestIndexedType = indexedType;
+                    resolutionDistance = distance;
+                }
+            }
+        }
+        Resolution resolution = Resolution.NONE;
+        if (closestIndexedType != null)
+        {
+            resolution = new Resolution(getIndexedConverter(INDEX.getConverterName(closestIndexedType.getName())),
+                    closestIndexedType);
+        }
+        for (final Entry<Class<?>, StringConverter> entry : UnindexedConverters.CONVERTERS.entrySet())
         {
             if (type.isAssignableFrom(entry.getKey()))
             {
-                return entry.getValue().convert(string, entry.getKey());
+                final int distance = getDistance(entry.getKey(), type);
+                if (distance < resolutionDistance)
+                {
+                    resolution = new Resolution(entry.getValue(), entry.getKey());
+                    resolutionDistance = distance;
+                }
+            }
+        }
+
+        return resolution;
+    }
+
+    /**
+     * Loads an indexed type without initializing it.
+     * 
+     * @return {@code null} for primitive types, which have no subtypes, and
+     *         types missing from the class path.
+     */
+    private static Class<?> getIndexedType(final String typeName)
+    {
+        if (!typeName.contains("."))
+        {
+            return null;
+        }
+
+        try
+        {
+            return Class.forName(typeName, false, getClassLoader());
+        }
+        catch (final ClassNotFoundException e)
+        {
+            return null;
+        }
+    }
+
+    /**
+     * @return the number of superclass or interface steps between a type and
+     *         one of its supertypes.
+     */
+    private static int getDistance(final Class<?> subtype, final Class<?> supertype)
+    {
+        List<Class<?>> types = Collections.<Class<?>> singletonList(subtype);
+        for (int distance = 0; !types.isEmpty(); distance++)
+        {
+            final List<Class<?>> parentTypes = new ArrayList<Class<?>>();
+            for (final Class<?> type : types)
+            {
+                if (type.equals(supertype))
+                {
+                    return distance;
+                }
+                if (type.getSuperclass() != null)
+                {
+                    parentTypes.add(type.getSuperclass());
+                }
+                Collections.addAll(parentTypes, type.getInterfaces());
             }
+            types = parentTypes;
         }
 
-        throw new IllegalArgumentException("unsupported type: " + type.getName());
+        // Interfaces do not extend Object
+        return Integer.MAX_VALUE - 1;
     }
 }
@@ -0,0 +1,230 @@
+/*
+ * Copyright 2026 Herve Quiroz
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.trancecode.opts;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.CountDownLatch;
+
+import org.apache.log4j.Appender;
+import org.apache.log4j.ConsoleAppender;
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import org.apache.log4j.PatternLayout;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * Tests for {@link AsyncConsoleAppender} and
+ * {@link AbstractAsyncLog4jLauncher}.
+ * 
+ * @author Herve Quiroz
+ */
+public final class AsyncConsoleAppenderTest
+{
+    private static final String SEP = System.getProperty("line.separator");
+
+    /**
+     * Blocks the first write until released.
+     */
+    private static final class BlockingOutputStream extends OutputStream
+    {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final CountDownLatch writing = new CountDownLatch(1);
+        private final CountDownLatch released = new CountDownLatch(1);
+
+        @Override
+        public void write(final int b)
+        {
+            writing.countDown();
+            try
+            {
+                released.await();
+            }
+            catch (final InterruptedException e)
+            {
+                throw new IllegalStateException(e);
+            }
+            synchronized (bytes)
+            {
+                bytes.write(b);
+            }
+        }
+
+        @Override
+        public String toString()
+        {
+            synchronized (bytes)
+            {
+                return bytes.toString();
+            }
+        }
+    }
+
+    private static void log(final Logger logger, final int from, final int to)
+    {
+        for (int i = from; i < to; i++)
+        {
+            logger.info("message" + i);
+        }
+    }
+
+    private static Logger newLogger(final Appender appender)
+    {
+        final Logger logger = Logger.getLogger(AsyncConsoleAppenderTest.class.getName() + "." + appender.hashCode());
+        logger.setAdditivity(false);
+        logger.setLevel(Level.INFO);
+        logger.addAppender(appender);
+        return logger;
+    }
+
+    private static String messages(final int from, final int to)
+    {
+        final StringBuilder messages = new StringBuilder();
+        for (int i = from; i < to; i++)
+        {
+            messages.append("message").append(i).append(SEP);
+        }
+        return messages.toString();
+    }
+
+    @Test
+    public void messagesAreWrittenInOrder()
+    {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final AsyncConsoleAppender appender = new AsyncConsoleAppender(new PatternLayout("%m%n"),
+                new PrintStream(out, true), 16, true);
+        final Logger logger = newLogger(appender);
+        log(logger, 0, 1000);
+        appender.close();
+        Assert.assertEquals(out.toString(), messages(0, 1000));
+    }
+
+    @Test
+    public void messagesAreDroppedWhenTheBufferIsFull() throws InterruptedException
+    {
+        final BlockingOutputStream out = new BlockingOutputStream();
+        final AsyncConsoleAppender appender = new AsyncConsoleAppender(new PatternLayout("%m%n"),
+                new PrintStream(out), 4, false);
+        final Logger logger = newLogger(appender);
+        log(logger, 0, 1);
+        out.writing.await();
+        log(logger, 1, 10);
+        out.released.countDown();
+        appender.close();
+        Assert.assertEquals(out.toString(), messages(0, 5) + "5 log messages dropped" + SEP);
+    }
+
+    @Test
+    public void loggingWaitsWhenTheBufferIsFull() throws InterruptedException
+    {
+        final BlockingOutputStream out = new BlockingOutputStream();
+        final AsyncConsoleAppender appender = new AsyncConsoleAppender(new PatternLayout("%m%n"),
+                new PrintStream(out), 4, true);
+        final Logger logger = newLogger(appender);
+        log(logger, 0, 1);
+        out.writing.await();
+        final Thread thread = new Thread()
+        {
+            @Override
+            public void run()
+            {
+                log(logger, 1, 10);
+            }
+        };
+        thread.start();
+        thread.join(100);
+        Assert.assertTrue(thread.isAlive());
+        out.released.countDown();
+        thread.join();
+        appender.close();
+        Assert.assertEquals(out.toString(), messages(0, 10));
+    }
+
+    @Command("log")
+    public static final class LoggingLauncher extends AbstractAsyncLog4jLauncher implements Runnable
+    {
+        @Override
+        public void run()
+        {
+            Logger.getLogger(getClass()).debug("debug");
+        }
+    }
+
+    @Command("log-options")
+    public static final class OptionLoggingLauncher extends AbstractAsyncLog4jLauncher implements Runnable
+    {
+        private String name;
+
+        @Option(longName = "name", description = "the name to log")
+        public void setName(final String name)
+        {
+            this.name = name;
+            Logger.getLogger(getClass()).info("option " + name);
+        }
+
+        @Override
+        protected void optionsParsed()
+        {
+            super.optionsParsed();
+            Logger.getLogger(getClass()).info("parsed " + name);
+        }
+
+        @Override
+        public void run()
+        {
+            Logger.getLogger(getClass()).info("run " + name);
+        }
+    }
+
+    @Test
+    public void optionMethodsLogBeforeConfiguration()
+    {
+        Logger.getRootLogger().removeAllAppenders();
+        final PrintStream systemOut = System.out;
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(out, true));
+        try
+        {
+            Options.execute(OptionLoggingLauncher.class, "--name", "x");
+            Logger.getRootLogger().getAppender("tc-opts-console").close();
+        }
+        finally
+        {
+            System.setOut(systemOut);
+            Logger.getRootLogger().removeAllAppenders();
+        }
+        Assert.assertEquals(out.toString(), "parsed x" + SEP + "run x" + SEP);
+    }
+
+    @Test
+    public void configuredOnceOptionsAreParsed()
+    {
+        Options.execute(LoggingLauncher.class, "--help");
+        Assert.assertNull(Logger.getRootLogger().getAppender("tc-opts-console"));
+
+        Options.execute(LoggingLauncher.class, "--quiet");
+        Assert.assertTrue(Logger.getRootLogger().getAppender("tc-opts-console") instanceof ConsoleAppender);
+        Assert.assertEquals(Logger.getRootLogger().getLevel(), Level.ERROR);
+
+        Options.execute(LoggingLauncher.class, "--verbose");
+        Assert.assertTrue(Logger.getRootLogger().getAppender("tc-opts-console") instanceof AsyncConsoleAppender);
+        Assert.assertEquals(Logger.getRootLogger().getLevel(), Level.DEBUG);
+
+        Logger.getRootLogger().removeAllAppenders();
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2026 Herve Quiroz
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.trancecode.opts;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * Tests for {@link ClassCache} and its stores.
+ * 
+ * @author Herve Quiroz
+ */
+public final class ClassCacheTest
+{
+    private static final class CountingCache extends ClassCache<String>
+    {
+        private final AtomicInteger computations = new AtomicInteger();
+
+        @Override
+        protected String compute(final Class<?> type)
+        {
+            computations.incrementAndGet();
+            return type.getName();
+        }
+    }
+
+    @Test
+    public void classCache()
+    {
+        final CountingCache cache = new CountingCache();
+        Assert.assertEquals(cache.get(String.class), "java.lang.String");
+        Assert.assertSame(cache.get(String.class), cache.get(String.class));
+        Assert.assertEquals(cache.get(Integer.class), "java.lang.Integer");
+        Assert.assertEquals(cache.computations.get(), 2);
+    }
+
+    @Test
+    public void classValueStore()
+    {
+        assertStore(new ClassValueStore<String>(new CountingCache()));
+    }
+
+    @Test
+    public void weakClassStore()
+    {
+        assertStore(new WeakClassStore<String>(new CountingCache()));
+    }
+
+    private static void assertStore(final ClassStore<String> store)
+    {
+        final String value = store.get(String.class);
+        Assert.assertEquals(value, "java.lang.String");
+        Assert.assertSame(store.get(String.class), value);
+        Assert.assertEquals(store.get(int.class), "int");
+        Assert.assertEquals(store.get(int[].class), "[I");
+    }
+
+    @Test
+    public void concurrentReads() throws Exception
+    {
+        final ClassStore<String> store = new WeakClassStore<String>(new CountingCache());
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try
+        {
+            final List<Future<String>> results = new ArrayList<Future<String>>();
+            for (int i = 0; i < 64; i++)
+            {
+                results.add(executor.submit(new Callable<String>()
+                {
+                    @Override
+                    public String call()
+                    {
+                        return store.get(ClassCacheTest.class);
+                    }
+                }));
+            }
+
+            // All threads see the value that was kept, even when they raced
+            final String value = store.get(ClassCacheTest.class);
+            for (final Future<String> result : results)
+            {
+                Assert.assertSame(result.get(), value);
+            }
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2026 Herve Quiroz
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.trancecode.opts;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.management.JMX;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.trancecode.opts.ExecutionListener.Phase;
+import org.trancecode.opts.converter.StringConverter;
+import org.trancecode.opts.converter.StringConverters;
+
+/**
+ * Tests for {@link ExecutionListener} and {@link ExecutionStatistics}.
+ * 
+ * @author Herve Quiroz
+ */
+public final class ExecutionStatisticsTest
+{
+    private static final class RecordingListener implements ExecutionListener
+    {
+        private final Class<? extends Runnable> launcherClass;
+        private final List<Phase> phases = new ArrayList<Phase>();
+        private final List<Class<?>> types = new ArrayList<Class<?>>();
+        private final List<StringConverter> converters = new ArrayList<StringConverter>();
+
+        private RecordingListener(final Class<? extends Runnable> launcherClass)
+        {
+            this.launcherClass = launcherClass;
+        }
+
+        @Override
+        public synchronized void phaseCompleted(final Class<? extends Runnable> launcherClass, final Phase phase,
+                final long durationNanos)
+        {
+            Assert.assertEquals(launcherClass, this.launcherClass);
+            Assert.assertTrue(durationNanos >= 0);
+            phases.add(phase);
+        }
+
+        @Override
+        public synchronized void argumentConverted(final Class<? extends Runnable> launcherClass,
+                final StringConverter converter, final Class<?> type, final long durationNanos)
+        {
+            Assert.assertTrue(durationNanos >= 0);
+            types.add(type);
+            converters.add(converter);
+        }
+    }
+
+    @Test
+    public void listener()
+    {
+        final RecordingListener listener = new RecordingListener(OptionsTest.Launcher2.class);
+        Options.addListener(listener);
+        try
+        {
+            Options.execute(OptionsTest.Launcher2.class, "--int", "1", "-s", "a");
+        }
+        finally
+        {
+            Options.removeListener(listener);
+        }
+        Options.execute(OptionsTest.Launcher2.class, "--int", "2");
+
+        Assert.assertEquals(listener.phases, Arrays.asList(Phase.MODEL, Phase.PARSING, Phase.INVOCATION, Phase.RUN));
+        Assert.assertEquals(listener.types, Arrays.<Class<?>> asList(Integer.TYPE, String.class));
+        Assert.assertEquals(listener.converters, Arrays.asList(StringConverters.getConverter(Integer.TYPE),
+                StringConverters.getConverter(String.class)));
+    }
+
+    @Test
+    public void subcommandListener()
+    {
+        final RecordingListener listener = new RecordingListener(SubcommandTest.Tool.class);
+        Options.addListener(listener);
+        try
+        {
+            Options.execute(SubcommandTest.Tool.class, "clean");
+        }
+        finally
+        {
+            Options.removeListener(listener);
+        }
+
+        Assert.assertEquals(listener.phases, Arrays.asList(Phase.MODEL, Phase.PARSING, Phase.INVOCATION, Phase.RUN));
+    }
+
+    @Test
+    public void mbean() throws MalformedObjectNameException
+    {
+        final String objectName = ExecutionStatistics.DEFAULT_OBJECT_NAME + ",name=test";
+        final ExecutionStatistics statistics = ExecutionStatistics.register(objectName);
+        try
+        {
+            Options.execute(OptionsTest.Launcher2.class, "--int", "1", "-s", "a");
+            Options.execute(OptionsTest.Launcher2.class, "--int", "2");
+
+            final ExecutionStatisticsMXBean proxy = JMX.newMXBeanProxy(ManagementFactory.getPlatformMBeanServer(),
+                    new ObjectName(objectName), ExecutionStatisticsMXBean.class);
+            Assert.assertEquals(proxy.getPhaseCounts().get(Phase.RUN.name()), Long.valueOf(2));
+            final String intConverterName = StringConverters.getConverter(Integer.TYPE).getClass().getName();
+            final String stringConverterName = StringConverters.getConverter(String.class).getClass().getName();
+            Assert.assertEquals(proxy.getConversionCounts().get(intConverterName), Long.valueOf(2));
+            Assert.assertEquals(proxy.getConversionCounts().get(stringConverterName), Long.valueOf(1));
+            Assert.assertTrue(proxy.getConversionDurations().get(intConverterName) >= 0);
+            proxy.reset();
+            Assert.assertTrue(statistics.getPhaseCounts().isEmpty());
+        }
+        finally
+        {
+            ExecutionStatistics.unregister(statistics, objectName);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2026 Herve Quiroz
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.trancecode.opts;
+
+import java.lang.reflect.InvocationTargetException;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * Tests for {@link MethodHandleInvokers}.
+ * 
+ * @author Herve Quiroz
+ */
+public final class MethodHandleInvokersTest
+{
+    public static final class Target
+    {
+        private int value;
+
+        public void setValue(final int value)
+        {
+            if (value < 0)
+            {
+                throw new ClassCastException("negative value");
+            }
+            this.value = value;
+        }
+    }
+
+    private static OptionInvoker newOptionInvoker() throws NoSuchMethodException
+    {
+        return MethodHandleInvokers.newOptionInvoker(Target.class.getMethod("setValue", Integer.TYPE));
+    }
+
+    @Test
+    public void optionInvoker() throws Exception
+    {
+        final Target target = new Target();
+        Assert.assertNull(newOptionInvoker().invoke(target, new Object[] { 1 }));
+        Assert.assertEquals(target.value, 1);
+    }
+
+    @Test
+    public void exceptionOfTheMethodIsWrapped() throws Exception
+    {
+        try
+        {
+            newOptionInvoker().invoke(new Target(), new Object[] { -1 });
+            Assert.fail();
+        }
+        catch (final InvocationTargetException e)
+        {
+            Assert.assertEquals(e.getCause().getMessage(), "negative value");
+        }
+
+        try
+        {
+            MethodHandleInvokers.newPrimitiveInvoker(Target.class.getMethod("setValue", Integer.TYPE)).invoke(
+                    new Target(), -1);
+            Assert.fail();
+        }
+        catch (final InvocationTargetException e)
+        {
+            Assert.assertEquals(e.getCause().getMessage(), "negative value");
+        }
+    }
+
+    @Test(expectedExceptions = ClassCastException.class)
+    public void invalidParameterIsNotWrapped() throws Exception
+    {
+        newOptionInvoker().invoke(new Target(), new Object[] { "1" });
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2026 Herve Quiroz
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.trancecode.opts;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+/**
+ * Tests for {@link OptionsBatch}.
+ * 
+ * @author Herve Quiroz
+ */
+public final class OptionsBatchTest
+{
+    private static final AtomicLong TOTAL = new AtomicLong();
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(8);
+
+    @AfterClass
+    public void shutdownExecutor()
+    {
+        executor.shutdown();
+    }
+
+    @Command("job")
+    public static final class Job implements Runnable
+    {
+        private int size;
+        private URI uri;
+        private List<Integer> ids = new ArrayList<Integer>();
+
+        @Option(longName = "size", description = "the size of the job", required = true)
+        public void setSize(final int size)
+        {
+            this.size = size;
+        }
+
+        @Option(longName = "uri", description = "the location of the job")
+        public void setUri(final URI uri)
+        {
+            this.uri = uri;
+        }
+
+        @Option(longName = "id", description = "add an identifier", multiple = true, bulk = true)
+        public void setIds(final List<Integer> ids)
+        {
+            this.ids = ids;
+        }
+
+        @Override
+        public void run()
+        {
+            Preconditions.checkState(size >= 0, "negative size: %s", size);
+            long total = size + (uri != null ? uri.getPath().length() : 0);
+            for (final int id : ids)
+            {
+                total += id;
+            }
+            TOTAL.addAndGet(total);
+        }
+    }
+
+    @Test
+    public void execute()
+    {
+        final List<String[]> commandLines = new ArrayList<String[]>();
+        long expectedTotal = 0;
+        for (int i = 0; i < 10000; i++)
+        {
+            switch (i % 100)
+            {
+            case 13:
+                commandLines.add(new String[] { "--size", "x" + i });
+                break;
+            case 42:
+                commandLines.add(new String[] { "--size", "-1" });
+                break;
+            case 99:
+                commandLines.add(new String[] { "--id", "1" });
+                break;
+            default:
+                commandLines.add(new String[] { "--size", Integer.toString(i), "--uri", "file:/job", "--id", "1",
+                        "--id", "2" });
+                expectedTotal += i + 4 + 3;
+            }
+        }
+
+        TOTAL.set(0);
+        final List<OptionsBatch.Result> results = OptionsBatch.execute(Job.class, executor,
+                commandLines.iterator());
+        Assert.assertEquals(results.size(), commandLines.size());
+        for (int i = 0; i < results.size(); i++)
+        {
+            final OptionsBatch.Result result = results.get(i);
+            Assert.assertEquals(result.index(), i);
+            switch (i % 100)
+            {
+            case 13:
+                Assert.assertTrue(result.error() instanceof IllegalArgumentException, result.toString());
+                Assert.assertEquals(result.exitCode(), 1);
+                break;
+            case 42:
+            case 99:
+                Assert.assertTrue(result.error() instanceof IllegalStateException, result.toString());
+                break;
+            default:
+                Assert.assertNull(result.error(), result.toString());
+                Assert.assertEquals(result.exitCode(), 0);
+            }
+        }
+        Assert.assertEquals(TOTAL.get(), expectedTotal);
+    }
+
+    @Test
+    public void executeFile() throws IOException
+    {
+        final File file = File.createTempFile("tc-opts", ".jobs");
+        file.deleteOnExit();
+        final FileOutputStream out = new FileOutputStream(file);
+        try
+        {
+            out.write(("# jobs\n--size 1 --uri 'file:/ab'\n\n  --size 2 # two\r\n"
+                    + "--size 3 --uri \"file:/cd\" --id 4\n--size").getBytes("UTF-8"));
+        }
+        finally
+        {
+            out.close();
+        }
+
+        TOTAL.set(0);
+        final List<OptionsBatch.Result> results = OptionsBatch.execute(Job.class, executor, file);
+        Assert.assertEquals(results.size(), 4);
+        Assert.assertNull(results.get(0).error());
+        Assert.assertNull(results.get(1).error());
+        Assert.assertNull(results.get(2).error());
+        Assert.assertTrue(results.get(3).error() instanceof IllegalArgumentException);
+        Assert.assertEquals(TOTAL.get(), 1 + 3 + 2 + 3 + 3 + 4);
+    }
+}
@@ -0,0 +1,267 @@
+/*
+ * Copyright 2026 Herve Quiroz
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.trancecode.opts;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.testng.Assert;
+import org.testng.SkipException;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+/**
+ * Tests for {@link OptionsDaemon} and {@link OptionsClient}.
+ * 
+ * @author Herve Quiroz
+ */
+public final class OptionsDaemonTest
+{
+    private OptionsDaemon daemon;
+    private File tokenFile;
+
+    @Command("hello")
+    public static final class HelloLauncher implements Runnable
+    {
+        private String name = "World";
+
+        @Option(longName = "name", description = "the name to greet")
+        public void setName(final String name)
+        {
+            this.name = name;
+        }
+
+        @Override
+        public void run()
+        {
+            System.out.println("Hello, " + name);
+            System.err.println(OptionsDaemon.getWorkingDirectory() + " "
+                    + OptionsDaemon.getEnvironment().equals(System.getenv()));
+        }
+    }
+
+    @Command("fail")
+    public static final class FailingLauncher implements Runnable
+    {
+        @Override
+        public void run()
+        {
+            throw new StackOverflowError("launcher failure");
+        }
+    }
+
+    @BeforeClass
+    public void startDaemon() throws IOException
+    {
+        tokenFile = File.createTempFile("tc-opts-daemon", ".token");
+        daemon = new OptionsDaemon();
+        daemon.setTokenFile(tokenFile);
+        daemon.setLauncherClassNames(Arrays.asList(HelloLauncher.class.getName(), FailingLauncher.class.getName()));
+        daemon.start();
+    }
+
+    @AfterClass
+    public void stopDaemon() throws IOException
+    {
+        daemon.close();
+        Assert.assertFalse(tokenFile.exists());
+    }
+
+    @Test
+    public void execute() throws IOException
+    {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final ByteArrayOutputStream err = new ByteArrayOutputStream();
+        Assert.assertEquals(OptionsClient.execute(tokenFile, out, err, HelloLauncher.class.getName(), "--name",
+                "daemon"), 0);
+        Assert.assertEquals(out.toString().trim(), "Hello, daemon");
+        Assert.assertEquals(err.toString().trim(), new File(System.getProperty("user.dir")).getAbsolutePath()
+                + " true");
+    }
+
+    @Test
+    public void concurrentClients() throws Exception
+    {
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try
+        {
+            final List<Future<String>> outputs = new ArrayList<Future<String>>();
+            for (int i = 0; i < 32; i++)
+            {
+                final String name = "client" + i;
+                outputs.add(executor.submit(new Callable<String>()
+                {
+                    @Override
+                    public String call() throws IOException
+                    {
+                        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+                        OptionsClient.execute(tokenFile, out, new ByteArrayOutputStream(),
+                                HelloLauncher.class.getName(), "--name", name);
+                        return out.toString();
+                    }
+                }));
+            }
+            for (int i = 0; i < outputs.size(); i++)
+            {
+                Assert.assertEquals(outputs.get(i).get().trim(), "Hello, client" + i);
+            }
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void commandLineError() throws IOException
+    {
+        final ByteArrayOutputStream err = new ByteArrayOutputStream();
+        Assert.assertEquals(OptionsClient.execute(tokenFile, new ByteArrayOutputStream(), err,
+                HelloLauncher.class.getName(), "--unknown"), 1);
+        Assert.assertTrue(err.toString().contains("unknown option: --unknown"), err.toString());
+    }
+
+    @Test
+    public void errorInLauncher() throws IOException
+    {
+        final ByteArrayOutputStream err = new ByteArrayOutputStream();
+        Assert.assertEquals(OptionsClient.execute(tokenFile, new ByteArrayOutputStream(), err,
+                FailingLauncher.class.getName()), 1);
+        Assert.assertTrue(err.toString().contains("launcher failure"), err.toString());
+    }
+
+    @Test
+    public void launcherNotAllowed() throws IOException
+    {
+        final ByteArrayOutputStream err = new ByteArrayOutputStream();
+        Assert.assertEquals(OptionsClient.execute(tokenFile, new ByteArrayOutputStream(), err,
+                OptionsTest.Launcher1.class.getName()), 2);
+        Assert.assertTrue(err.toString().contains("not allowed"), err.toString());
+    }
+
+    @Test
+    public void tokenFileReadableByOwnerOnly() throws IOException, InterruptedException
+    {
+        if (!new File("/usr/bin/stat").canExecute())
+        {
+            throw new SkipException("stat is not available");
+        }
+
+        final Process process = new ProcessBuilder("/usr/bin/stat", "-c", "%a", tokenFile.getPath()).start();
+        final BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), "UTF-8"));
+        try
+        {
+            Assert.assertEquals(reader.readLine(), "600");
+        }
+        finally
+        {
+            reader.close();
+        }
+        Assert.assertEquals(process.waitFor(), 0);
+
+        // No temporary directory left behind
+        final String[] names = tokenFile.getParentFile().list();
+        for (final String name : names)
+        {
+            Assert.assertFalse(name.startsWith("." + tokenFile.getName() + "-"), name);
+        }
+    }
+
+    @Test
+    public void busyDaemon() throws IOException
+    {
+        final File busyTokenFile = File.createTempFile("tc-opts-daemon", ".token");
+        final OptionsDaemon busyDaemon = new OptionsDaemon();
+        busyDaemon.setTokenFile(busyTokenFile);
+        busyDaemon.setThreads(1);
+        busyDaemon.setLauncherClassNames(Arrays.asList(HelloLauncher.class.getName()));
+        busyDaemon.start();
+        try
+        {
+            // Holds the only thread until it times out
+            final Socket socket = new Socket(InetAddress.getByName(null), busyDaemon.getPort());
+            try
+            {
+                OptionsClient.execute(busyTokenFile, new ByteArrayOutputStream(), new ByteArrayOutputStream(),
+                        HelloLauncher.class.getName());
+                Assert.fail();
+            }
+            catch (final IOException e)
+            {
+                // Disconnected
+            }
+            finally
+            {
+                socket.close();
+            }
+        }
+        finally
+        {
+            busyDaemon.close();
+        }
+    }
+
+    @Test(expectedExceptions = IOException.class)
+    public void invalidToken() throws IOException
+    {
+        final File invalidTokenFile = File.createTempFile("tc-opts-daemon", ".token");
+        invalidTokenFile.deleteOnExit();
+        final FileOutputStream out = new FileOutputStream(invalidTokenFile);
+        try
+        {
+            out.write((daemon.getPort() + " invalid").getBytes("UTF-8"));
+        }
+        finally
+        {
+            out.close();
+        }
+        OptionsClient.execute(invalidTokenFile, new ByteArrayOutputStream(), new ByteArrayOutputStream(),
+                HelloLauncher.class.getName());
+    }
+
+    @Test
+    public void argumentFileInWorkingDirectory() throws IOException
+    {
+        final File file = File.createTempFile("tc-opts", ".args");
+        file.deleteOnExit();
+        final FileOutputStream out = new FileOutputStream(file);
+        try
+        {
+            out.write("--name file".getBytes("UTF-8"));
+        }
+        finally
+        {
+            out.close();
+        }
+        final HelloLauncher launcher = Options.execute(HelloLauncher.class, null, file.getParentFile(),
+                "@" + file.getName()).getKey();
+        Assert.assertEquals(launcher.name, "file");
+    }
+}
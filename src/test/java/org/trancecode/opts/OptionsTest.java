@@ -15,7 +15,21 @@
  */
 package org.trancecode.opts;
 
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 import org.testng.Assert;
+import org.testng.annotations.AfterClass;
 import org.testng.annotations.Test;
 
 /**
@@ -109,6 +123,25 @@ public final class OptionsTest
         Options.printSyntax(Launcher2.class);
     }
 
+    @Test
+    public void printSyntaxToAppendable() throws IOException
+    {
+        final StringBuilder syntax = new StringBuilder();
+        Options.printSyntax(Launcher2.class, syntax);
+        Options.printSyntax(StreamingInputs.class, syntax);
+        final String separator = System.getProperty("line.separator");
+        Assert.assertEquals(syntax.toString(), "usage: java -jar something.jar [options]\n\n"
+                + " -b VALUE                     some boolean value\n"
+                + " -d VALUE                     some String value\n"
+                + "    --int NUMBER              some int value\n"
+                + " -s --string VALUE            some String value" + separator
+                + "usage: java -jar something.jar [options]\n\n"
+                + "    --input VALUE [+]         add an input\n"
+                + "    --number VALUE [+]        add a number\n"
+                + "    --prefix VALUE            set the prefix\n\n"
+                + "[+] marked option can be specified multiple times" + separator);
+    }
+
     @Command("java -jar something.jar")
     public static final class Launcher3 implements Runnable
     {
@@ -177,6 +210,35 @@ public final class OptionsTest
         Options.execute(Launcher4.class, new String[] { "-o", "abc=def" }).getKey();
     }
 
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void optionWithMultipleArgumentsPartialMatch()
+    {
+        Options.execute(Launcher4.class, new String[] { "-o", "abc=4 def=5" }).getKey();
+    }
+
+    @Command("java -jar something.jar")
+    public static final class NotEnoughGroups implements Runnable
+    {
+        @Option(shortName = "o", description = "option")
+        @Argument(label = "NAME=SIZE", pattern = "([a-zA-Z]+)=[0-9]+")
+        public void advancedArgument(final String name, final int size)
+        {
+            // nothing
+        }
+
+        @Override
+        public void run()
+        {
+            // Nothing
+        }
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class)
+    public void notEnoughGroups()
+    {
+        Options.execute(NotEnoughGroups.class, new String[] { "-o", "abc=4" });
+    }
+
     @Command("java -jar something.jar")
     public static final class Launcher5 implements Runnable
     {
@@ -205,6 +267,27 @@ public final class OptionsTest
         Options.execute(Launcher5.class, new String[] { "--one", "--two" });
     }
 
+    @Command("java -jar something.jar")
+    public static final class FailingConstructor implements Runnable
+    {
+        public FailingConstructor()
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void run()
+        {
+            // nothing
+        }
+    }
+
+    @Test(expectedExceptions = UnsupportedOperationException.class)
+    public void failingConstructor()
+    {
+        Options.execute(FailingConstructor.class, new String[0]);
+    }
+
     @Command("java -jar something.jar")
     public static final class RequiredOption implements Runnable
     {
@@ -261,4 +344,716 @@ public final class OptionsTest
         Assert.assertTrue(result2.isQuiet());
         Assert.assertTrue(ExtendingAbstractClass.quiet);
     }
+
+    @Test
+    public void modelIsBuiltOnce()
+    {
+        Options.execute(Launcher2.class, new String[] { "-b", "true" });
+        final CommandModel model = CommandModel.get(Launcher2.class);
+        final Launcher2 launcher = Options.execute(Launcher2.class, new String[] { "--int", "123" }).getKey();
+        Assert.assertSame(CommandModel.get(Launcher2.class), model);
+        Assert.assertEquals(launcher.intValue, 123);
+        Assert.assertFalse(launcher.booleanValue);
+    }
+
+    @Test
+    public void manyOptions() throws Exception
+    {
+        final Class<? extends Runnable> launcherClass = SyntheticLaunchers.compile(1000);
+        final CommandModel model = CommandModel.get(launcherClass);
+        Assert.assertEquals(model.options().size(), 1000);
+        Assert.assertEquals(model.findOptionWithLongName("option999").description(), "option #999");
+        Assert.assertNull(model.findOptionWithLongName("option1000"));
+        Options.execute(launcherClass, "--option0", "--option999", "--option0");
+    }
+
+    @Command("java -jar something.jar")
+    public static final class MultipleInputs implements Runnable
+    {
+        private final List<String> inputs = new ArrayList<String>();
+
+        @Option(longName = "input", description = "add an input", multiple = true)
+        public void addInput(final String input)
+        {
+            inputs.add(input);
+        }
+
+        @Override
+        public void run()
+        {
+            // Nothing to do
+        }
+    }
+
+    static File newArgumentFile(final CharSequence content) throws IOException
+    {
+        final File file = File.createTempFile("tc-opts", ".args");
+        file.deleteOnExit();
+        writeArgumentFile(file, content);
+        return file;
+    }
+
+    private static void writeArgumentFile(final File file, final CharSequence content) throws IOException
+    {
+        final Writer writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+        try
+        {
+            writer.append(content);
+        }
+        finally
+        {
+            writer.close();
+        }
+    }
+
+    @Test
+    public void argumentFile() throws IOException
+    {
+        final File file = newArgumentFile("--input a\n# --input comment\n  --input \"b c\"\t--input 'd\\'\r\n"
+                + "--input \"e\\\"f\"");
+        final MultipleInputs launcher = Options.execute(MultipleInputs.class, "--input", "x", "@" + file,
+                "--input", "@y").getKey();
+        Assert.assertEquals(launcher.inputs, Arrays.asList("x", "a", "b c", "d\\", "e\"f", "@y"));
+    }
+
+    @Test
+    public void nestedArgumentFiles() throws IOException
+    {
+        final File nestedFile = newArgumentFile("--input 2");
+        final File file = newArgumentFile("--input 1 @" + nestedFile + " --input");
+        final MultipleInputs launcher = Options.execute(MultipleInputs.class, "@" + file, "3").getKey();
+        Assert.assertEquals(launcher.inputs, Arrays.asList("1", "2", "3"));
+    }
+
+    @Test
+    public void bufferedArgumentFile() throws IOException
+    {
+        final StringBuilder content = new StringBuilder();
+        final List<String> expected = new ArrayList<String>();
+        for (int i = 0; content.length() <= 4 * ArgumentFile.BUFFER_SIZE; i++)
+        {
+            content.append("--input \u00e9").append(i).append('\n');
+            expected.add("\u00e9" + i);
+        }
+        final File file = newArgumentFile(content);
+        final MultipleInputs launcher = Options.execute(MultipleInputs.class, "@" + file).getKey();
+        Assert.assertEquals(launcher.inputs, expected);
+    }
+
+    @Test
+    public void largeArgumentFile() throws IOException
+    {
+        final StringBuilder content = new StringBuilder();
+        for (int i = 0; content.length() <= ArgumentFile.MAPPING_THRESHOLD; i++)
+        {
+            content.append("--input \u00e9").append(i).append('\n');
+        }
+        final File file = newArgumentFile(content);
+        final MultipleInputs launcher = Options.execute(MultipleInputs.class, "@" + file).getKey();
+        Assert.assertEquals(launcher.inputs.get(0), "\u00e90");
+        Assert.assertEquals(launcher.inputs.get(launcher.inputs.size() - 1), "\u00e9" + (launcher.inputs.size() - 1));
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void recursiveArgumentFile() throws IOException
+    {
+        final File file = newArgumentFile("");
+        writeArgumentFile(file, "@" + file);
+        Options.execute(MultipleInputs.class, "@" + file);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void missingArgumentFile()
+    {
+        Options.execute(MultipleInputs.class, "@" + new File("missing-tc-opts.args").getAbsolutePath());
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void unterminatedQuoteInArgumentFile() throws IOException
+    {
+        Options.execute(MultipleInputs.class, "@" + newArgumentFile("--input \"a"));
+    }
+
+    @Command("java -jar something.jar")
+    public static final class StreamingInputs implements Runnable
+    {
+        private final List<String> inputs = new ArrayList<String>();
+        private int sum;
+        private String prefix;
+
+        @Option(longName = "input", description = "add an input", multiple = true, streaming = true)
+        public void addInput(final String input)
+        {
+            inputs.add(prefix + input);
+        }
+
+        @Option(longName = "number", description = "add a number", multiple = true, streaming = true)
+        public void addNumber(final int number)
+        {
+            sum += number;
+        }
+
+        @Option(longName = "prefix", description = "set the prefix", required = true)
+        public void setPrefix(final String prefix)
+        {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public void run()
+        {
+            // Nothing to do
+        }
+    }
+
+    @Test
+    public void streamingOptions()
+    {
+        final StreamingInputs launcher = Options.execute(StreamingInputs.class, "--prefix", "p", "--input", "a",
+                "--number", "1", "--input", "b", "--number", "2").getKey();
+        // Invoked before --prefix
+        Assert.assertEquals(launcher.inputs, Arrays.asList("nulla", "nullb"));
+        Assert.assertEquals(launcher.sum, 3);
+        Assert.assertEquals(launcher.prefix, "p");
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class)
+    public void streamingOptionsWithMissingRequiredOption()
+    {
+        Options.execute(StreamingInputs.class, "--input", "a");
+    }
+
+    @Command("java -jar something.jar")
+    public static final class BulkInputs implements Runnable
+    {
+        private int invocations;
+        private List<Integer> numbers;
+        private Set<String> names;
+        private int[] sizes;
+        private String[] files;
+        private List<?> values;
+
+        @Option(longName = "number", description = "add a number", multiple = true, bulk = true)
+        public void setNumbers(final List<Integer> numbers)
+        {
+            invocations++;
+            this.numbers = numbers;
+        }
+
+        @Option(longName = "name", description = "add a name", multiple = true, bulk = true)
+        public void setNames(final Set<String> names)
+        {
+            invocations++;
+            this.names = names;
+        }
+
+        @Option(longName = "size", description = "add a size", multiple = true, bulk = true)
+        @Argument(label = "size", pattern = "([0-9]+)k")
+        public void setSizes(final int[] sizes)
+        {
+            invocations++;
+            this.sizes = sizes;
+        }
+
+        @Option(longName = "file", description = "add a file", multiple = true, bulk = true)
+        public void setFiles(final String[] files)
+        {
+            invocations++;
+            this.files = files;
+        }
+
+        @Option(longName = "value", description = "add a value", multiple = true, bulk = true)
+        public void setValues(final List<?> values)
+        {
+            invocations++;
+            this.values = values;
+        }
+
+        @Override
+        public void run()
+        {
+            // Nothing to do
+        }
+    }
+
+    @Test
+    public void bulkOptions()
+    {
+        final BulkInputs launcher = Options.execute(BulkInputs.class, "--number", "1", "--name", "b", "--size",
+                "3k", "--number", "2", "--name", "a", "--name", "b", "--size", "4k", "--file", "f", "--value", "v")
+                .getKey();
+        Assert.assertEquals(launcher.invocations, 5);
+        Assert.assertEquals(launcher.numbers, Arrays.asList(1, 2));
+        Assert.assertEquals(new ArrayList<String>(launcher.names), Arrays.asList("b", "a"));
+        Assert.assertEquals(launcher.sizes, new int[] { 3, 4 });
+        Assert.assertEquals(launcher.files, new String[] { "f" });
+        Assert.assertEquals(launcher.values, Arrays.asList("v"));
+    }
+
+    @Test
+    public void bulkOptionsNotSpecified()
+    {
+        final BulkInputs launcher = Options.execute(BulkInputs.class, "--file", "f").getKey();
+        Assert.assertEquals(launcher.invocations, 1);
+        Assert.assertNull(launcher.numbers);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void bulkOptionConversionError()
+    {
+        Options.execute(BulkInputs.class, "--number", "1", "--number", "two");
+    }
+
+    @Command("java -jar something.jar")
+    public static final class ArrayInputs implements Runnable
+    {
+        private final List<List<String>> names = new ArrayList<List<String>>();
+
+        @Option(longName = "names", description = "add comma-separated names", multiple = true)
+        public void addNames(final String[] names)
+        {
+            this.names.add(Arrays.asList(names));
+        }
+
+        @Override
+        public void run()
+        {
+            // Nothing to do
+        }
+    }
+
+    @Test
+    public void arrayOptionWithConverter()
+    {
+        final ArrayInputs launcher = Options.execute(ArrayInputs.class, "--names", "a,b", "--names", "c").getKey();
+        Assert.assertEquals(launcher.names, Arrays.asList(Arrays.asList("a", "b"), Arrays.asList("c")));
+    }
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @AfterClass
+    public void shutdownExecutor()
+    {
+        executor.shutdown();
+    }
+
+    @Command("java -jar something.jar")
+    public static final class NumberInputs implements Runnable
+    {
+        private final List<Integer> numbers = new ArrayList<Integer>();
+        private final List<String> pairs = new ArrayList<String>();
+        private List<Long> bulkNumbers;
+
+        @Option(longName = "number", description = "add a number", multiple = true)
+        public void addNumber(final Integer number)
+        {
+            numbers.add(number);
+        }
+
+        @Option(longName = "numbers", description = "add numbers", multiple = true, bulk = true)
+        public void setNumbers(final List<Long> numbers)
+        {
+            bulkNumbers = numbers;
+        }
+
+        @Option(longName = "pair", description = "add a name with a size", multiple = true)
+        @Argument(label = "NAME:SIZE", pattern = "(.*):(.*)")
+        public void addPair(final String name, final int size)
+        {
+            pairs.add(name + size);
+        }
+
+        @Override
+        public void run()
+        {
+            // Nothing to do
+        }
+    }
+
+    @Test
+    public void parallelConversion()
+    {
+        final List<String> args = new ArrayList<String>();
+        final List<Integer> numbers = new ArrayList<Integer>();
+        final List<String> pairs = new ArrayList<String>();
+        final List<Long> bulkNumbers = new ArrayList<Long>();
+        for (int i = 0; i < 1000; i++)
+        {
+            args.addAll(Arrays.asList("--number", Integer.toString(i), "--pair", "p:" + i, "--numbers",
+                    Integer.toString(i)));
+            numbers.add(i);
+            pairs.add("p" + i);
+            bulkNumbers.add((long) i);
+        }
+
+        final NumberInputs launcher = Options.execute(NumberInputs.class, executor,
+                args.toArray(new String[args.size()])).getKey();
+        Assert.assertEquals(launcher.numbers, numbers);
+        Assert.assertEquals(launcher.pairs, pairs);
+        Assert.assertEquals(launcher.bulkNumbers, bulkNumbers);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class, expectedExceptionsMessageRegExp = ".*\"x\".*")
+    public void parallelConversionErrorOrder()
+    {
+        Options.execute(NumberInputs.class, executor, "--number", "1", "--number", "x", "--numbers", "y",
+                "--number", "z");
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class, expectedExceptionsMessageRegExp = ".*\"x\".*")
+    public void parallelConversionErrorBeforeParseError()
+    {
+        Options.execute(NumberInputs.class, executor, "--number", "x", "--unknown");
+    }
+
+    @Command("java -jar something.jar")
+    public static final class ExitCodeLauncher implements Runnable
+    {
+        private boolean run;
+
+        @Option(longName = "check", description = "check and exit", exit = true)
+        public int check()
+        {
+            return 3;
+        }
+
+        @Option(longName = "name", description = "name", required = true)
+        public void setName(final String name)
+        {
+            // Nothing to do
+        }
+
+        @Override
+        public void run()
+        {
+            run = true;
+        }
+    }
+
+    @Test
+    public void exitCode()
+    {
+        final Entry<ExitCodeLauncher, Integer> result = Options.execute(ExitCodeLauncher.class, "--name", "a",
+                "--check");
+        Assert.assertFalse(result.getKey().run);
+        Assert.assertEquals(result.getValue().intValue(), 3);
+    }
+
+    @Command("java -jar something.jar")
+    public static final class PrimitiveTypes implements Runnable
+    {
+        private boolean booleanValue;
+        private byte byteValue;
+        private char charValue;
+        private short shortValue;
+        private long longValue;
+        private float floatValue;
+        private double doubleValue;
+
+        @Option(longName = "boolean", description = "boolean")
+        public void setBoolean(final boolean value)
+        {
+            booleanValue = value;
+        }
+
+        @Option(longName = "byte", description = "byte")
+        public void setByte(final byte value)
+        {
+            byteValue = value;
+        }
+
+        @Option(longName = "char", description = "char")
+        public void setChar(final char value)
+        {
+            charValue = value;
+        }
+
+        @Option(longName = "short", description = "short")
+        public void setShort(final short value)
+        {
+            shortValue = value;
+        }
+
+        @Option(longName = "long", description = "long")
+        public void setLong(final long value)
+        {
+            longValue = value;
+        }
+
+        @Option(longName = "float", description = "float")
+        public void setFloat(final float value)
+        {
+            floatValue = value;
+        }
+
+        @Option(longName = "double", description = "double")
+        public void setDouble(final double value)
+        {
+            doubleValue = value;
+        }
+
+        @Override
+        public void run()
+        {
+            // Nothing to do
+        }
+    }
+
+    @Test
+    public void primitiveTypes()
+    {
+        final PrimitiveTypes launcher = Options.execute(PrimitiveTypes.class, "--boolean", "true", "--byte", "-12",
+                "--char", "c", "--short", "1234", "--long", "12345678901", "--float", "1.5", "--double", "-2.25")
+                .getKey();
+        Assert.assertTrue(launcher.booleanValue);
+        Assert.assertEquals(launcher.byteValue, (byte) -12);
+        Assert.assertEquals(launcher.charValue, 'c');
+        Assert.assertEquals(launcher.shortValue, (short) 1234);
+        Assert.assertEquals(launcher.longValue, 12345678901L);
+        Assert.assertEquals(launcher.floatValue, 1.5f);
+        Assert.assertEquals(launcher.doubleValue, -2.25);
+        // Not boxed
+        Assert.assertTrue(CommandModel.get(PrimitiveTypes.class).findOptionWithLongName("double").isPrimitive());
+    }
+
+    @Command("java -jar something.jar")
+    public static final class RejectingLauncher implements Runnable
+    {
+        @Option(longName = "name", description = "name")
+        public void setName(final String name)
+        {
+            throw new CommandLineException(4, "rejected name: %s", name);
+        }
+
+        @Option(longName = "count", description = "count")
+        public void setCount(final int count)
+        {
+            throw new CommandLineException(5, "rejected count: %s", count);
+        }
+
+        @Override
+        public void run()
+        {
+            // Nothing to do
+        }
+    }
+
+    /**
+     * @return the exception thrown by the execution of the command-line.
+     */
+    static CommandLineException getCommandLineException(final Class<? extends Runnable> launcherClass,
+            final String... args)
+    {
+        try
+        {
+            Options.execute(launcherClass, args);
+        }
+        catch (final CommandLineException e)
+        {
+            return e;
+        }
+        throw new AssertionError("no CommandLineException thrown");
+    }
+
+    @Test
+    public void optionCommandLineException()
+    {
+        final CommandLineException nameException = getCommandLineException(RejectingLauncher.class, "--name", "a");
+        Assert.assertEquals(nameException.exitCode(), 4);
+        Assert.assertEquals(nameException.getMessage(), "rejected name: a");
+
+        final CommandLineException countException = getCommandLineException(RejectingLauncher.class, "--count",
+                "1");
+        Assert.assertEquals(countException.exitCode(), 5);
+        Assert.assertEquals(countException.getMessage(), "rejected count: 1");
+    }
+
+    @Test
+    public void validate()
+    {
+        Assert.assertTrue(Options.validate(NumberInputs.class, "--number", "1", "--pair", "a:2").isEmpty());
+
+        final List<CommandLineError> errors = Options.validate(NumberInputs.class, "--number", "x", "--pair",
+                "a", "--numbers", "1", "--numbers", "y", "--unknown", "--number", "z");
+        Assert.assertEquals(errors.size(), 4);
+        Assert.assertEquals(errors.get(0).argumentIndex(), 1);
+        Assert.assertEquals(errors.get(0).option(), "--number");
+        Assert.assertEquals(errors.get(0).exitCode(), CommandLineError.USAGE);
+        Assert.assertTrue(errors.get(0).message().contains("\"x\""), errors.get(0).message());
+        Assert.assertEquals(errors.get(1).argumentIndex(), 3);
+        Assert.assertEquals(errors.get(1).option(), "--pair");
+        Assert.assertEquals(errors.get(2).argumentIndex(), 7);
+        Assert.assertEquals(errors.get(3).argumentIndex(), 8);
+        Assert.assertNull(errors.get(3).option());
+        Assert.assertEquals(errors.get(3).message(), "unknown option: --unknown");
+    }
+
+    @Test
+    public void validateRequiredOption()
+    {
+        final List<CommandLineError> errors = Options.validate(ExitCodeLauncher.class);
+        Assert.assertEquals(errors.size(), 1);
+        Assert.assertEquals(errors.get(0).argumentIndex(), -1);
+        Assert.assertEquals(errors.get(0).option(), "--name");
+
+        Assert.assertTrue(Options.validate(ExitCodeLauncher.class, "--name", "a", "--check").isEmpty());
+    }
+
+    @Test
+    public void validateDoesNotCreateLauncher()
+    {
+        Assert.assertTrue(Options.validate(FailingConstructor.class).isEmpty());
+    }
+
+    @Test
+    public void validateArgumentFile() throws IOException
+    {
+        final File file = newArgumentFile("--input a --input");
+        final List<CommandLineError> errors = Options.validate(MultipleInputs.class, "--input", "x", "@" + file);
+        Assert.assertEquals(errors.size(), 1);
+        Assert.assertEquals(errors.get(0).argumentIndex(), 2);
+        Assert.assertEquals(errors.get(0).message(), "missing an argument for option --input");
+
+        Assert.assertEquals(Options.validate(MultipleInputs.class, "--input", "x", "@missing-tc-opts.args").get(0)
+                .argumentIndex(), 2);
+    }
+
+    @Test
+    public void stacklessException()
+    {
+        final CommandLineException exception = new CommandLineError(0, "--name", "100% invalid", 4).toException();
+        Assert.assertEquals(exception.exitCode(), 4);
+        Assert.assertEquals(exception.getMessage(), "100% invalid");
+        Assert.assertEquals(exception.getStackTrace().length, 0);
+        Assert.assertTrue(new CommandLineException(1, "%s", "a").getStackTrace().length > 0);
+    }
+
+    @Command("java -jar something.jar")
+    public static final class ClusteredOptions implements Runnable
+    {
+        private boolean quiet;
+        private boolean verbose;
+        private final List<String> outputs = new ArrayList<String>();
+
+        @Option(shortName = "q", longName = "quiet", description = "quiet")
+        public void setQuiet()
+        {
+            quiet = true;
+        }
+
+        @Option(shortName = "v", longName = "verbose", description = "verbose")
+        public void setVerbose()
+        {
+            verbose = true;
+        }
+
+        @Option(shortName = "o", longName = "output", description = "add an output", multiple = true)
+        public void addOutput(final String output)
+        {
+            outputs.add(output);
+        }
+
+        @Override
+        public void run()
+        {
+            // Nothing to do
+        }
+    }
+
+    @Test
+    public void clusteredOptions()
+    {
+        final ClusteredOptions launcher = Options.execute(ClusteredOptions.class, "-qvoa", "-ob", "-o", "-c",
+                "--output=d=e", "--output=", "--output", "--", "--").getKey();
+        Assert.assertTrue(launcher.quiet);
+        Assert.assertTrue(launcher.verbose);
+        Assert.assertEquals(launcher.outputs, Arrays.asList("a", "b", "-c", "d=e", "", "--"));
+    }
+
+    @Test
+    public void clusteredOptionsErrors()
+    {
+        Assert.assertEquals(Options.validate(ClusteredOptions.class, "-qx").get(0).message(),
+                "unknown option: -x");
+        Assert.assertEquals(Options.validate(ClusteredOptions.class, "-vv").get(0).message(),
+                "duplicate option: -v");
+        Assert.assertEquals(Options.validate(ClusteredOptions.class, "--quiet=yes").get(0).message(),
+                "option --quiet does not take an argument");
+        Assert.assertEquals(Options.validate(ClusteredOptions.class, "--unknown=a").get(0).message(),
+                "unknown option: --unknown");
+        Assert.assertEquals(Options.validate(ClusteredOptions.class, "-qo").get(0).message(),
+                "missing an argument for option -o");
+        final List<CommandLineError> errors = Options.validate(ClusteredOptions.class, "-q", "--", "-v");
+        Assert.assertEquals(errors.get(0).message(), "unexpected argument: -v");
+        Assert.assertEquals(errors.get(0).argumentIndex(), 2);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class,
+            expectedExceptionsMessageRegExp = "unexpected argument: a")
+    public void nonOptionArgument()
+    {
+        Options.execute(ClusteredOptions.class, "-q", "a");
+    }
+
+    @Command("java -jar something.jar")
+    public static final class LazyInputs implements Runnable
+    {
+        private Lazy<Integer> number;
+        private final List<String> names = new ArrayList<String>();
+        private final List<Lazy<Integer>> sizes = new ArrayList<Lazy<Integer>>();
+
+        @Option(longName = "number", description = "set a number")
+        public void setNumber(final Lazy<Integer> number)
+        {
+            this.number = number;
+        }
+
+        @Option(longName = "pair", description = "add a name with a size", multiple = true)
+        @Argument(label = "NAME:SIZE", pattern = "(.*):(.*)")
+        public void addPair(final String name, final Lazy<Integer> size)
+        {
+            names.add(name);
+            sizes.add(size);
+        }
+
+        @Option(longName = "help", description = "help", exit = true)
+        public void help()
+        {
+            // Nothing to do
+        }
+
+        @Override
+        public void run()
+        {
+            // Nothing to do
+        }
+    }
+
+    @Test
+    public void lazyParameters()
+    {
+        final LazyInputs launcher = Options.execute(LazyInputs.class, "--number", "12", "--pair", "a:3", "--pair",
+                "b:x").getKey();
+        Assert.assertEquals(launcher.number.get(), Integer.valueOf(12));
+        Assert.assertSame(launcher.number.get(), launcher.number.get());
+        Assert.assertEquals(launcher.names, Arrays.asList("a", "b"));
+        Assert.assertEquals(launcher.sizes.get(0).get(), Integer.valueOf(3));
+        try
+        {
+            launcher.sizes.get(1).get();
+            Assert.fail();
+        }
+        catch (final IllegalArgumentException e)
+        {
+            // Reported on first access
+        }
+    }
+
+    @Test
+    public void lazyParametersNotConverted()
+    {
+        Assert.assertTrue(Options.validate(LazyInputs.class, "--number", "x", "--help").isEmpty());
+        Assert.assertEquals(Options.execute(LazyInputs.class, "--number", "x", "--help").getValue().intValue(), 0);
+        Assert.assertEquals(Options.validate(LazyInputs.class, "--pair", "a").size(), 1);
+    }
 }
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2026 Herve Quiroz
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.trancecode.opts;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.List;
+
+import org.testng.Assert;
+import org.testng.SkipException;
+import org.testng.annotations.Test;
+
+/**
+ * Tests for {@link ShellCompletion}.
+ * 
+ * @author Herve Quiroz
+ */
+public final class ShellCompletionTest
+{
+    @Command("tool")
+    public static final class ToolLauncher implements Runnable
+    {
+        @Option(shortName = "i", longName = "input", description = "add an input [file]", multiple = true, bulk = true)
+        @Argument(label = "FILE")
+        public void setInputs(final List<File> inputs)
+        {
+            // Nothing to do
+        }
+
+        @Option(shortName = "c", longName = "check", description = "check: it's on")
+        @Argument(label = "BOOLEAN")
+        public void setCheck(final boolean check)
+        {
+            // Nothing to do
+        }
+
+        @Option(longName = "name", description = "set the name")
+        @Argument(label = "NAME")
+        public void setName(final String name)
+        {
+            // Nothing to do
+        }
+
+        @Option(shortName = "q", description = "quiet")
+        public void setQuiet()
+        {
+            // Nothing to do
+        }
+
+        @Override
+        public void run()
+        {
+            // Nothing to do
+        }
+    }
+
+    /**
+     * @return the completions bash finds for the given words, the last of
+     *         which is being completed.
+     */
+    private static String completeWithBash(final String... words) throws IOException, InterruptedException
+    {
+        if (!new File("/bin/bash").canExecute())
+        {
+            throw new SkipException("bash is not available");
+        }
+
+        final StringBuilder script = new StringBuilder();
+        ShellCompletion.writeBashScript(ToolLauncher.class, "tool", script);
+        script.append("COMP_WORDS=(");
+        for (final String word : words)
+        {
+            script.append(" '").append(word).append('\'');
+        }
+        script.append(" )\nCOMP_CWORD=").append(words.length - 1).append('\n');
+        script.append("_tc_opts_tool\necho \"${COMPREPLY[*]}\"\n");
+
+        final Process process = new ProcessBuilder("/bin/bash", "-c", script.toString()).redirectErrorStream(true)
+                .start();
+        process.getOutputStream().close();
+        final InputStream in = process.getInputStream();
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[1024];
+        for (int length = in.read(buffer); length >= 0; length = in.read(buffer))
+        {
+            out.write(buffer, 0, length);
+        }
+        Assert.assertEquals(process.waitFor(), 0, out.toString("UTF-8"));
+        return out.toString("UTF-8").trim();
+    }
+
+    @Test
+    public void bashScript() throws IOException, InterruptedException
+    {
+        Assert.assertEquals(completeWithBash("tool", "-"), "-c --check -i --input --name -q");
+        Assert.assertEquals(completeWithBash("tool", "--n"), "--name");
+        Assert.assertEquals(completeWithBash("tool", "-c", ""), "true false");
+        Assert.assertEquals(completeWithBash("tool", "--check", "=", "f"), "false");
+        Assert.assertEquals(completeWithBash("tool", "--name", ""), "");
+
+        final File directory = File.createTempFile("tc-opts", "");
+        Assert.assertTrue(directory.delete() && directory.mkdir());
+        final File file = new File(directory, "input.txt");
+        Assert.assertTrue(file.createNewFile());
+        try
+        {
+            Assert.assertEquals(completeWithBash("tool", "-i", directory + "/in"), file.getPath());
+            Assert.assertEquals(completeWithBash("tool", "@" + directory + "/in"), "@" + file.getPath());
+        }
+        finally
+        {
+            file.delete();
+            directory.delete();
+        }
+    }
+
+    @Test
+    public void zshScript() throws IOException
+    {
+        final StringBuilder script = new StringBuilder();
+        ShellCompletion.writeZshScript(ToolLauncher.class, "tool", script);
+        final List<String> lines = Arrays.asList(script.toString().split("\n"));
+        Assert.assertEquals(lines.get(0), "#compdef tool");
+        Assert.assertEquals(lines.subList(4, lines.size()), Arrays.asList("_arguments -s -S \\",
+                "  '(-c --check)'{-c+,--check=}'[check\\: it'\\''s on]:BOOLEAN:(true false)' \\",
+                "  '*'{-i+,--input=}'[add an input \\[file\\]]:FILE:_files' \\",
+                "  --name='[set the name]:NAME: ' \\",
+                "  -q'[quiet]'"));
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void invalidCommandName() throws IOException
+    {
+        ShellCompletion.writeBashScript(ToolLauncher.class, "tool; rm", new StringBuilder());
+    }
+}
@@ -0,0 +1,193 @@
+/*
+ * Copyright 2026 Herve Quiroz
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.trancecode.opts;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map.Entry;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * Tests for {@link Subcommand}, with the index in the test resources.
+ * 
+ * @author Herve Quiroz
+ */
+public final class SubcommandTest
+{
+    private static volatile boolean deployLoaded;
+
+    @Command("tool")
+    public static class Tool implements Runnable
+    {
+        String directory;
+        boolean ran;
+
+        @Option(shortName = "C", longName = "directory", description = "run in a directory")
+        @Argument(label = "DIR")
+        public void setDirectory(final String directory)
+        {
+            this.directory = directory;
+        }
+
+        @Override
+        public void run()
+        {
+            ran = true;
+        }
+    }
+
+    @Command("tool build")
+    @Subcommand(parent = Tool.class, name = "build")
+    public static final class Build extends Tool
+    {
+        private final List<String> targets = new ArrayList<String>();
+
+        @Option(shortName = "t", longName = "target", description = "add a target", multiple = true)
+        public void addTarget(final String target)
+        {
+            targets.add(target);
+        }
+
+        @Option(longName = "jobs", description = "number of jobs", required = true)
+        public void setJobs(final int jobs)
+        {
+            // Nothing to do
+        }
+    }
+
+    @Command("tool clean")
+    @Subcommand(parent = Tool.class, name = "clean")
+    public static final class Clean extends Tool
+    {
+        // No option of its own
+    }
+
+    @Command("tool deploy")
+    @Subcommand(parent = Tool.class, name = "deploy")
+    public static final class Deploy extends Tool
+    {
+        static
+        {
+            deployLoaded = true;
+        }
+    }
+
+    @Test
+    public void subcommand()
+    {
+        final Entry<Tool, Integer> result = Options.execute(Tool.class, "-C", "a", "build", "--jobs", "2", "-t",
+                "x", "--target", "y");
+        Assert.assertEquals(result.getValue().intValue(), 0);
+        final Build build = (Build) result.getKey();
+        Assert.assertTrue(build.ran);
+        Assert.assertEquals(build.directory, "a");
+        Assert.assertEquals(build.targets, Arrays.asList("x", "y"));
+    }
+
+    @Test
+    public void globalOptionAfterSubcommand()
+    {
+        final Tool tool = Options.execute(Tool.class, "clean", "--directory=b").getKey();
+        Assert.assertTrue(tool instanceof Clean);
+        Assert.assertEquals(tool.directory, "b");
+    }
+
+    @Test
+    public void noSubcommand()
+    {
+        final Tool tool = Options.execute(Tool.class, "-C", "c").getKey();
+        Assert.assertEquals(tool.getClass(), Tool.class);
+        Assert.assertTrue(tool.ran);
+        Assert.assertEquals(tool.directory, "c");
+    }
+
+    @Test
+    public void onlySelectedSubcommandLoaded()
+    {
+        Assert.assertTrue(Options.execute(Tool.class, "clean").getKey() instanceof Clean);
+        Assert.assertFalse(deployLoaded);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class, expectedExceptionsMessageRegExp = "unknown subcommand: "
+            + "test")
+    public void unknownSubcommand()
+    {
+        Options.execute(Tool.class, "-C", "a", "test");
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class, expectedExceptionsMessageRegExp = "unknown option: "
+            + "--jobs")
+    public void subcommandOptionBeforeSubcommand()
+    {
+        Options.execute(Tool.class, "--jobs", "2", "build");
+    }
+
+    @Test
+    public void validate()
+    {
+        Assert.assertTrue(Options.validate(Tool.class, "-C", "a", "build", "--jobs", "2").isEmpty());
+
+        final List<CommandLineError> errors = Options.validate(Tool.class, "-C", "a", "build", "--jobs", "x");
+        Assert.assertEquals(errors.size(), 1);
+        // Index on the command-line of the parent command
+        Assert.assertEquals(errors.get(0).argumentIndex(), 4);
+        Assert.assertEquals(errors.get(0).option(), "--jobs");
+
+        Assert.assertEquals(Options.validate(Tool.class, "-C", "a", "test").get(0).message(),
+                "unknown subcommand: test");
+    }
+
+    @Test
+    public void argumentFile() throws IOException
+    {
+        // The subcommand reads on from the argument file the parent read its name from
+        final File file = OptionsTest.newArgumentFile("-C a build --jobs 2\n-t x");
+        final Build build = (Build) Options.execute(Tool.class, "@" + file, "--target", "y").getKey();
+        Assert.assertEquals(build.directory, "a");
+        Assert.assertEquals(build.targets, Arrays.asList("x", "y"));
+
+        final File buildFile = OptionsTest.newArgumentFile("build -t x");
+        final List<CommandLineError> errors = Options.validate(Tool.class, "-C", "a", "@" + buildFile, "--jobs",
+                "x");
+        Assert.assertEquals(errors.size(), 1);
+        Assert.assertEquals(errors.get(0).argumentIndex(), 4);
+        Assert.assertEquals(errors.get(0).option(), "--jobs");
+    }
+
+    @Test
+    public void missingArgumentFile()
+    {
+        final List<CommandLineError> errors = Options.validate(Tool.class, "-C", "a", "@missing.args", "build");
+        Assert.assertEquals(errors.size(), 1);
+        Assert.assertEquals(errors.get(0).argumentIndex(), 2);
+        Assert.assertTrue(errors.get(0).message().startsWith("cannot read argument file"), errors.get(0).message());
+    }
+
+    @Test
+    public void syntax() throws IOException
+    {
+        final StringBuilder syntax = new StringBuilder();
+        Options.printSyntax(Tool.class, syntax);
+        Assert.assertTrue(syntax.toString().trim().endsWith("\n\nsubcommands: build clean deploy"), syntax
+                .toString());
+        Assert.assertFalse(deployLoaded);
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2026 Herve Quiroz
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.trancecode.opts;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+
+import org.testng.SkipException;
+
+/**
+ * Compiles launchers declaring any number of {@code --optionN} switches, to
+ * exercise launchers far bigger than hand-written ones.
+ * 
+ * @author Herve Quiroz
+ */
+final class SyntheticLaunchers
+{
+    private static final String PACKAGE = "org.trancecode.opts.synthetic";
+
+    private SyntheticLaunchers()
+    {
+        // No instantiation
+    }
+
+    /**
+     * @return a launcher class with {@code optionCount} switches, loaded by a
+     *         class loader of its own.
+     */
+    static Class<? extends Runnable> compile(final int optionCount) throws IOException, URISyntaxException,
+            ClassNotFoundException
+    {
+        final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null)
+        {
+            throw new SkipException("no Java compiler");
+        }
+
+        final File directory = File.createTempFile("tc-opts", ".synthetic");
+        Preconditions.checkState(directory.delete() && directory.mkdir(), "cannot create %s", directory);
+        directory.deleteOnExit();
+        final String className = "SyntheticLauncher" + optionCount;
+        final File sourceFile = new File(directory, className + ".java");
+        sourceFile.deleteOnExit();
+        final Writer writer = new OutputStreamWriter(new FileOutputStream(sourceFile), "UTF-8");
+        try
+        {
+            writer.append("package ").append(PACKAGE).append(";\n");
+            writer.append("@org.trancecode.opts.Command(\"synthetic\")\n");
+            writer.append("public final class ").append(className).append(" implements Runnable {\n");
+            for (int i = 0; i < optionCount; i++)
+            {
+                writer.append("@org.trancecode.opts.Option(longName = \"option" + i + "\", description = \"option #"
+                        + i + "\", multiple = true)\n");
+                writer.append("public void option" + i + "() {}\n");
+            }
+            writer.append("public void run() {}\n}\n");
+        }
+        finally
+        {
+            writer.close();
+        }
+
+        final String classPath = new File(Command.class.getProtectionDomain().getCodeSource().getLocation().toURI())
+                .getPath();
+        Preconditions.checkState(compiler.run(null, null, null, "-proc:none", "-nowarn", "-classpath", classPath,
+                "-d", directory.getPath(), sourceFile.getPath()) == 0, "cannot compile %s", sourceFile);
+        final File classFile = new File(directory, PACKAGE.replace('.', File.separatorChar) + File.separator
+                + className + ".class");
+        for (File file = classFile; !file.equals(directory); file = file.getParentFile())
+        {
+            file.deleteOnExit();
+        }
+
+        final ClassLoader classLoader = new URLClassLoader(new URL[] { directory.toURI().toURL() },
+                SyntheticLaunchers.class.getClassLoader());
+        return classLoader.loadClass(PACKAGE + "." + className).asSubclass(Runnable.class);
+    }
+}
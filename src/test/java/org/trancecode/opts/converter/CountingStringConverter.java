@@ -0,0 +1,66 @@
+/*
+ * Copyright 2026 Herve Quiroz
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.trancecode.opts.converter;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Converter only listed in the test converter index, which counts its
+ * instances.
+ * 
+ * @author Herve Quiroz
+ */
+public final class CountingStringConverter extends AbstractStringConverter
+{
+    static final AtomicInteger INSTANCES = new AtomicInteger();
+
+    /**
+     * Base class, so that the converted type is not the closest subtype of
+     * {@link Object}.
+     */
+    public static class Base
+    {
+        // Empty
+    }
+
+    public static final class Value extends Base
+    {
+        private final String string;
+
+        private Value(final String string)
+        {
+            this.string = string;
+        }
+
+        @Override
+        public String toString()
+        {
+            return string;
+        }
+    }
+
+    public CountingStringConverter()
+    {
+        super(Value.class);
+        INSTANCES.incrementAndGet();
+    }
+
+    @Override
+    public Object convert(final String string, final Class<?> type)
+    {
+        return new Value(string);
+    }
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright 2026 Herve Quiroz
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.trancecode.opts.converter;
+
+/**
+ * Converter only listed in the test converter index, which converts a
+ * comma-separated list to a {@code String[]}.
+ * 
+ * @author Herve Quiroz
+ */
+public final class SplittingStringConverter extends AbstractStringConverter
+{
+    public SplittingStringConverter()
+    {
+        super(String[].class);
+    }
+
+    @Override
+    public Object convert(final String string, final Class<?> type)
+    {
+        return string.split(",");
+    }
+}
@@ -15,9 +15,18 @@
  */
 package org.trancecode.opts.converter;
 
+import java.io.BufferedReader;
 import java.io.File;
+import java.io.InputStreamReader;
 import java.net.URI;
 import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 import javax.xml.namespace.QName;
 
@@ -31,12 +40,38 @@ import org.testng.annotations.Test;
  */
 public final class StringConvertersTest
 {
+    /**
+     * Supertypes of the built-in source types added after Java 6, left out of
+     * the built-in index.
+     */
+    private static final Set<String> NEWER_SUPERTYPE_NAMES = new HashSet<String>(Arrays.asList(
+            "java.lang.constant.Constable", "java.lang.constant.ConstantDesc"));
+
     @Test
     public void doubleValue()
     {
         Assert.assertEquals(StringConverters.convert("1.0", Double.TYPE), 1.0);
     }
 
+    @Test
+    public void primitiveValues()
+    {
+        Assert.assertEquals(StringConverters.convertToBoolean("true"), true);
+        Assert.assertEquals(StringConverters.convertToByte("12"), (byte) 12);
+        Assert.assertEquals(StringConverters.convertToChar("c"), 'c');
+        Assert.assertEquals(StringConverters.convertToDouble("1.5"), 1.5);
+        Assert.assertEquals(StringConverters.convertToFloat("1.5"), 1.5f);
+        Assert.assertEquals(StringConverters.convertToInt("123"), 123);
+        Assert.assertEquals(StringConverters.convertToLong("12345678901"), 12345678901L);
+        Assert.assertEquals(StringConverters.convertToShort("123"), (short) 123);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void primitiveValueError()
+    {
+        StringConverters.convertToInt("abc");
+    }
+
     @Test
     public void stringValue()
     {
@@ -49,6 +84,133 @@ public final class StringConvertersTest
         StringConverters.convert("1", Number.class);
     }
 
+    @Test
+    public void indexedConverterIsLoadedOnFirstUse()
+    {
+        Assert.assertEquals(CountingStringConverter.INSTANCES.get(), 0);
+        Assert.assertEquals(StringConverters.convert("abc", CountingStringConverter.Value.class).toString(), "abc");
+        Assert.assertEquals(StringConverters.convert("def", CountingStringConverter.Base.class).toString(), "def");
+        Assert.assertEquals(CountingStringConverter.INSTANCES.get(), 1);
+    }
+
+    @Test
+    public void closestSubtype()
+    {
+        // String, File, QName, URI and URL are all direct subclasses of
+        // Object: the first registered converter wins
+        Assert.assertEquals(StringConverters.convert("abc", Object.class), "abc");
+        Assert.assertEquals(StringConverters.convert("abc", CharSequence.class), "abc");
+    }
+
+    @Test
+    public void indexedSupertypes()
+    {
+        Assert.assertEquals(StringConverters.convert("abc", Comparable.class), "abc");
+        Assert.assertEquals(StringConverters.convert("1", Number.class).getClass().getSuperclass(), Number.class);
+        Assert.assertEquals(ConverterIndex.load(getClass().getClassLoader()).getSupertypeNames("java.lang.Integer")
+                .contains(Number.class.getName()), true);
+    }
+
+    /**
+     * The built-in index is written by hand: it must match the converters
+     * registered as services, and the supertypes of their source types.
+     */
+    @Test
+    public void builtInConverterIndex() throws Exception
+    {
+        final URL location = StringConverters.class.getProtectionDomain().getCodeSource().getLocation();
+        final ConverterIndex index = ConverterIndex.load(new URLClassLoader(new URL[] { location }, null));
+        Assert.assertEquals(index.getUnindexedConverterNames(), Collections.emptyList());
+
+        final List<String> typeNames = new ArrayList<String>();
+        for (final String typeName : index.getTypeNames())
+        {
+            typeNames.add(typeName);
+        }
+        final List<String> sourceTypeNames = new ArrayList<String>();
+        for (final String converterName : getServiceConverterNames())
+        {
+            final StringConverter converter = (StringConverter) Class.forName(converterName).newInstance();
+            for (final Class<?> sourceType : converter.getSourceTypes())
+            {
+                sourceTypeNames.add(sourceType.getName());
+                Assert.assertEquals(index.getConverterName(sourceType.getName()), converterName);
+                if (!sourceType.isPrimitive())
+                {
+                    final Set<String> supertypeNames = getSupertypeNames(sourceType);
+                    supertypeNames.removeAll(NEWER_SUPERTYPE_NAMES);
+                    Assert.assertEquals(index.getSupertypeNames(sourceType.getName()), supertypeNames,
+                            sourceType.getName());
+                }
+            }
+        }
+        Assert.assertEquals(typeNames, sourceTypeNames);
+    }
+
+    private static List<String> getServiceConverterNames() throws Exception
+    {
+        final URL services = StringConverters.class.getResource("/META-INF/services/"
+                + StringConverter.class.getName());
+        final List<String> converterNames = new ArrayList<String>();
+        final BufferedReader reader = new BufferedReader(new InputStreamReader(services.openStream(), "UTF-8"));
+        try
+        {
+            for (String line = reader.readLine(); line != null; line = reader.readLine())
+            {
+                if (line.trim().length() > 0 && !line.trim().startsWith("#"))
+                {
+                    converterNames.add(line.trim());
+                }
+            }
+        }
+        finally
+        {
+            reader.close();
+        }
+        return converterNames;
+    }
+
+    /**
+     * @return the names of all the supertypes of the type, {@link Object}
+     *         excepted.
+     */
+    private static Set<String> getSupertypeNames(final Class<?> type)
+    {
+        final Set<String> supertypeNames = new HashSet<String>();
+        final List<Class<?>> types = new ArrayList<Class<?>>(Arrays.asList(type.getInterfaces()));
+        if (type.getSuperclass() != null)
+        {
+            types.add(type.getSuperclass());
+        }
+        while (!types.isEmpty())
+        {
+            final Class<?> supertype = types.remove(types.size() - 1);
+            if (supertype != Object.class && supertypeNames.add(supertype.getName()))
+            {
+                Collections.addAll(types, supertype.getInterfaces());
+                if (supertype.getSuperclass() != null)
+                {
+                    types.add(supertype.getSuperclass());
+                }
+            }
+        }
+        return supertypeNames;
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void unsupportedType()
+    {
+        try
+        {
+            StringConverters.convert("abc", Thread.class);
+        }
+        catch (final IllegalArgumentException e)
+        {
+            // Same result once the missing converter is cached
+            StringConverters.convert("abc", Thread.class);
+        }
+    }
+
     @Test
     public void qnameValue()
     {
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2026 Herve Quiroz
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.trancecode.opts.benchmark;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.trancecode.opts.Options;
+
+/**
+ * {@link Options#execute(Class, String...)} with millions of option
+ * occurrences read from an {@code @file}, compared with the same arguments
+ * passed as an array, with a streaming option and with a bulk option.
+ * 
+ * @author Herve Quiroz
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@Fork(1)
+public class ArgumentFileBenchmark
+{
+    @Param({ "100000", "2000000" })
+    public int entryCount;
+
+    private File file;
+    private String[] arguments;
+
+    @Setup
+    public void setUp() throws IOException
+    {
+        file = File.createTempFile("tc-opts-benchmark", ".args");
+        final Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), "UTF-8"));
+        try
+        {
+            for (int i = 0; i < entryCount; i++)
+            {
+                writer.write("-a name");
+                writer.write(Integer.toString(i));
+                writer.write('\n');
+            }
+        }
+        finally
+        {
+            writer.close();
+        }
+
+        arguments = new String[entryCount * 2];
+        for (int i = 0; i < entryCount; i++)
+        {
+            arguments[i * 2] = "-a";
+            arguments[i * 2 + 1] = "name" + i;
+        }
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        file.delete();
+    }
+
+    @Benchmark
+    public Object argumentFile()
+    {
+        return Options.execute(SmallLauncher.class, "@" + file.getPath()).getKey();
+    }
+
+    @Benchmark
+    public Object streamingArgumentFile()
+    {
+        return Options.execute(StreamingLauncher.class, "@" + file.getPath()).getKey();
+    }
+
+    @Benchmark
+    public Object array()
+    {
+        return Options.execute(SmallLauncher.class, arguments).getKey();
+    }
+
+    @Benchmark
+    public Object bulkArray()
+    {
+        return Options.execute(BulkLauncher.class, arguments).getKey();
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2026 Herve Quiroz
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.trancecode.opts.benchmark;
+
+import java.util.List;
+
+import org.trancecode.opts.Argument;
+import org.trancecode.opts.Command;
+import org.trancecode.opts.Option;
+
+/**
+ * Receives all the names it is given in a single list.
+ * 
+ * @author Herve Quiroz
+ */
+@Command("java -jar bulk.jar")
+public final class BulkLauncher implements Runnable
+{
+    private List<String> names;
+
+    @Option(shortName = "a", longName = "add", description = "add names", multiple = true, bulk = true)
+    @Argument(label = "NAME")
+    public void setNames(final List<String> names)
+    {
+        this.names = names;
+    }
+
+    @Override
+    public void run()
+    {
+        if (names == null)
+        {
+            throw new IllegalStateException();
+        }
+    }
+}
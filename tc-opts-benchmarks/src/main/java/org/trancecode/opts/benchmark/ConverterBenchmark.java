@@ -0,0 +1,96 @@
+/*
+ * Copyright 2026 Herve Quiroz
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.trancecode.opts.benchmark;
+
+import java.io.File;
+import java.net.URI;
+import java.net.URL;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.namespace.QName;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.trancecode.opts.converter.StringConverters;
+
+/**
+ * Throughput of {@link StringConverters#convert(String, Class)} for the types
+ * supported by each built-in converter.
+ * 
+ * @author Herve Quiroz
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConverterBenchmark
+{
+    private static final Map<String, Class<?>> TYPES = new HashMap<String, Class<?>>();
+    private static final Map<String, String> VALUES = new HashMap<String, String>();
+
+    static
+    {
+        addType(Boolean.TYPE, "true");
+        addType(Integer.TYPE, "123");
+        addType(Integer.class, "123");
+        addType(Double.TYPE, "1.5");
+        addType(String.class, "abc");
+        addType(Number.class, "123");
+        addType(File.class, "pom.xml");
+        addType(URI.class, "http://www.trancecode.org/");
+        addType(URL.class, "http://www.trancecode.org/");
+        addType(QName.class, "{http://www.trancecode.org/}name");
+    }
+
+    private static void addType(final Class<?> type, final String value)
+    {
+        TYPES.put(type.getName(), type);
+        VALUES.put(type.getName(), value);
+    }
+
+    @Param({ "boolean", "int", "java.lang.Integer", "double", "java.lang.String", "java.lang.Number", "java.io.File",
+            "java.net.URI", "java.net.URL", "javax.xml.namespace.QName" })
+    public String typeName;
+
+    private Class<?> type;
+    private String value;
+
+    @Setup
+    public void setUp()
+    {
+        type = TYPES.get(typeName);
+        value = VALUES.get(typeName);
+    }
+
+    @Benchmark
+    public Object convert()
+    {
+        return StringConverters.convert(value, type);
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2026 Herve Quiroz
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.trancecode.opts.benchmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.trancecode.opts.Options;
+
+/**
+ * Throughput of {@link Options#execute(Class, String...)} for small, inherited
+ * and large launchers, with short and huge command-lines.
+ * 
+ * @author Herve Quiroz
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExecuteBenchmark
+{
+    @Param({ "10", "10000" })
+    public int argumentCount;
+
+    private String[] smallArguments;
+    private String[] inheritedArguments;
+    private String[] largeArguments;
+    private String[] patternArguments;
+
+    /**
+     * @return the prefix followed by as many repetitions of the option as
+     *         needed to get {@link #argumentCount} arguments.
+     */
+    private String[] getArguments(final List<String> prefix, final String option, final String... values)
+    {
+        final List<String> arguments = new ArrayList<String>(prefix);
+        for (int i = 0; arguments.size() < argumentCount; i++)
+        {
+            arguments.add(option);
+            arguments.add(values[i % values.length]);
+        }
+        return arguments.toArray(new String[arguments.size()]);
+    }
+
+    @Setup
+    public void setUp()
+    {
+        smallArguments = getArguments(Arrays.asList("-s", "abc", "--int", "123", "-f"), "-a", "name1", "name2");
+        inheritedArguments = getArguments(Arrays.asList("-q"), "--define", "name1", "name2");
+        patternArguments = getArguments(Arrays.asList("-s", "abc"), "--pair", "abc=1", "def=2");
+
+        final Random random = new Random(argumentCount);
+        final List<String> largeArguments = new ArrayList<String>();
+        while (largeArguments.size() < argumentCount)
+        {
+            largeArguments.add("--option" + random.nextInt(LargeLauncher.OPTION_COUNT));
+            largeArguments.add("value");
+        }
+        this.largeArguments = largeArguments.toArray(new String[largeArguments.size()]);
+    }
+
+    @Benchmark
+    public Object small()
+    {
+        return Options.execute(SmallLauncher.class, smallArguments).getKey();
+    }
+
+    @Benchmark
+    public Object inherited()
+    {
+        return Options.execute(InheritedLauncher.class, inheritedArguments).getKey();
+    }
+
+    @Benchmark
+    public Object large()
+    {
+        return Options.execute(LargeLauncher.class, largeArguments).getKey();
+    }
+
+    @Benchmark
+    public Object multiGroupPattern()
+    {
+        return Options.execute(SmallLauncher.class, patternArguments).getKey();
+    }
+}
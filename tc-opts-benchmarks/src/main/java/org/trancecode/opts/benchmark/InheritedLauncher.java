@@ -0,0 +1,49 @@
+/*
+ * Copyright 2026 Herve Quiroz
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.trancecode.opts.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.trancecode.opts.AbstractLauncher;
+import org.trancecode.opts.Argument;
+import org.trancecode.opts.Command;
+import org.trancecode.opts.Option;
+
+/**
+ * A launcher inheriting the help, quiet and verbose options of
+ * {@link AbstractLauncher}, handled through reflection.
+ * 
+ * @author Herve Quiroz
+ */
+@Command("java -jar inherited.jar")
+public final class InheritedLauncher extends AbstractLauncher implements Runnable
+{
+    private final List<String> definitions = new ArrayList<String>();
+
+    @Option(shortName = "d", longName = "define", description = "define a property", multiple = true)
+    @Argument(label = "NAME")
+    public void define(final String definition)
+    {
+        definitions.add(definition);
+    }
+
+    @Override
+    public void run()
+    {
+        // nothing
+    }
+}
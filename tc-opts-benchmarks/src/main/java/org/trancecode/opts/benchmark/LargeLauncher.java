@@ -0,0 +1,43 @@
+/*
+ * Copyright 2026 Herve Quiroz
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.trancecode.opts.benchmark;
+
+import org.trancecode.opts.Command;
+
+/**
+ * A launcher with {@value #OPTION_COUNT} options {@code --optionN VALUE},
+ * declared by {@link LargeLauncher_TcOpts}.
+ * 
+ * @author Herve Quiroz
+ */
+@Command("java -jar large.jar")
+public final class LargeLauncher implements Runnable
+{
+    public static final int OPTION_COUNT = 500;
+
+    private final String[] values = new String[OPTION_COUNT];
+
+    void setValue(final int option, final String value)
+    {
+        values[option] = value;
+    }
+
+    @Override
+    public void run()
+    {
+        // nothing
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2026 Herve Quiroz
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.trancecode.opts.benchmark;
+
+import org.trancecode.opts.GeneratedCommand;
+
+/**
+ * Declares the options of {@link LargeLauncher}, as the annotation processor
+ * would for as many {@code @Option} methods.
+ * 
+ * @author Herve Quiroz
+ */
+public final class LargeLauncher_TcOpts extends GeneratedCommand<LargeLauncher>
+{
+    public LargeLauncher_TcOpts()
+    {
+        super(LargeLauncher.class);
+        for (int i = 0; i < LargeLauncher.OPTION_COUNT; i++)
+        {
+            option("", "option" + i, "option #" + i, false, false, true, "VALUE", "(.*)", String.class);
+        }
+    }
+
+    @Override
+    public LargeLauncher newLauncher()
+    {
+        return new LargeLauncher();
+    }
+
+    @Override
+    public Object invoke(final LargeLauncher launcher, final int option, final Object[] parameters)
+    {
+        launcher.setValue(option, (String) parameters[0]);
+        return null;
+    }
+}
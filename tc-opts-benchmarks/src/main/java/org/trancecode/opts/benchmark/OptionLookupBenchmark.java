@@ -0,0 +1,75 @@
+/*
+ * Copyright 2026 Herve Quiroz
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.trancecode.opts.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.trancecode.opts.Options;
+
+/**
+ * Time per argument of {@link Options#execute(Class, String...)} for
+ * launchers with an increasing number of options. With indexed option lookup
+ * the time should stay flat as the option count grows.
+ * 
+ * @author Herve Quiroz
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OptionLookupBenchmark
+{
+    private static final int ARGUMENT_COUNT = 10000;
+
+    @Param({ "10", "100", "1000" })
+    public int optionCount;
+
+    private String[] arguments;
+
+    @Setup
+    public void setUp()
+    {
+        SyntheticLauncher.optionCount = optionCount;
+        final Random random = new Random(optionCount);
+        arguments = new String[ARGUMENT_COUNT];
+        for (int i = 0; i < arguments.length; i++)
+        {
+            arguments[i] = "--option" + random.nextInt(optionCount);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ARGUMENT_COUNT)
+    public Object execute()
+    {
+        return Options.execute(SyntheticLauncher.class, arguments).getKey();
+    }
+}
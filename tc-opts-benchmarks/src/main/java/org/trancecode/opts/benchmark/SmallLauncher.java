@@ -0,0 +1,83 @@
+/*
+ * Copyright 2026 Herve Quiroz
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.trancecode.opts.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.trancecode.opts.Argument;
+import org.trancecode.opts.Command;
+import org.trancecode.opts.Option;
+
+/**
+ * A typical hand-written launcher with a few options, handled through
+ * reflection.
+ * 
+ * @author Herve Quiroz
+ */
+@Command("java -jar small.jar")
+public final class SmallLauncher implements Runnable
+{
+    private final List<String> names = new ArrayList<String>();
+    private String string;
+    private int number;
+    private boolean flag;
+    private int size;
+
+    @Option(shortName = "s", longName = "string", description = "some String value")
+    @Argument(label = "VALUE")
+    public void setString(final String string)
+    {
+        this.string = string;
+    }
+
+    @Option(shortName = "i", longName = "int", description = "some int value")
+    @Argument(label = "NUMBER")
+    public void setNumber(final int number)
+    {
+        this.number = number;
+    }
+
+    @Option(shortName = "f", longName = "flag", description = "some switch")
+    public void setFlag()
+    {
+        flag = true;
+    }
+
+    @Option(shortName = "a", longName = "add", description = "add a name", multiple = true)
+    @Argument(label = "NAME")
+    public void addName(final String name)
+    {
+        names.add(name);
+    }
+
+    @Option(longName = "pair", description = "add a name with a size", multiple = true)
+    @Argument(label = "NAME=SIZE", pattern = "([a-zA-Z]+)=([0-9]+)")
+    public void addPair(final String name, final int size)
+    {
+        names.add(name);
+        this.size += size;
+    }
+
+    @Override
+    public void run()
+    {
+        if (flag && string == null && number < 0 && size < 0)
+        {
+            throw new IllegalStateException();
+        }
+    }
+}
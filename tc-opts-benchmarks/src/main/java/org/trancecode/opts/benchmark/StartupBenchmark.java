@@ -0,0 +1,58 @@
+/*
+ * Copyright 2026 Herve Quiroz
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.trancecode.opts.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.trancecode.opts.Options;
+import org.trancecode.opts.converter.StringConverters;
+
+/**
+ * Cost of the first conversion and of the first execution in a fresh JVM.
+ * Run with {@code -prof cl} to get the number of classes loaded:
+ * 
+ * <pre>
+ * mvn -P benchmark verify -Djmh.args="StartupBenchmark -prof cl"
+ * </pre>
+ * 
+ * @author Herve Quiroz
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(20)
+public class StartupBenchmark
+{
+    @Benchmark
+    public int convertInt()
+    {
+        return StringConverters.convertToInt("32");
+    }
+
+    @Benchmark
+    public Object executeSmall()
+    {
+        return Options.execute(SmallLauncher.class, "--int", "32", "--flag").getKey();
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2026 Herve Quiroz
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.trancecode.opts.benchmark;
+
+import org.trancecode.opts.Argument;
+import org.trancecode.opts.Command;
+import org.trancecode.opts.Option;
+
+/**
+ * Counts the names it is given as they are parsed, without keeping them.
+ * 
+ * @author Herve Quiroz
+ */
+@Command("java -jar streaming.jar")
+public final class StreamingLauncher implements Runnable
+{
+    private int nameCount;
+
+    @Option(shortName = "a", longName = "add", description = "add a name", multiple = true, streaming = true)
+    @Argument(label = "NAME")
+    public void addName(final String name)
+    {
+        nameCount++;
+    }
+
+    @Override
+    public void run()
+    {
+        if (nameCount < 0)
+        {
+            throw new IllegalStateException();
+        }
+    }
+}
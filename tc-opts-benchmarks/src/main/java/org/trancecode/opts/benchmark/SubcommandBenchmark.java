@@ -0,0 +1,109 @@
+/*
+ * Copyright 2026 Herve Quiroz
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.trancecode.opts.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.trancecode.opts.Argument;
+import org.trancecode.opts.Command;
+import org.trancecode.opts.Option;
+import org.trancecode.opts.Options;
+import org.trancecode.opts.Subcommand;
+
+/**
+ * Cost of the first execution of a subcommand in a fresh JVM, for a command
+ * with 1 subcommand and for one with 200. The other subcommands of the
+ * index, in {@code META-INF/tc-opts/subcommands/}, name classes that do not
+ * exist: they are never loaded. Run with {@code -prof cl} to get the number
+ * of classes loaded:
+ * 
+ * <pre>
+ * mvn -P benchmark verify -Djmh.args="SubcommandBenchmark -prof cl"
+ * </pre>
+ * 
+ * @author Herve Quiroz
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(20)
+public class SubcommandBenchmark
+{
+    @Command("tool")
+    public static class Tool implements Runnable
+    {
+        @Option(shortName = "C", longName = "directory", description = "run in a directory")
+        @Argument(label = "DIR")
+        public void setDirectory(final String directory)
+        {
+            // Nothing to do
+        }
+
+        @Override
+        public void run()
+        {
+            // Nothing to do
+        }
+    }
+
+    @Command("tool build")
+    @Subcommand(parent = Tool.class, name = "build")
+    public static final class Build extends Tool
+    {
+        @Option(longName = "jobs", description = "number of jobs")
+        public void setJobs(final int jobs)
+        {
+            // Nothing to do
+        }
+    }
+
+    @Command("large")
+    public static class LargeTool extends Tool
+    {
+        // Same options
+    }
+
+    @Command("large build")
+    @Subcommand(parent = LargeTool.class, name = "build")
+    public static final class LargeBuild extends LargeTool
+    {
+        @Option(longName = "jobs", description = "number of jobs")
+        public void setJobs(final int jobs)
+        {
+            // Nothing to do
+        }
+    }
+
+    @Benchmark
+    public Object executeSubcommandOf1()
+    {
+        return Options.execute(Tool.class, "-C", "a", "build", "--jobs", "2").getKey();
+    }
+
+    @Benchmark
+    public Object executeSubcommandOf200()
+    {
+        return Options.execute(LargeTool.class, "-C", "a", "build", "--jobs", "2").getKey();
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2026 Herve Quiroz
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.trancecode.opts.benchmark;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.trancecode.opts.Options;
+
+/**
+ * Throughput of {@link Options#printSyntax(Class)}, with the standard error
+ * stream discarded, and of {@link Options#printSyntax(Class, Appendable)}.
+ * 
+ * @author Herve Quiroz
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SyntaxBenchmark
+{
+    @Param({ "SmallLauncher", "InheritedLauncher", "LargeLauncher" })
+    public String launcherName;
+
+    private Class<?> launcherClass;
+    private PrintStream err;
+    private final StringBuilder out = new StringBuilder();
+
+    @Setup
+    public void setUp() throws ClassNotFoundException
+    {
+        launcherClass = Class.forName(SyntaxBenchmark.class.getPackage().getName() + "." + launcherName);
+        err = System.err;
+        System.setErr(new PrintStream(new OutputStream()
+        {
+            @Override
+            public void write(final int b)
+            {
+                // discard
+            }
+
+            @Override
+            public void write(final byte[] b, final int off, final int len)
+            {
+                // discard
+            }
+        }));
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        System.setErr(err);
+    }
+
+    @Benchmark
+    public void printSyntax()
+    {
+        Options.printSyntax(launcherClass);
+    }
+
+    @Benchmark
+    public Object printSyntaxToAppendable() throws IOException
+    {
+        out.setLength(0);
+        Options.printSyntax(launcherClass, out);
+        return out;
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2026 Herve Quiroz
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.trancecode.opts.benchmark;
+
+import org.trancecode.opts.Command;
+
+/**
+ * A launcher with {@link #optionCount} switches {@code --optionN}, declared
+ * by {@link SyntheticLauncher_TcOpts}.
+ * 
+ * @author Herve Quiroz
+ */
+@Command("java -jar synthetic.jar")
+public final class SyntheticLauncher implements Runnable
+{
+    /**
+     * Number of options, to set before the first execution of the launcher
+     * in the benchmark JVM, which JMH forks for each parameter.
+     */
+    static volatile int optionCount;
+
+    @Override
+    public void run()
+    {
+        // nothing
+    }
+}
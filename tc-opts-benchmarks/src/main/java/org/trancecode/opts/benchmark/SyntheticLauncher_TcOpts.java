@@ -0,0 +1,48 @@
+/*
+ * Copyright 2026 Herve Quiroz
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.trancecode.opts.benchmark;
+
+import org.trancecode.opts.GeneratedCommand;
+
+/**
+ * Declares the options of {@link SyntheticLauncher}, as the annotation
+ * processor would for as many {@code @Option} methods.
+ * 
+ * @author Herve Quiroz
+ */
+public final class SyntheticLauncher_TcOpts extends GeneratedCommand<SyntheticLauncher>
+{
+    public SyntheticLauncher_TcOpts()
+    {
+        super(SyntheticLauncher.class);
+        for (int i = 0; i < SyntheticLauncher.optionCount; i++)
+        {
+            option("", "option" + i, "option #" + i, false, false, true, "VALUE", "(.*)");
+        }
+    }
+
+    @Override
+    public SyntheticLauncher newLauncher()
+    {
+        return new SyntheticLauncher();
+    }
+
+    @Override
+    public Object invoke(final SyntheticLauncher launcher, final int option, final Object[] parameters)
+    {
+        return null;
+    }
+}
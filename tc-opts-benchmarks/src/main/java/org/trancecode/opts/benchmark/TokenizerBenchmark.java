@@ -0,0 +1,83 @@
+/*
+ * Copyright 2026 Herve Quiroz
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.trancecode.opts.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.trancecode.opts.Options;
+
+/**
+ * Time per argument of {@link Options#validate(Class, String...)} with
+ * clustered short names, {@code --name=value} and {@code -nvalue} arguments,
+ * for the same number of arguments split in command-lines of different
+ * lengths.
+ * 
+ * @author Herve Quiroz
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenizerBenchmark
+{
+    private static final int ARGUMENT_COUNT = 100000;
+
+    @Param({ "10", "1000", "100000" })
+    public int argumentCount;
+
+    private String[] arguments;
+
+    @Setup
+    public void setUp()
+    {
+        final String[] values = { "-aname", "--add=name", "--add", "name" };
+        final List<String> arguments = new ArrayList<String>();
+        arguments.add("-fsabc");
+        arguments.add("--int=123");
+        for (int i = 0; arguments.size() < argumentCount; i++)
+        {
+            arguments.add(values[i % values.length]);
+        }
+        this.arguments = arguments.toArray(new String[arguments.size()]);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ARGUMENT_COUNT)
+    public void validate(final Blackhole blackhole)
+    {
+        for (int i = 0; i < ARGUMENT_COUNT; i += argumentCount)
+        {
+            blackhole.consume(Options.validate(SmallLauncher.class, arguments));
+        }
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2026 Herve Quiroz
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.trancecode.opts.example;
+
+import java.util.Map.Entry;
+
+import org.apache.log4j.Logger;
+import org.trancecode.opts.AbstractLog4jLauncher;
+import org.trancecode.opts.Argument;
+import org.trancecode.opts.Command;
+import org.trancecode.opts.Option;
+import org.trancecode.opts.Options;
+
+/**
+ * Sample launcher, built as a native executable by the {@code native}
+ * profile.
+ * 
+ * @author Herve Quiroz
+ */
+@Command("tc-opts-example")
+public final class GreetLauncher extends AbstractLog4jLauncher implements Runnable
+{
+    private static final Logger LOG = Logger.getLogger(GreetLauncher.class);
+
+    private String name = "World";
+    private int count = 1;
+
+    @Option(shortName = "n", longName = "name", description = "Name of the person to greet")
+    @Argument(label = "NAME")
+    public void setName(final String name)
+    {
+        this.name = name;
+    }
+
+    @Option(shortName = "c", longName = "count", description = "Number of greetings")
+    @Argument(label = "NUMBER")
+    public void setCount(final int count)
+    {
+        this.count = count;
+    }
+
+    @Override
+    public void run()
+    {
+        LOG.debug("greeting " + name + " " + count + " time(s)");
+        for (int i = 0; i < count; i++)
+        {
+            LOG.info("Hello, " + name + "!");
+        }
+    }
+
+    public static void main(final String[] args)
+    {
+        final Entry<GreetLauncher, Integer> result = Options.execute(GreetLauncher.class, args);
+        System.exit(result.getValue());
+    }
+}
@@ -0,0 +1,1085 @@
+/*
+ * Copyright 2026 Herve Quiroz
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.trancecode.opts.processor;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.MirroredTypeException;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.type.WildcardType;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic.Kind;
+import javax.tools.FileObject;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+
+import org.trancecode.opts.Argument;
+import org.trancecode.opts.Command;
+import org.trancecode.opts.GeneratedCommand;
+import org.trancecode.opts.Lazy;
+import org.trancecode.opts.Option;
+import org.trancecode.opts.Subcommand;
+import org.trancecode.opts.converter.StringConverter;
+
+/**
+ * Generates a {@link GeneratedCommand} subclass for each {@link Command}
+ * class, so that {@code Options} neither scans the launcher class nor uses
+ * {@code Method.invoke()} at run-time.
+ * <p>
+ * Classes that cannot be handled (abstract, not {@link Runnable}, not
+ * accessible from their own package, or with an invalid option
+ * configuration) are reported as warnings and left to the reflective
+ * implementation, which reports configuration errors the same way it always
+ * did. The options of the launcher classes that are valid but cannot be
+ * handled by a generated class are written to a binary index instead, so that
+ * {@code Options} does not have to scan the launcher class hierarchy.
+ * <p>
+ * A GraalVM native-image reflection configuration is also written to
+ * {@value #REFLECTION_CONFIG}, registering the generated classes, the
+ * launcher classes left to reflection and the {@link StringConverter}
+ * implementations registered in the resources of the compiled module. The
+ * processor only runs on modules with {@link Command} classes.
+ * 
+ * @author Herve Quiroz
+ */
+@SupportedAnnotationTypes({ "org.trancecode.opts.Command", "org.trancecode.opts.Subcommand" })
+public final class CommandProcessor extends AbstractProcessor
+{
+    private static final String DEFAULT_LABEL = "VALUE";
+    private static final String DEFAULT_PATTERN = "(.*)";
+    static final String REFLECTION_CONFIG = "META-INF/native-image/tc-opts-commands/reflect-config.json";
+    private static final Pattern REFLECTION_CONFIG_ENTRY = Pattern.compile("\\s*(\\{ \"name\": \"([^\"]*)\".*\\})"
+            + ",?\\s*");
+
+    // Same format as org.trancecode.opts.CommandIndex
+    private static final String COMMAND_INDEX_PREFIX = "META-INF/tc-opts/commands/";
+    private static final int COMMAND_INDEX_MAGIC = 0x74636f69;
+    private static final int COMMAND_INDEX_VERSION = 4;
+    private static final int REQUIRED = 1;
+    private static final int EXIT = 2;
+    private static final int MULTIPLE = 4;
+    private static final int STREAMING = 8;
+    private static final int BULK = 16;
+
+    // Same format as org.trancecode.opts.SubcommandIndex
+    private static final String SUBCOMMAND_INDEX_PREFIX = "META-INF/tc-opts/subcommands/";
+
+    private static final String CONVERTER_INDEX = "META-INF/tc-opts/converters";
+    private static final Set<String> BULK_TYPES = new HashSet<String>(Arrays.asList(List.class.getName(),
+            Set.class.getName(), Collection.class.getName()));
+    private static final String CONVERTER_SERVICES = "META-INF/services/" + StringConverter.class.getName();
+
+    /**
+     * native-image reflection configuration entries, by class name.
+     */
+    private final Map<String, String> reflectionConfig = new LinkedHashMap<String, String>();
+
+    /**
+     * Subcommand class names by subcommand name, by parent class name.
+     */
+    private final Map<String, Map<String, String>> subcommands = new LinkedHashMap<String, Map<String, String>>();
+
+    /**
+     * Binary names of the classes compiled in this run, which replace what an
+     * earlier incremental compilation wrote about them.
+     */
+    private final Set<String> compiledClassNames = new HashSet<String>();
+
+    /**
+     * An {@link Option} method found on a launcher class, with the
+     * annotation possibly inherited from an overridden method.
+     */
+    private static final class OptionMethod
+    {
+        private final ExecutableElement method;
+        private final Option option;
+
+        private OptionMethod(final ExecutableElement method, final Option option)
+        {
+            this.method = method;
+            this.option = option;
+        }
+    }
+
+    /**
+     * Thrown when a launcher class has to be left to the reflective
+     * implementation.
+     */
+    private static final class UnsupportedCommandException extends Exception
+    {
+        private static final long serialVersionUID = -3540214410935836027L;
+
+        private UnsupportedCommandException(final String message, final Object... args)
+        {
+            super(String.format(message, args));
+        }
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion()
+    {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(final Set<? extends TypeElement> annotations, final RoundEnvironment roundEnvironment)
+    {
+        for (final TypeElement type : ElementFilter.typesIn(roundEnvironment.getRootElements()))
+        {
+            addCompiledClass(type);
+        }
+
+        for (final Element element : roundEnvironment.getElementsAnnotatedWith(Command.class))
+        {
+            if (element.getKind() != ElementKind.CLASS)
+            {
+                continue;
+            }
+
+            final TypeElement type = (TypeElement) element;
+            final List<OptionMethod> options;
+            try
+            {
+                options = getOptions(type);
+            }
+            catch (final UnsupportedCommandException e)
+            {
+                // Invalid configuration, reported at run-time
+                processingEnv.getMessager().printMessage(Kind.WARNING,
+                        "tc-opts: no parser generated, falling back to reflection: " + e.getMessage(), type);
+                addLauncherClassConfig(type);
+                continue;
+            }
+
+            try
+            {
+                try
+                {
+                    checkGeneratedClass(type, options);
+                }
+                catch (final UnsupportedCommandException e)
+                {
+                    processingEnv.getMessager().printMessage(Kind.WARNING,
+                            "tc-opts: no parser generated, falling back to the option index: " + e.getMessage(),
+                            type);
+                    addLauncherClassConfig(type);
+                    writeIndex(type, options);
+                    continue;
+                }
+
+                generate(type, options);
+                addGeneratedClassConfig(type);
+            }
+            catch (final IOException e)
+            {
+                processingEnv.getMessager().printMessage(Kind.ERROR, "tc-opts: cannot generate parser: " + e, type);
+            }
+        }
+
+        for (final Element element : roundEnvironment.getElementsAnnotatedWith(Subcommand.class))
+        {
+            if (element.getKind() == ElementKind.CLASS)
+            {
+                addSubcommand((TypeElement) element);
+            }
+        }
+
+        if (roundEnvironment.processingOver())
+        {
+            for (final Entry<String, Map<String, String>> subcommand : subcommands.entrySet())
+            {
+                try
+                {
+                    writeSubcommandIndex(subcommand.getKey(), subcommand.getValue());
+                }
+                catch (final IOException e)
+                {
+                    processingEnv.getMessager().printMessage(Kind.ERROR,
+                            "tc-opts: cannot write subcommand index: " + e);
+                }
+            }
+
+            try
+            {
+                addConverterConfig(CONVERTER_SERVICES);
+                addConverterConfig(CONVERTER_INDEX);
+                if (!reflectionConfig.isEmpty())
+                {
+                    writeReflectionConfig();
+                }
+            }
+            catch (final IOException e)
+            {
+                processingEnv.getMessager().printMessage(Kind.ERROR,
+                        "tc-opts: cannot write " + REFLECTION_CONFIG + ": " + e);
+            }
+        }
+
+        return false;
+    }
+
+    private void addCompiledClass(final TypeElement type)
+    {
+        compiledClassNames.add(processingEnv.getElementUtils().getBinaryName(type).toString());
+        for (final TypeElement memberType : ElementFilter.typesIn(type.getEnclosedElements()))
+        {
+            addCompiledClass(memberType);
+        }
+    }
+
+    private void addSubcommand(final TypeElement type)
+    {
+        final Subcommand subcommand = type.getAnnotation(Subcommand.class);
+        final TypeMirror parentType = getParentType(subcommand);
+        final Types types = processingEnv.getTypeUtils();
+        if (parentType.getKind() != TypeKind.DECLARED || types.isSameType(getErasure(type), parentType)
+                || !types.isSubtype(getErasure(type), types.erasure(parentType)))
+        {
+            processingEnv.getMessager().printMessage(Kind.ERROR,
+                    "tc-opts: subcommand " + type.getQualifiedName() + " does not extend " + parentType, type);
+            return;
+        }
+        if (!subcommand.name().matches("[^-#\\s@][^#\\s]*"))
+        {
+            processingEnv.getMessager().printMessage(Kind.ERROR,
+                    "tc-opts: invalid subcommand name: " + literal(subcommand.name()), type);
+            return;
+        }
+
+        final String parentName = processingEnv.getElementUtils()
+                .getBinaryName((TypeElement) ((DeclaredType) parentType).asElement()).toString();
+        Map<String, String> classNames = subcommands.get(parentName);
+        if (classNames == null)
+        {
+            classNames = new LinkedHashMap<String, String>();
+            subcommands.put(parentName, classNames);
+        }
+        final String className = processingEnv.getElementUtils().getBinaryName(type).toString();
+        final String previousClassName = classNames.put(subcommand.name(), className);
+        if (previousClassName != null && !previousClassName.equals(className))
+        {
+            processingEnv.getMessager().printMessage(Kind.ERROR, "tc-opts: duplicate subcommand "
+                    + subcommand.name() + " of " + parentName + ": " + previousClassName, type);
+        }
+
+        // Loaded by name
+        if (!reflectionConfig.containsKey(className))
+        {
+            reflectionConfig.put(className, "{ \"name\": " + literal(className) + " }");
+        }
+    }
+
+    private static TypeMirror getParentType(final Subcommand subcommand)
+    {
+        try
+        {
+            subcommand.parent();
+        }
+        catch (final MirroredTypeException e)
+        {
+            return e.getTypeMirror();
+        }
+        throw new IllegalStateException("class values of annotations are only mirrored at compile-time");
+    }
+
+    /**
+     * Keeps the subcommands an earlier incremental compilation indexed, unless
+     * their class has been compiled again.
+     */
+    private void writeSubcommandIndex(final String parentName, final Map<String, String> classNames)
+            throws IOException
+    {
+        final String resourceName = SUBCOMMAND_INDEX_PREFIX + parentName;
+        final Map<String, String> allClassNames = new LinkedHashMap<String, String>();
+        final CharSequence content = readResource(resourceName);
+        if (content != null)
+        {
+            for (final String line : content.toString().split("\n"))
+            {
+                final String[] tokens = line.replaceFirst("#.*", "").trim().split("\\s+");
+                if (tokens.length == 2 && !compiledClassNames.contains(tokens[1]))
+                {
+                    allClassNames.put(tokens[0], tokens[1]);
+                }
+            }
+        }
+        allClassNames.putAll(classNames);
+
+        final FileObject file = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "",
+                resourceName);
+        final PrintWriter out = new PrintWriter(file.openWriter());
+        try
+        {
+            for (final Entry<String, String> subcommand : allClassNames.entrySet())
+            {
+                out.println(subcommand.getKey() + " " + subcommand.getValue());
+            }
+        }
+        finally
+        {
+            out.close();
+        }
+    }
+
+    /**
+     * {@code CommandModel} loads the generated class by name and calls its
+     * default constructor.
+     */
+    private void addGeneratedClassConfig(final TypeElement type)
+    {
+        addConstructorConfig(getClassName(type));
+    }
+
+    private void addConstructorConfig(final String className)
+    {
+        reflectionConfig.put(className, "{ \"name\": " + literal(className)
+                + ", \"methods\": [ { \"name\": \"<init>\", \"parameterTypes\": [] } ] }");
+    }
+
+    /**
+     * The reflective implementation looks up the public methods of the
+     * launcher class and of its superclasses, and calls its default
+     * constructor.
+     */
+    private void addLauncherClassConfig(final TypeElement type)
+    {
+        final String className = processingEnv.getElementUtils().getBinaryName(type).toString();
+        reflectionConfig.put(className, "{ \"name\": " + literal(className)
+                + ", \"allDeclaredConstructors\": true, \"allPublicMethods\": true }");
+
+        final TypeMirror parentType = type.getSuperclass();
+        if (parentType.getKind() == TypeKind.DECLARED)
+        {
+            final TypeElement parentElement = (TypeElement) ((DeclaredType) parentType).asElement();
+            if (!parentElement.getQualifiedName().contentEquals(Object.class.getName()))
+            {
+                addLauncherClassConfig(parentElement);
+            }
+        }
+    }
+
+    /**
+     * Registers the default constructor of the converters listed (first
+     * token of each line) in a resource of the compiled module, which has
+     * already been copied to the class output by the build.
+     */
+    private void addConverterConfig(final String resourceName)
+    {
+        final CharSequence content = readResource(resourceName);
+        if (content == null)
+        {
+            return;
+        }
+
+        for (final String line : content.toString().split("\n"))
+        {
+            final String converterName = line.replaceFirst("#.*", "").trim().split("\\s+")[0];
+            if (!converterName.isEmpty())
+            {
+                addConstructorConfig(converterName);
+            }
+        }
+    }
+
+    /**
+     * @return the content of a resource of the class output, or {@code null}
+     *         if there is no such resource.
+     */
+    private CharSequence readResource(final String resourceName)
+    {
+        try
+        {
+            return processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", resourceName)
+                    .getCharContent(true);
+        }
+        catch (final IOException e)
+        {
+            // No such resource
+            return null;
+        }
+    }
+
+    /**
+     * Keeps the entries an earlier incremental compilation wrote, unless their
+     * class has been compiled again.
+     */
+    private void writeReflectionConfig() throws IOException
+    {
+        final Map<String, String> config = new LinkedHashMap<String, String>();
+        final CharSequence content = readResource(REFLECTION_CONFIG);
+        if (content != null)
+        {
+            for (final String line : content.toString().split("\n"))
+            {
+                final Matcher matcher = REFLECTION_CONFIG_ENTRY.matcher(line);
+                if (matcher.matches() && !compiledClassNames.contains(matcher.group(2)))
+                {
+                    config.put(matcher.group(2), matcher.group(1));
+                }
+            }
+        }
+        config.putAll(reflectionConfig);
+
+        final FileObject file = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "",
+                REFLECTION_CONFIG);
+        final PrintWriter out = new PrintWriter(file.openWriter());
+        try
+        {
+            out.println("[");
+            int remaining = config.size();
+            for (final String entry : config.values())
+            {
+                remaining--;
+                out.println("  " + entry + (remaining > 0 ? "," : ""));
+            }
+            out.println("]");
+        }
+        finally
+        {
+            out.close();
+        }
+    }
+
+    /**
+     * @return the options of the launcher class, checked the same way as the
+     *         reflective implementation does.
+     */
+    private List<OptionMethod> getOptions(final TypeElement type) throws UnsupportedCommandException
+    {
+        final List<OptionMethod> options = new ArrayList<OptionMethod>();
+        final Set<String> shortNames = new HashSet<String>();
+        final Set<String> longNames = new HashSet<String>();
+        for (final ExecutableElement method : ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(
+                type)))
+        {
+            if (!method.getModifiers().contains(Modifier.PUBLIC))
+            {
+                continue;
+            }
+
+            final Option option = getOption(method);
+            if (option == null)
+            {
+                continue;
+            }
+
+            check(!option.description().isEmpty(), "@Option is missing a description: %s", method);
+            final TypeKind returnKind = method.getReturnType().getKind();
+            check(returnKind == TypeKind.VOID || returnKind == TypeKind.INT,
+                    "an @Option method can only return 'void' or 'int': %s", method);
+            check(option.shortName().isEmpty() || shortNames.add(option.shortName()),
+                    "duplicate option with short name -%s", option.shortName());
+            check(option.longName().isEmpty() || longNames.add(option.longName()),
+                    "duplicate option with long name --%s", option.longName());
+            final Argument argument = method.getAnnotation(Argument.class);
+            final String pattern = argument != null ? argument.pattern() : DEFAULT_PATTERN;
+            try
+            {
+                check(method.getParameters().isEmpty()
+                        || Pattern.compile(pattern).matcher("").groupCount() >= method.getParameters().size(),
+                        "argument pattern of %s has less groups than parameters: %s", method, pattern);
+            }
+            catch (final PatternSyntaxException e)
+            {
+                throw new UnsupportedCommandException("argument pattern is invalid for %s: %s", method, pattern);
+            }
+
+            check(!option.bulk() || getBulkElementType(method) != null,
+                    "a bulk option takes a single array or collection parameter: %s", method);
+            check(!option.bulk() || option.multiple(), "bulk option %s is not multiple", method);
+            check(!option.bulk() || !option.streaming(),
+                    "streaming option %s cannot take all its occurrences at once", method);
+
+            options.add(new OptionMethod(method, option));
+        }
+
+        return options;
+    }
+
+    /**
+     * Checks that the generated class can instantiate the launcher class and
+     * call its option methods.
+     */
+    private void checkGeneratedClass(final TypeElement type, final List<OptionMethod> options)
+            throws UnsupportedCommandException
+    {
+        checkLauncherClass(type);
+        for (final OptionMethod option : options)
+        {
+            for (final VariableElement parameter : option.method.getParameters())
+            {
+                checkAccessible(type, parameter.asType());
+                // Generated classes do not keep the type arguments Lazy parameters are converted to
+                check(!processingEnv.getTypeUtils().erasure(parameter.asType()).toString()
+                        .equals(Lazy.class.getName()), "%s takes a lazy parameter", option.method);
+            }
+            final TypeMirror elementType = option.option.bulk() ? getBulkElementType(option.method) : null;
+            if (elementType != null)
+            {
+                checkAccessible(type, elementType);
+            }
+        }
+    }
+
+    /**
+     * @return the erased element type of the single array or collection
+     *         parameter of the method, resolved the same way as the reflective
+     *         implementation does, or {@code null} if the option method takes
+     *         no such parameter.
+     */
+    private TypeMirror getBulkElementType(final ExecutableElement method)
+    {
+        if (method.getParameters().size() != 1)
+        {
+            return null;
+        }
+
+        final TypeMirror type = method.getParameters().get(0).asType();
+        if (type.getKind() == TypeKind.ARRAY)
+        {
+            return processingEnv.getTypeUtils().erasure(((ArrayType) type).getComponentType());
+        }
+        if (type.getKind() != TypeKind.DECLARED
+                || !BULK_TYPES.contains(((TypeElement) ((DeclaredType) type).asElement()).getQualifiedName()
+                        .toString()))
+        {
+            return null;
+        }
+
+        final List<? extends TypeMirror> typeArguments = ((DeclaredType) type).getTypeArguments();
+        TypeMirror elementType = typeArguments.isEmpty() ? null : typeArguments.get(0);
+        if (elementType != null && elementType.getKind() == TypeKind.WILDCARD)
+        {
+            elementType = ((WildcardType) elementType).getExtendsBound();
+        }
+        final TypeMirror stringType = processingEnv.getElementUtils().getTypeElement(String.class.getName())
+                .asType();
+        if (elementType == null)
+        {
+            return stringType;
+        }
+
+        elementType = processingEnv.getTypeUtils().erasure(elementType);
+        if (elementType.toString().equals(Object.class.getName()))
+        {
+            return stringType;
+        }
+        return elementType;
+    }
+
+    private void checkLauncherClass(final TypeElement type) throws UnsupportedCommandException
+    {
+        check(!type.getModifiers().contains(Modifier.ABSTRACT), "%s is abstract", type);
+        check(type.getTypeParameters().isEmpty(), "%s is generic", type);
+        check(processingEnv.getTypeUtils().isAssignable(type.asType(),
+                processingEnv.getElementUtils().getTypeElement(Runnable.class.getName()).asType()),
+                "%s does not implement %s", type, Runnable.class.getName());
+        check(type.getNestingKind() == NestingKind.TOP_LEVEL || type.getModifiers().contains(Modifier.STATIC),
+                "%s is an inner class", type);
+        checkAccessible(type, type.asType());
+
+        boolean hasDefaultConstructor = false;
+        for (final ExecutableElement constructor : ElementFilter.constructorsIn(type.getEnclosedElements()))
+        {
+            if (constructor.getParameters().isEmpty() && !constructor.getModifiers().contains(Modifier.PRIVATE))
+            {
+                hasDefaultConstructor = true;
+            }
+        }
+        check(hasDefaultConstructor, "%s has no accessible default constructor", type);
+    }
+
+    /**
+     * Checks that the generated class, which lives in the package of the
+     * launcher class, can refer to the given type.
+     */
+    private void checkAccessible(final TypeElement launcherType, final TypeMirror type)
+            throws UnsupportedCommandException
+    {
+        if (type.getKind() == TypeKind.ARRAY)
+        {
+            checkAccessible(launcherType, ((ArrayType) type).getComponentType());
+            return;
+        }
+
+        if (type.getKind() != TypeKind.DECLARED)
+        {
+            return;
+        }
+
+        final PackageElement launcherPackage = processingEnv.getElementUtils().getPackageOf(launcherType);
+        Element element = ((DeclaredType) processingEnv.getTypeUtils().erasure(type)).asElement();
+        while (element instanceof TypeElement)
+        {
+            final Set<Modifier> modifiers = element.getModifiers();
+            check(!modifiers.contains(Modifier.PRIVATE), "%s is private", element);
+            check(modifiers.contains(Modifier.PUBLIC)
+                    || processingEnv.getElementUtils().getPackageOf(element).equals(launcherPackage),
+                    "%s is not visible from %s", element, launcherPackage);
+            element = element.getEnclosingElement();
+        }
+    }
+
+    private static void check(final boolean condition, final String message, final Object... args)
+            throws UnsupportedCommandException
+    {
+        if (!condition)
+        {
+            throw new UnsupportedCommandException(message, args);
+        }
+    }
+
+    /**
+     * Same lookup as the reflective implementation: the annotation of the
+     * method itself, or else the one of the method it overrides from the
+     * superclass chain.
+     */
+    private Option getOption(final ExecutableElement method)
+    {
+        final Option explicitOption = method.getAnnotation(Option.class);
+        if (explicitOption != null)
+        {
+            return explicitOption;
+        }
+
+        final TypeElement declaringType = (TypeElement) method.getEnclosingElement();
+        final TypeMirror parentType = declaringType.getSuperclass();
+        if (parentType.getKind() != TypeKind.DECLARED)
+        {
+            return null;
+        }
+        final TypeElement parentElement = (TypeElement) ((DeclaredType) parentType).asElement();
+        if (parentElement.getQualifiedName().contentEquals(Object.class.getName()))
+        {
+            return null;
+        }
+
+        for (final ExecutableElement parentMethod : ElementFilter.methodsIn(processingEnv.getElementUtils()
+                .getAllMembers(parentElement)))
+        {
+            if (parentMethod.getModifiers().contains(Modifier.PUBLIC)
+                    && parentMethod.getSimpleName().equals(method.getSimpleName())
+                    && hasSameParameterTypes(parentMethod, method))
+            {
+                return getOption(parentMethod);
+            }
+        }
+
+        return null;
+    }
+
+    private boolean hasSameParameterTypes(final ExecutableElement method1, final ExecutableElement method2)
+    {
+        final List<? extends VariableElement> parameters1 = method1.getParameters();
+        final List<? extends VariableElement> parameters2 = method2.getParameters();
+        if (parameters1.size() != parameters2.size())
+        {
+            return false;
+        }
+
+        for (int i = 0; i < parameters1.size(); i++)
+        {
+            if (!processingEnv.getTypeUtils().isSameType(getErasure(parameters1.get(i)),
+                    getErasure(parameters2.get(i))))
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private TypeMirror getErasure(final Element element)
+    {
+        return processingEnv.getTypeUtils().erasure(element.asType());
+    }
+
+    private String getClassName(final TypeElement type)
+    {
+        return GeneratedCommand.getClassName(processingEnv.getElementUtils().getBinaryName(type).toString());
+    }
+
+    private void writeIndex(final TypeElement type, final List<OptionMethod> options) throws IOException
+    {
+        final String launcherName = processingEnv.getElementUtils().getBinaryName(type).toString();
+        final FileObject file = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "",
+                COMMAND_INDEX_PREFIX + launcherName, type);
+        final DataOutputStream out = new DataOutputStream(file.openOutputStream());
+        try
+        {
+            out.writeInt(COMMAND_INDEX_MAGIC);
+            out.writeInt(COMMAND_INDEX_VERSION);
+            out.writeUTF(launcherName);
+            out.writeInt(options.size());
+            for (final OptionMethod option : options)
+            {
+                out.writeUTF(option.method.getSimpleName().toString());
+                out.writeUTF(getRuntimeName(option.method.getReturnType()));
+                out.writeInt(option.method.getParameters().size());
+                for (final VariableElement parameter : option.method.getParameters())
+                {
+                    out.writeUTF(getRuntimeName(parameter.asType()));
+                }
+                out.writeUTF(option.option.shortName());
+                out.writeUTF(option.option.longName());
+                out.writeUTF(option.option.description());
+                out.writeByte((option.option.required() ? REQUIRED : 0) | (option.option.exit() ? EXIT : 0)
+                        | (option.option.multiple() ? MULTIPLE : 0) | (option.option.streaming() ? STREAMING : 0)
+                        | (option.option.bulk() ? BULK : 0));
+                final Argument argument = option.method.getAnnotation(Argument.class);
+                out.writeUTF(argument != null ? argument.label() : DEFAULT_LABEL);
+                out.writeUTF(argument != null ? argument.pattern() : DEFAULT_PATTERN);
+            }
+        }
+        finally
+        {
+            out.close();
+        }
+    }
+
+    /**
+     * @return the name of the erasure of the type, as returned by
+     *         {@link Class#getName()}.
+     */
+    private String getRuntimeName(final TypeMirror type)
+    {
+        if (type.getKind() == TypeKind.ARRAY)
+        {
+            return "[" + getDescriptor(((ArrayType) type).getComponentType());
+        }
+        if (type.getKind() == TypeKind.DECLARED)
+        {
+            return processingEnv.getElementUtils().getBinaryName(
+                    (TypeElement) ((DeclaredType) processingEnv.getTypeUtils().erasure(type)).asElement()).toString();
+        }
+        if (type.getKind() == TypeKind.TYPEVAR)
+        {
+            return getRuntimeName(processingEnv.getTypeUtils().erasure(type));
+        }
+
+        // Primitive types and void
+        return type.getKind().name().toLowerCase(Locale.ENGLISH);
+    }
+
+    private String getDescriptor(final TypeMirror type)
+    {
+        if (type.getKind().isPrimitive())
+        {
+            switch (((PrimitiveType) type).getKind())
+            {
+            case BOOLEAN:
+                return "Z";
+            case LONG:
+                return "J";
+            default:
+                return getRuntimeName(type).substring(0, 1).toUpperCase(Locale.ENGLISH);
+            }
+        }
+        if (type.getKind() == TypeKind.ARRAY)
+        {
+            return getRuntimeName(type);
+        }
+
+        return "L" + getRuntimeName(type) + ";";
+    }
+
+    private void generate(final TypeElement type, final List<OptionMethod> options) throws IOException
+    {
+        final String packageName = processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+        final String className = getClassName(type);
+        final String simpleClassName = packageName.isEmpty() ? className : className.substring(packageName.length() + 1);
+        final String launcherName = type.getQualifiedName().toString();
+
+        final JavaFileObject file = processingEnv.getFiler().createSourceFile(className, type);
+        final PrintWriter out = new PrintWriter(file.openWriter());
+        try
+        {
+            if (!packageName.isEmpty())
+            {
+                out.println("package " + packageName + ";");
+                out.println();
+            }
+            out.println("/**");
+            out.println(" * Generated by {@code " + getClass().getName() + "} for {@link " + launcherName + "}.");
+            out.println(" */");
+            out.println("public final class " + simpleClassName + " extends " + GeneratedCommand.class.getName()
+                    + "<" + launcherName + ">");
+            out.println("{");
+
+            out.println("    public " + simpleClassName + "()");
+            out.println("    {");
+            out.println("        super(" + launcherName + ".class);");
+            for (final OptionMethod option : options)
+            {
+                final Argument argument = option.method.getAnnotation(Argument.class);
+                final TypeMirror bulkElementType = option.option.bulk() ? getBulkElementType(option.method) : null;
+                final StringBuilder declaration = new StringBuilder();
+                declaration.append(bulkElementType != null ? "        bulkOption(" : "        option(");
+                declaration.append(literal(option.option.shortName()));
+                declaration.append(", ").append(literal(option.option.longName()));
+                declaration.append(", ").append(literal(option.option.description()));
+                declaration.append(", ").append(option.option.required());
+                declaration.append(", ").append(option.option.exit());
+                declaration.append(", ").append(option.option.multiple());
+                if (bulkElementType == null)
+                {
+                    declaration.append(", ").append(option.option.streaming());
+                }
+                declaration.append(", ").append(literal(argument != null ? argument.label() : DEFAULT_LABEL));
+                declaration.append(", ").append(literal(argument != null ? argument.pattern() : DEFAULT_PATTERN));
+                for (final VariableElement parameter : option.method.getParameters())
+                {
+                    declaration.append(", ").append(getErasure(parameter)).append(".class");
+                }
+                if (bulkElementType != null)
+                {
+                    declaration.append(", ").append(bulkElementType).append(".class");
+                }
+                declaration.append(");");
+                out.println(declaration);
+            }
+            out.println("    }");
+            out.println();
+
+            out.println("    @Override");
+            out.println("    public " + launcherName + " newLauncher()");
+            out.println("    {");
+            out.println("        return new " + launcherName + "();");
+            out.println("    }");
+            out.println();
+
+            out.println("    @Override");
+            out.println("    protected boolean hasPrimitiveInvokers()");
+            out.println("    {");
+            out.println("        return true;");
+            out.println("    }");
+            out.println();
+
+            out.println("    @Override");
+            out.println("    @SuppressWarnings({ \"unchecked\", \"rawtypes\" })");
+            out.println("    public Object invoke(final " + launcherName
+                    + " launcher, final int option, final Object[] parameters) throws Exception");
+            out.println("    {");
+            out.println("        switch (option)");
+            out.println("        {");
+            for (int i = 0; i < options.size(); i++)
+            {
+                final ExecutableElement method = options.get(i).method;
+                final List<String> arguments = new ArrayList<String>();
+                for (int j = 0; j < method.getParameters().size(); j++)
+                {
+                    arguments.add(getCast(getErasure(method.getParameters().get(j))) + "parameters[" + j + "]");
+                }
+                out.println("        case " + i + ":");
+                printInvocation(out, launcherName, method, arguments);
+            }
+            out.println("        default:");
+            out.println("            throw new IllegalArgumentException(\"option index: \" + option);");
+            out.println("        }");
+            out.println("    }");
+
+            printPrimitiveInvoker(out, launcherName, options, "invokeBoolean", TypeKind.BOOLEAN,
+                    EnumSet.of(TypeKind.BOOLEAN));
+            printPrimitiveInvoker(out, launcherName, options, "invokeDouble", TypeKind.DOUBLE,
+                    EnumSet.of(TypeKind.DOUBLE, TypeKind.FLOAT));
+            printPrimitiveInvoker(out, launcherName, options, "invokeLong", TypeKind.LONG,
+                    EnumSet.of(TypeKind.BYTE, TypeKind.CHAR, TypeKind.INT, TypeKind.LONG, TypeKind.SHORT));
+            out.println("}");
+        }
+        finally
+        {
+            out.close();
+        }
+    }
+
+    private static void printInvocation(final PrintWriter out, final String launcherName,
+            final ExecutableElement method, final List<String> arguments)
+    {
+        final StringBuilder invocation = new StringBuilder();
+        if (method.getModifiers().contains(Modifier.STATIC))
+        {
+            invocation.append(launcherName);
+        }
+        else
+        {
+            invocation.append("launcher");
+        }
+        invocation.append(".").append(method.getSimpleName()).append("(");
+        for (int i = 0; i < arguments.size(); i++)
+        {
+            if (i > 0)
+            {
+                invocation.append(", ");
+            }
+            invocation.append(arguments.get(i));
+        }
+        invocation.append(")");
+
+        if (method.getReturnType().getKind() == TypeKind.VOID)
+        {
+            out.println("            " + invocation + ";");
+            out.println("            return null;");
+        }
+        else
+        {
+            out.println("            return " + invocation + ";");
+        }
+    }
+
+    /**
+     * Prints the unboxed invoker for the options taking a single parameter of
+     * one of the given primitive kinds, if there are any.
+     */
+    private static void printPrimitiveInvoker(final PrintWriter out, final String launcherName,
+            final List<OptionMethod> options, final String methodName, final TypeKind valueKind,
+            final Set<TypeKind> parameterKinds)
+    {
+        boolean empty = true;
+        for (int i = 0; i < options.size(); i++)
+        {
+            final ExecutableElement method = options.get(i).method;
+            if (method.getParameters().size() != 1)
+            {
+                continue;
+            }
+            final TypeKind parameterKind = method.getParameters().get(0).asType().getKind();
+            if (!parameterKinds.contains(parameterKind))
+            {
+                continue;
+            }
+
+            if (empty)
+            {
+                final String valueType = valueKind.name().toLowerCase(Locale.ENGLISH);
+                out.println();
+                out.println("    @Override");
+                out.println("    public Object " + methodName + "(final " + launcherName
+                        + " launcher, final int option, final " + valueType + " value) throws Exception");
+                out.println("    {");
+                out.println("        switch (option)");
+                out.println("        {");
+                empty = false;
+            }
+
+            out.println("        case " + i + ":");
+            if (parameterKind == valueKind)
+            {
+                printInvocation(out, launcherName, method, Collections.singletonList("value"));
+            }
+            else
+            {
+                final String parameterType = parameterKind.name().toLowerCase(Locale.ENGLISH);
+                printInvocation(out, launcherName, method, Collections.singletonList("(" + parameterType
+                        + ") value"));
+            }
+        }
+
+        if (!empty)
+        {
+            out.println("        default:");
+            out.println("            return super." + methodName + "(launcher, option, value);");
+            out.println("        }");
+            out.println("    }");
+        }
+    }
+
+    /**
+     * Primitive parameters are cast to their primitive type explicitly so that
+     * overload resolution picks the very method the annotation is on.
+     */
+    private String getCast(final TypeMirror type)
+    {
+        if (type.getKind().isPrimitive())
+        {
+            final TypeElement boxedType = processingEnv.getTypeUtils().boxedClass(
+                    processingEnv.getTypeUtils().getPrimitiveType(type.getKind()));
+            return "(" + type + ") (" + boxedType.getQualifiedName() + ") ";
+        }
+
+        return "(" + type + ") ";
+    }
+
+    private static String literal(final String value)
+    {
+        final StringBuilder literal = new StringBuilder("\"");
+        for (int i = 0; i < value.length(); i++)
+        {
+            final char c = value.charAt(i);
+            switch (c)
+            {
+            case '"':
+                literal.append("\\\"");
+                break;
+            case '\\':
+                literal.append("\\\\");
+                break;
+            case '\n':
+                literal.append("\\n");
+                break;
+            case '\r':
+                literal.append("\\r");
+                break;
+            case '\t':
+                literal.append("\\t");
+                break;
+            default:
+                if (c < 0x20 || c > 0x7e)
+                {
+                    literal.append(String.format("\\u%04x", (int) c));
+                }
+                else
+                {
+                    literal.append(c);
+                }
+            }
+        }
+        return literal.append("\"").toString();
+    }
+}
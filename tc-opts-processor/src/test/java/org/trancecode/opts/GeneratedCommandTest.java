@@ -0,0 +1,324 @@
+/*
+ * Copyright 2026 Herve Quiroz
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.trancecode.opts;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+
+import org.testng.Assert;
+import org.testng.SkipException;
+import org.testng.annotations.Test;
+
+/**
+ * Checks that the launchers of {@link OptionsTest}, which this module compiles
+ * and runs with the annotation processor enabled, go through
+ * {@link GeneratedCommand} rather than reflection.
+ * 
+ * @author Herve Quiroz
+ */
+public final class GeneratedCommandTest
+{
+    private static final String INCREMENTAL_PACKAGE = "org.trancecode.opts.incremental";
+
+    /**
+     * Generic, hence left to the option index.
+     */
+    @Command("generic")
+    public static final class GenericLauncher<T> extends AbstractLauncher implements Runnable
+    {
+        private String name;
+        private int[] numbers = {};
+
+        @Option(longName = "name", description = "set the name", required = true)
+        public void setName(final String name)
+        {
+            this.name = name;
+        }
+
+        @Option(shortName = "n", description = "set the numbers")
+        @Argument(label = "NUMBER,NUMBER", pattern = "([0-9]+),([0-9]+)")
+        public void setNumbers(final int first, final int second)
+        {
+            numbers = new int[] { first, second };
+        }
+
+        @Override
+        public void run()
+        {
+            // Nothing to do
+        }
+    }
+
+    @Command("parent")
+    public static class ParentLauncher implements Runnable
+    {
+        @Override
+        public void run()
+        {
+            // Nothing to do
+        }
+    }
+
+    @Command("parent child")
+    @Subcommand(parent = ParentLauncher.class, name = "child")
+    public static final class ChildLauncher extends ParentLauncher
+    {
+        // No option of its own
+    }
+
+    @Test
+    public void generatedModel()
+    {
+        Assert.assertTrue(CommandModel.get(OptionsTest.Launcher2.class).isGenerated());
+        Assert.assertTrue(CommandModel.get(OptionsTest.Launcher4.class).isGenerated());
+        Assert.assertTrue(CommandModel.get(OptionsTest.RequiredOption.class).isGenerated());
+    }
+
+    @Test
+    public void primitiveOptions()
+    {
+        final CommandModel model = CommandModel.get(OptionsTest.Launcher2.class);
+        Assert.assertTrue(model.findOptionWithShortName("b").isPrimitive());
+        Assert.assertTrue(model.findOptionWithLongName("int").isPrimitive());
+        Assert.assertFalse(model.findOptionWithLongName("string").isPrimitive());
+        // Boxed parameter
+        Assert.assertFalse(model.findOptionWithShortName("d").isPrimitive());
+    }
+
+    @Test
+    public void inheritedOptions()
+    {
+        final CommandModel model = CommandModel.get(OptionsTest.ExtendingAbstractClass.class);
+        Assert.assertTrue(model.isGenerated());
+        Assert.assertNotNull(model.findOptionWithShortName("h"));
+        Assert.assertNotNull(model.findOptionWithShortName("q"));
+        Assert.assertNotNull(model.findOptionWithLongName("verbose"));
+    }
+
+    @Test
+    public void generatedClassName()
+    {
+        Assert.assertEquals(GeneratedCommand.getClassName(OptionsTest.Launcher2.class.getName()),
+                "org.trancecode.opts.OptionsTest_Launcher2_TcOpts");
+    }
+
+    @Test
+    public void nativeImageReflectionConfig() throws IOException
+    {
+        final BufferedReader reader = new BufferedReader(new InputStreamReader(getClass().getClassLoader()
+                .getResourceAsStream("META-INF/native-image/tc-opts-commands/reflect-config.json"), "UTF-8"));
+        final StringBuilder config = new StringBuilder();
+        try
+        {
+            for (String line = reader.readLine(); line != null; line = reader.readLine())
+            {
+                config.append(line).append('\n');
+            }
+        }
+        finally
+        {
+            reader.close();
+        }
+
+        Assert.assertTrue(config.indexOf("\"org.trancecode.opts.OptionsTest_Launcher2_TcOpts\"") >= 0, config
+                .toString());
+        // Left to reflection
+        Assert.assertTrue(config.indexOf("\"org.trancecode.opts.OptionsTest$NotEnoughGroups\", "
+                + "\"allDeclaredConstructors\": true, \"allPublicMethods\": true") >= 0, config.toString());
+        // Subcommand loaded by name
+        final String childConfig = "{ \"name\": \"org.trancecode.opts.GeneratedCommandTest$ChildLauncher\" }";
+        Assert.assertTrue(config.indexOf(childConfig) >= 0, config.toString());
+    }
+
+    @Test
+    public void indexedModel()
+    {
+        final CommandModel model = CommandModel.get(GenericLauncher.class);
+        Assert.assertFalse(model.isGenerated());
+        Assert.assertTrue(model.isIndexed());
+        Assert.assertTrue(model.findOptionWithLongName("name").required());
+        Assert.assertNotNull(model.findOptionWithLongName("verbose"));
+
+        @SuppressWarnings("rawtypes")
+        final GenericLauncher launcher = Options.execute(GenericLauncher.class, "--name", "abc", "-n", "1,2", "-v")
+                .getKey();
+        Assert.assertEquals(launcher.name, "abc");
+        Assert.assertEquals(launcher.numbers, new int[] { 1, 2 });
+        Assert.assertTrue(launcher.isVerbose());
+    }
+
+    @Test
+    public void staleIndex() throws IOException
+    {
+        final InputStream resource = GenericLauncher.class.getClassLoader().getResourceAsStream(
+                CommandIndex.RESOURCE_PREFIX + GenericLauncher.class.getName());
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try
+        {
+            final byte[] buffer = new byte[4096];
+            for (int length = resource.read(buffer); length >= 0; length = resource.read(buffer))
+            {
+                bytes.write(buffer, 0, length);
+            }
+        }
+        finally
+        {
+            resource.close();
+        }
+        final byte[] index = bytes.toByteArray();
+        Assert.assertNotNull(CommandIndex.readOptions(GenericLauncher.class, new DataInputStream(
+                new ByteArrayInputStream(index))));
+
+        // Description edited since the index was written
+        final int descriptionOffset = new String(index, "ISO-8859-1").indexOf("set the name");
+        index[descriptionOffset]++;
+        Assert.assertNull(CommandIndex.readOptions(GenericLauncher.class, new DataInputStream(
+                new ByteArrayInputStream(index))));
+    }
+
+    @Test
+    public void subcommandIndex()
+    {
+        Assert.assertEquals(Options.execute(ParentLauncher.class, "child").getKey().getClass(), ChildLauncher.class);
+        Assert.assertEquals(Options.execute(ParentLauncher.class).getKey().getClass(), ParentLauncher.class);
+    }
+
+    @Test
+    public void incrementalCompilation() throws IOException
+    {
+        final File directory = File.createTempFile("tc-opts", ".classes");
+        Assert.assertTrue(directory.delete() && directory.mkdir());
+        try
+        {
+            compile(directory, "Tool", "@Command(\"tool\") public class Tool implements Runnable "
+                    + "{ public void run() {} }");
+            compile(directory, "Build", "@Command(\"tool build\") @Subcommand(parent = Tool.class, name = \"build\") "
+                    + "public class Build extends Tool {}");
+            compile(directory, "Clean", "@Command(\"tool clean\") @Subcommand(parent = Tool.class, name = \"clean\") "
+                    + "public class Clean extends Tool {}");
+            final File index = new File(directory, SubcommandIndex.RESOURCE_PREFIX + INCREMENTAL_PACKAGE + ".Tool");
+            Assert.assertEquals(read(index), "build " + INCREMENTAL_PACKAGE + ".Build\nclean " + INCREMENTAL_PACKAGE
+                    + ".Clean\n");
+
+            // Renamed since
+            compile(directory, "Build", "@Command(\"tool make\") @Subcommand(parent = Tool.class, name = \"make\") "
+                    + "public class Build extends Tool {}");
+            Assert.assertEquals(read(index), "clean " + INCREMENTAL_PACKAGE + ".Clean\nmake " + INCREMENTAL_PACKAGE
+                    + ".Build\n");
+
+            final String config = read(new File(directory,
+                    "META-INF/native-image/tc-opts-commands/reflect-config.json"));
+            for (final String className : new String[] { "Tool_TcOpts", "Build", "Build_TcOpts", "Clean",
+                    "Clean_TcOpts" })
+            {
+                final String name = "\"" + INCREMENTAL_PACKAGE + "." + className + "\"";
+                Assert.assertEquals(config.indexOf(name), config.lastIndexOf(name), config);
+                Assert.assertTrue(config.indexOf(name) >= 0, config);
+            }
+        }
+        finally
+        {
+            delete(directory);
+        }
+    }
+
+    /**
+     * Compiles a class of {@link #INCREMENTAL_PACKAGE} with the annotation
+     * processor, against the classes already compiled to the directory.
+     */
+    private static void compile(final File directory, final String className, final String declaration)
+            throws IOException
+    {
+        final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null)
+        {
+            throw new SkipException("no Java compiler");
+        }
+
+        final File sourceFile = new File(directory, className + ".java");
+        final Writer writer = new OutputStreamWriter(new FileOutputStream(sourceFile), "UTF-8");
+        try
+        {
+            writer.append("package " + INCREMENTAL_PACKAGE + ";\nimport org.trancecode.opts.*;\n").append(
+                    declaration);
+        }
+        finally
+        {
+            writer.close();
+        }
+
+        final ByteArrayOutputStream errors = new ByteArrayOutputStream();
+        final String classPath = System.getProperty("java.class.path") + File.pathSeparator + directory.getPath();
+        Assert.assertEquals(compiler.run(null, null, errors, "-processor",
+                "org.trancecode.opts.processor.CommandProcessor", "-classpath", classPath, "-d", directory.getPath(),
+                sourceFile.getPath()), 0, errors.toString("UTF-8"));
+        Assert.assertTrue(sourceFile.delete());
+    }
+
+    private static String read(final File file) throws IOException
+    {
+        final BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), "UTF-8"));
+        final StringBuilder content = new StringBuilder();
+        try
+        {
+            for (String line = reader.readLine(); line != null; line = reader.readLine())
+            {
+                content.append(line).append('\n');
+            }
+        }
+        finally
+        {
+            reader.close();
+        }
+        return content.toString();
+    }
+
+    private static void delete(final File file)
+    {
+        final File[] children = file.listFiles();
+        if (children != null)
+        {
+            for (final File child : children)
+            {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+
+    @Test
+    public void generatedOptionCommandLineException()
+    {
+        Assert.assertTrue(CommandModel.get(OptionsTest.RejectingLauncher.class).isGenerated());
+        Assert.assertEquals(OptionsTest.getCommandLineException(OptionsTest.RejectingLauncher.class, "--name", "a")
+                .exitCode(), 4);
+        Assert.assertEquals(OptionsTest.getCommandLineException(OptionsTest.RejectingLauncher.class, "--count", "1")
+                .exitCode(), 5);
+    }
+}